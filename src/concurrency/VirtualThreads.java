@@ -0,0 +1,94 @@
+package concurrency;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads (Java 21+) from code that is still compiled for Java 11.
+ *
+ * The Thread.Builder and Executors methods are looked up reflectively once; on an older
+ * JVM, or on 19/20 without --enable-preview, isAvailable() is false and newExecutor()
+ * throws instead of silently falling back to platform threads.
+ */
+public final class VirtualThreads {
+    private static final ThreadFactoryMaker MAKER = lookup();
+
+    private VirtualThreads() {}
+
+    /** True when this JVM can start virtual threads */
+    public static boolean isAvailable() {
+        return MAKER != null;
+    }
+
+    /**
+     * Executor that starts a new virtual thread, named prefix + counter, for every task
+     *
+     * @throws UnsupportedOperationException if the JVM has no virtual threads
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        if (MAKER == null) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or later (running "
+                    + System.getProperty("java.version") + ")");
+        }
+        return MAKER.executor(prefix);
+    }
+
+    private static ThreadFactoryMaker lookup() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Method name = builder.getMethod("name", String.class, long.class);
+            Method factory = builder.getMethod("factory");
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            ThreadFactoryMaker maker = new ThreadFactoryMaker(ofVirtual, name, factory, perTask);
+            // preview builds expose the methods but refuse to run them
+            maker.factory("probe-");
+            return maker;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class ThreadFactoryMaker {
+        final Method ofVirtual;
+        final Method name;
+        final Method factory;
+        final Method perTask;
+
+        ThreadFactoryMaker(Method ofVirtual, Method name, Method factory, Method perTask) {
+            this.ofVirtual = ofVirtual;
+            this.name = name;
+            this.factory = factory;
+            this.perTask = perTask;
+        }
+
+        ThreadFactory factory(String prefix) {
+            try {
+                Object builder = name.invoke(ofVirtual.invoke(null), prefix, 0L);
+                return (ThreadFactory) factory.invoke(builder);
+            } catch (InvocationTargetException e) {
+                throw unwrap(e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        ExecutorService executor(String prefix) {
+            try {
+                return (ExecutorService) perTask.invoke(null, factory(prefix));
+            } catch (InvocationTargetException e) {
+                throw unwrap(e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static RuntimeException unwrap(InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            return cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+}
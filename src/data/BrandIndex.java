@@ -0,0 +1,70 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import models.Vehicle;
+
+/**
+ * Case-insensitive brand index supporting substring queries.
+ *
+ * Vehicles are posted under their lowercased brand; a trigram index maps every
+ * three-character slice of a brand to the brands containing it. A query of three or
+ * more characters intersects the brand sets of its trigrams, so only brands that can
+ * contain it are checked. Shorter queries scan the distinct brands, which are few
+ * compared with the vehicles themselves.
+ */
+class BrandIndex {
+    private static final int GRAM = 3;
+
+    private final VehicleIndex<String> byBrand = new VehicleIndex<>();
+    // trigram -> brands containing it; entries are only ever added, stale brands
+    // simply have no posting any more and are skipped at query time
+    private final ConcurrentHashMap<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+    static String normalize(String brand) {
+        return brand == null ? null : brand.toLowerCase();
+    }
+
+    void add(String rawBrand, long seq, Vehicle vehicle) {
+        String brand = normalize(rawBrand);
+        if (brand == null) return;
+        if (byBrand.add(brand, seq, vehicle)) {
+            for (int i = 0; i + GRAM <= brand.length(); i++) {
+                grams.computeIfAbsent(brand.substring(i, i + GRAM), g -> ConcurrentHashMap.newKeySet()).add(brand);
+            }
+        }
+    }
+
+    void remove(String rawBrand, long seq, Vehicle vehicle) {
+        String brand = normalize(rawBrand);
+        if (brand != null) byBrand.remove(brand, seq, vehicle);
+    }
+
+    /**
+     * Postings of every brand containing the query (already trimmed and lowercased)
+     */
+    List<VehicleIndex.Posting> matching(String query) {
+        List<VehicleIndex.Posting> out = new ArrayList<>();
+        for (String brand : candidates(query)) {
+            if (!brand.contains(query)) continue;
+            VehicleIndex.Posting p = byBrand.get(brand);
+            if (p != null) out.add(p);
+        }
+        return out;
+    }
+
+    private Set<String> candidates(String query) {
+        if (query.length() < GRAM) return byBrand.keys();
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<String> brands = grams.get(query.substring(i, i + GRAM));
+            if (brands == null) return Collections.emptySet();
+            if (smallest == null || brands.size() < smallest.size()) smallest = brands;
+        }
+        return smallest;
+    }
+}
@@ -0,0 +1,552 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * In-memory VehicleRepository that stores vehicles column by column in primitive
+ * arrays instead of one object per vehicle: a byte type code, dictionary-encoded
+ * brand/model/label codes, int years, doors and engine cc, double payloads and a byte
+ * of boolean flags. Vehicle objects are only created for results, so filters and
+ * statistics are tight loops over primitive arrays.
+ *
+ * Ids are located through an open-addressing hash table of row numbers, and a removal
+ * moves the last row into the freed one, so row order is insertion order only until
+ * the first removal (paged queries are ordered by id, as in the other stores).
+ * A read-write lock guards all columns; streamVehicles builds vehicles a chunk at a
+ * time under the read lock and feeds the sink outside it.
+ */
+public class ColumnarVehicleRepository implements VehicleRepository {
+    private static final byte CAR = 0;
+    private static final byte BIKE = 1;
+    private static final byte TRUCK = 2;
+    private static final byte MOTORCYCLE = 3;
+    private static final String[] TYPE_KEYS = {"car", "bike", "truck", "motorcycle"};
+    private static final String[] TYPE_NAMES = {"Car", "Bike", "Truck", "Motorcycle"};
+
+    private static final byte SIDECAR = 1;
+    private static final byte TRAILER = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    // vehicles built per read-lock hold while streaming
+    private static final int STREAM_CHUNK = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StringDictionary brandNames = new StringDictionary();
+    private final StringDictionary modelNames = new StringDictionary();
+    // fuel type for cars, category for bikes and motorcycles
+    private final StringDictionary labelNames = new StringDictionary();
+
+    private int size;
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] brands = new int[INITIAL_CAPACITY];
+    private int[] models = new int[INITIAL_CAPACITY];
+    private int[] years = new int[INITIAL_CAPACITY];
+    private int[] labels = new int[INITIAL_CAPACITY];
+    private int[] doors = new int[INITIAL_CAPACITY];
+    private int[] engineCc = new int[INITIAL_CAPACITY];
+    private double[] payloads = new double[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    // id hash -> row + 1 (0 marks an empty slot), linear probing, at most half full
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    @Override
+    public void init() {
+        // nothing to initialize for the in-memory columns
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- writes ----
+
+    @Override
+    public void addVehicle(Vehicle v) {
+        lock.writeLock().lock();
+        try {
+            put(v);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addVehicles(List<Vehicle> vehicles) {
+        for (Vehicle v : vehicles) typeOf(v); // reject the batch before any of it is stored
+        lock.writeLock().lock();
+        try {
+            for (Vehicle v : vehicles) put(v);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateVehicle(Vehicle v) {
+        lock.writeLock().lock();
+        try {
+            return replace(v);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int updateVehicles(List<Vehicle> vehicles) {
+        for (Vehicle v : vehicles) typeOf(v);
+        lock.writeLock().lock();
+        try {
+            int updated = 0;
+            for (Vehicle v : vehicles) {
+                if (replace(v)) updated++;
+            }
+            return updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeVehicleById(String id) {
+        lock.writeLock().lock();
+        try {
+            return delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int removeVehiclesByIds(Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (String id : ids) {
+                if (delete(id)) removed++;
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Insert, or overwrite the row of an existing id in place
+    private void put(Vehicle v) {
+        int slot = slotOf(v.getId());
+        if (slots[slot] != 0) {
+            write(slots[slot] - 1, v);
+            return;
+        }
+        if (size == ids.length) grow();
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+            slot = slotOf(v.getId());
+        }
+        // the row only counts once write() has accepted the vehicle
+        int row = size;
+        write(row, v);
+        size++;
+        slots[slot] = row + 1;
+    }
+
+    private boolean replace(Vehicle v) {
+        int row = rowOf(v.getId());
+        if (row < 0) return false;
+        write(row, v);
+        return true;
+    }
+
+    private boolean delete(String id) {
+        if (id == null) return false;
+        int slot = slotOf(id);
+        if (slots[slot] == 0) return false;
+        int row = slots[slot] - 1;
+        clearSlot(slot);
+        int last = size - 1;
+        if (row != last) {
+            // the moved id still sits in ids[last] while its slot is repointed
+            slots[slotOf(ids[last])] = row + 1;
+            copyRow(last, row);
+        }
+        ids[last] = null;
+        size--;
+        return true;
+    }
+
+    // Throws before touching any column if v cannot be stored
+    private void write(int row, Vehicle v) {
+        byte type = typeOf(v);
+        ids[row] = v.getId();
+        types[row] = type;
+        brands[row] = brandNames.encode(v.getBrand());
+        models[row] = modelNames.encode(v.getModel());
+        years[row] = v.getYear();
+        labels[row] = StringDictionary.NULL;
+        doors[row] = 0;
+        engineCc[row] = 0;
+        payloads[row] = 0;
+        flags[row] = 0;
+        switch (type) {
+            case CAR:
+                Car c = (Car) v;
+                doors[row] = c.getNumDoors();
+                labels[row] = labelNames.encode(c.getFuelType());
+                break;
+            case BIKE:
+                Bike b = (Bike) v;
+                labels[row] = labelNames.encode(b.getType());
+                if (b.hasSidecar()) flags[row] |= SIDECAR;
+                break;
+            case TRUCK:
+                Truck t = (Truck) v;
+                payloads[row] = t.getPayloadCapacityKg();
+                if (t.hasTrailer()) flags[row] |= TRAILER;
+                break;
+            default:
+                Motorcycle m = (Motorcycle) v;
+                engineCc[row] = m.getEngineCc();
+                labels[row] = labelNames.encode(m.getCategory());
+                break;
+        }
+    }
+
+    private static byte typeOf(Vehicle v) {
+        if (v.getId() == null) throw new IllegalArgumentException("Vehicle id is required");
+        if (v instanceof Car) return CAR;
+        if (v instanceof Bike) return BIKE;
+        if (v instanceof Truck) return TRUCK;
+        if (v instanceof Motorcycle) return MOTORCYCLE;
+        throw new IllegalArgumentException("Unsupported vehicle type: " + v.getClass().getName());
+    }
+
+    private void copyRow(int from, int to) {
+        ids[to] = ids[from];
+        types[to] = types[from];
+        brands[to] = brands[from];
+        models[to] = models[from];
+        years[to] = years[from];
+        labels[to] = labels[from];
+        doors[to] = doors[from];
+        engineCc[to] = engineCc[from];
+        payloads[to] = payloads[from];
+        flags[to] = flags[from];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        brands = Arrays.copyOf(brands, capacity);
+        models = Arrays.copyOf(models, capacity);
+        years = Arrays.copyOf(years, capacity);
+        labels = Arrays.copyOf(labels, capacity);
+        doors = Arrays.copyOf(doors, capacity);
+        engineCc = Arrays.copyOf(engineCc, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    // ---- id hash table ----
+
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Slot holding id, or the empty slot where it would be inserted
+    private int slotOf(String id) {
+        int mask = slots.length - 1;
+        int i = hash(id) & mask;
+        while (slots[i] != 0 && !ids[slots[i] - 1].equals(id)) i = (i + 1) & mask;
+        return i;
+    }
+
+    private int rowOf(String id) {
+        return id == null ? -1 : slots[slotOf(id)] - 1;
+    }
+
+    // Backward-shift deletion keeps every probe chain unbroken without tombstones
+    private void clearSlot(int hole) {
+        int mask = slots.length - 1;
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            int entry = slots[j];
+            if (entry == 0) break;
+            int home = hash(ids[entry - 1]) & mask;
+            boolean reachable = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!reachable) {
+                slots[hole] = entry;
+                hole = j;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < size; row++) {
+            int i = hash(ids[row]) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = row + 1;
+        }
+    }
+
+    // ---- reads ----
+
+    @Override
+    public Vehicle getVehicleById(String id) {
+        lock.readLock().lock();
+        try {
+            int row = rowOf(id);
+            return row < 0 ? null : vehicleAt(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        lock.readLock().lock();
+        try {
+            List<Vehicle> out = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) out.add(vehicleAt(row));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> findVehicles(VehicleQuery query) {
+        if (query.hasUnknownType()) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] rows = query.isPaged() ? page(query) : matchingRows(query);
+            List<Vehicle> out = new ArrayList<>(rows.length);
+            for (int row : rows) out.add(vehicleAt(row));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the five summary columns straight from their arrays; no Vehicle is built
+     */
+    @Override
+    public List<VehicleSummary> findVehicleSummaries(VehicleQuery query) {
+        if (query.hasUnknownType()) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] rows = query.isPaged() ? page(query) : matchingRows(query);
+            List<VehicleSummary> out = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                out.add(new VehicleSummary(ids[row], TYPE_NAMES[types[row]], brandNames.decode(brands[row]),
+                        modelNames.decode(models[row]), years[row]));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The matching ids are taken under the read lock, then vehicles are built STREAM_CHUNK
+     * at a time under it and handed to the sink outside it, so a slow sink does not hold
+     * up writers. A vehicle removed, or changed so that it no longer matches, before its
+     * chunk is built is skipped.
+     */
+    @Override
+    public void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) {
+        if (query.hasUnknownType()) return;
+        String[] matching;
+        lock.readLock().lock();
+        try {
+            int[] rows = query.isPaged() ? page(query) : matchingRows(query);
+            matching = new String[rows.length];
+            for (int i = 0; i < rows.length; i++) matching[i] = ids[rows[i]];
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Vehicle> chunk = new ArrayList<>(Math.min(STREAM_CHUNK, matching.length));
+        for (int from = 0; from < matching.length; from += STREAM_CHUNK) {
+            int to = Math.min(matching.length, from + STREAM_CHUNK);
+            chunk.clear();
+            lock.readLock().lock();
+            try {
+                RowFilter filter = new RowFilter(query);
+                for (int i = from; i < to; i++) {
+                    int row = rowOf(matching[i]);
+                    if (row >= 0 && filter.test(row)) chunk.add(vehicleAt(row));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            chunk.forEach(sink);
+        }
+    }
+
+    // Rows passing the filter and cursor, in row order: one pass over the primitive columns
+    private int[] matchingRows(VehicleQuery query) {
+        RowFilter filter = new RowFilter(query);
+        String after = query.getAfterId();
+        int[] out = new int[Math.min(size, 1024)];
+        int n = 0;
+        for (int row = 0; row < size; row++) {
+            if (!filter.test(row)) continue;
+            if (after != null && ids[row].compareTo(after) <= 0) continue;
+            if (n == out.length) out = Arrays.copyOf(out, Math.max(16, n * 2));
+            out[n++] = row;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // The query's type, year and brand conditions against the current columns; the
+    // brand test is resolved once per distinct brand when the filter is built
+    private final class RowFilter {
+        final boolean[] brandOk;
+        final int type;
+        final boolean anyYear;
+        final int year;
+
+        RowFilter(VehicleQuery query) {
+            brandOk = query.getBrand() == null ? null : brandsContaining(query.getBrand());
+            type = query.getType() == null ? -1 : typeCode(query.getVehicleClass());
+            anyYear = query.getYear() == null;
+            year = anyYear ? 0 : query.getYear();
+        }
+
+        boolean test(int row) {
+            if (type >= 0 && types[row] != type) return false;
+            if (!anyYear && years[row] != year) return false;
+            return brandOk == null || (brands[row] >= 0 && brandOk[brands[row]]);
+        }
+    }
+
+    // Id-ordered window; with a limit only the offset + limit smallest ids are kept in a heap
+    private int[] page(VehicleQuery query) {
+        int[] rows = matchingRows(query);
+        Comparator<Integer> byId = Comparator.comparing(row -> ids[row]);
+        Integer[] sorted;
+        if (query.getLimit() != null && (long) query.getOffset() + query.getLimit() < rows.length) {
+            int keep = query.getOffset() + query.getLimit();
+            PriorityQueue<Integer> largestFirst = new PriorityQueue<>(keep + 1, byId.reversed());
+            for (int row : rows) {
+                largestFirst.add(row);
+                if (largestFirst.size() > keep) largestFirst.poll();
+            }
+            sorted = largestFirst.toArray(new Integer[0]);
+        } else {
+            sorted = new Integer[rows.length];
+            for (int i = 0; i < rows.length; i++) sorted[i] = rows[i];
+        }
+        Arrays.sort(sorted, byId);
+        int from = Math.min(query.getOffset(), sorted.length);
+        int to = query.getLimit() == null ? sorted.length : (int) Math.min(sorted.length, (long) from + query.getLimit());
+        int[] out = new int[to - from];
+        for (int i = from; i < to; i++) out[i - from] = sorted[i];
+        return out;
+    }
+
+    // Brand codes whose name contains the (lowercased) query; tested once per distinct brand
+    private boolean[] brandsContaining(String query) {
+        boolean[] ok = new boolean[brandNames.size()];
+        for (int code = 0; code < ok.length; code++) {
+            ok[code] = brandNames.decode(code).toLowerCase().contains(query);
+        }
+        return ok;
+    }
+
+    private static int typeCode(Class<? extends Vehicle> type) {
+        if (type == Car.class) return CAR;
+        if (type == Bike.class) return BIKE;
+        if (type == Truck.class) return TRUCK;
+        return MOTORCYCLE;
+    }
+
+    private Vehicle vehicleAt(int row) {
+        String id = ids[row];
+        String brand = brandNames.decode(brands[row]);
+        String model = modelNames.decode(models[row]);
+        int year = years[row];
+        switch (types[row]) {
+            case CAR:
+                return new Car(id, brand, model, year, doors[row], labelNames.decode(labels[row]));
+            case BIKE:
+                return new Bike(id, brand, model, year, (flags[row] & SIDECAR) != 0, labelNames.decode(labels[row]));
+            case TRUCK:
+                return new Truck(id, brand, model, year, payloads[row], (flags[row] & TRAILER) != 0);
+            default:
+                return new Motorcycle(id, brand, model, year, engineCc[row], labelNames.decode(labels[row]));
+        }
+    }
+
+    /**
+     * Type and brand counters are plain arrays indexed by their codes; years and cc
+     * buckets are keyed by value in maps, so an outlier year cannot size an array
+     */
+    @Override
+    public FleetStatistics getFleetStatistics() {
+        lock.readLock().lock();
+        try {
+            FleetStatistics stats = new FleetStatistics();
+            long[] perType = new long[TYPE_KEYS.length];
+            long[] perBrand = new long[brandNames.size()];
+            Map<Integer, long[]> perYear = new HashMap<>();
+            Map<Integer, long[]> perBucket = new HashMap<>();
+            long trucks = 0;
+            double payloadSum = 0, payloadMin = Double.POSITIVE_INFINITY, payloadMax = Double.NEGATIVE_INFINITY;
+            for (int row = 0; row < size; row++) {
+                byte type = types[row];
+                perType[type]++;
+                if (brands[row] >= 0) perBrand[brands[row]]++;
+                perYear.computeIfAbsent(years[row], k -> new long[1])[0]++;
+                if (type == TRUCK) {
+                    double p = payloads[row];
+                    trucks++;
+                    payloadSum += p;
+                    payloadMin = Math.min(payloadMin, p);
+                    payloadMax = Math.max(payloadMax, p);
+                } else if (type == MOTORCYCLE) {
+                    perBucket.computeIfAbsent(FleetStatistics.ccBucket(engineCc[row]), k -> new long[1])[0]++;
+                }
+            }
+            for (int t = 0; t < perType.length; t++) {
+                if (perType[t] > 0) stats.addType(TYPE_KEYS[t], perType[t]);
+            }
+            for (int code = 0; code < perBrand.length; code++) {
+                if (perBrand[code] > 0) stats.addBrand(brandNames.decode(code), perBrand[code]);
+            }
+            perYear.forEach((year, n) -> stats.addYear(year, n[0]));
+            perBucket.forEach((bucket, n) -> stats.addCcBucket(bucket, n[0]));
+            if (trucks > 0) {
+                stats.setTruckPayload(new FleetStatistics.Payload(trucks, payloadSum / trucks, payloadMin, payloadMax));
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
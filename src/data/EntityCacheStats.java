@@ -0,0 +1,51 @@
+package data;
+
+/**
+ * Point-in-time counters of the JPA second-level cache (vehicles by id) and query cache
+ * (see VehicleEntityCache); all zero and enabled=false when the cache is off
+ */
+public class EntityCacheStats {
+    private final boolean enabled;
+    private final long entityHits;
+    private final long entityMisses;
+    private final long entityPuts;
+    private final long queryHits;
+    private final long queryMisses;
+    private final long queryPuts;
+
+    EntityCacheStats(boolean enabled, long entityHits, long entityMisses, long entityPuts,
+                     long queryHits, long queryMisses, long queryPuts) {
+        this.enabled = enabled;
+        this.entityHits = entityHits;
+        this.entityMisses = entityMisses;
+        this.entityPuts = entityPuts;
+        this.queryHits = queryHits;
+        this.queryMisses = queryMisses;
+        this.queryPuts = queryPuts;
+    }
+
+    public static EntityCacheStats disabled() {
+        return new EntityCacheStats(false, 0, 0, 0, 0, 0, 0);
+    }
+
+    public boolean isEnabled() { return enabled; }
+    /** Vehicles served from the entity cache instead of a SELECT */
+    public long getEntityHits() { return entityHits; }
+    public long getEntityMisses() { return entityMisses; }
+    /** Vehicles stored in the entity cache after a load or write */
+    public long getEntityPuts() { return entityPuts; }
+    /** Queries answered from cached results */
+    public long getQueryHits() { return queryHits; }
+    public long getQueryMisses() { return queryMisses; }
+    public long getQueryPuts() { return queryPuts; }
+    public double getEntityHitRate() {
+        long total = entityHits + entityMisses;
+        return total == 0 ? 0.0 : entityHits / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("enabled=%b entityHits=%d entityMisses=%d entityPuts=%d hitRate=%.3f queryHits=%d queryMisses=%d queryPuts=%d",
+                enabled, entityHits, entityMisses, entityPuts, getEntityHitRate(), queryHits, queryMisses, queryPuts);
+    }
+}
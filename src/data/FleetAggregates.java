@@ -0,0 +1,83 @@
+package data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import models.Vehicle;
+
+/**
+ * Fleet-wide aggregates kept up to date by VehicleDatabase on every link/unlink, so
+ * reading them never scans the vehicles.
+ *
+ * The max-speed sum is held in fixed-point micro-km/h so adding and removing the same
+ * vehicle cancels exactly and the average does not drift over time. The fastest
+ * vehicle is the first entry of a skip list ordered by speed (descending) and then
+ * insertion sequence, matching the first-wins tie break of a stream max().
+ */
+class FleetAggregates {
+    private static final double SCALE = 1_000_000.0;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder speedSum = new LongAdder();
+    private final ConcurrentSkipListMap<SpeedKey, Vehicle> bySpeed = new ConcurrentSkipListMap<>();
+    // exact (case-sensitive) brand, as groupByBrand has always grouped
+    private final VehicleIndex<String> byBrand = new VehicleIndex<>();
+
+    private static final class SpeedKey implements Comparable<SpeedKey> {
+        final double speed;
+        final long seq;
+
+        SpeedKey(double speed, long seq) {
+            this.speed = speed;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(SpeedKey o) {
+            int c = Double.compare(o.speed, speed);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SpeedKey && compareTo((SpeedKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(speed) * 31 + Long.hashCode(seq);
+        }
+    }
+
+    // speed and brand are passed in as captured at link time, so a vehicle mutated in
+    // place is still removed under the keys it was added with
+    void add(long seq, Vehicle v, double speed, String brand) {
+        count.increment();
+        speedSum.add(Math.round(speed * SCALE));
+        bySpeed.put(new SpeedKey(speed, seq), v);
+        if (brand != null) byBrand.add(brand, seq, v);
+    }
+
+    // conditional removes: a replacement with the same seq may already have been added
+    void remove(long seq, Vehicle v, double speed, String brand) {
+        count.decrement();
+        speedSum.add(-Math.round(speed * SCALE));
+        bySpeed.remove(new SpeedKey(speed, seq), v);
+        if (brand != null) byBrand.remove(brand, seq, v);
+    }
+
+    double averageMaxSpeed() {
+        long n = count.sum();
+        return n <= 0 ? 0.0 : speedSum.sum() / SCALE / n;
+    }
+
+    Vehicle fastest() {
+        Map.Entry<SpeedKey, Vehicle> first = bySpeed.firstEntry();
+        return first == null ? null : first.getValue();
+    }
+
+    VehicleIndex<String> brands() {
+        return byBrand;
+    }
+}
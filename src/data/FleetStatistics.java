@@ -0,0 +1,94 @@
+package data;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregated fleet analytics returned by VehicleRepository.getFleetStatistics():
+ * counts by type (lowercased class name), brand and manufacture year, truck payload
+ * figures and a histogram of motorcycle engine sizes. Every backend computes it
+ * without handing individual vehicles to the caller.
+ */
+public class FleetStatistics {
+    /** Width of the engine-cc histogram buckets; each key is a bucket's lower bound */
+    public static final int CC_BUCKET = 250;
+
+    private final Map<String, Long> countsByType = new TreeMap<>();
+    private final Map<String, Long> countsByBrand = new TreeMap<>();
+    private final Map<Integer, Long> countsByYear = new TreeMap<>();
+    private final Map<Integer, Long> engineCcDistribution = new TreeMap<>();
+    private Payload truckPayload = new Payload(0, null, null, null);
+
+    /**
+     * Truck payload figures in kg; avg/min/max are null when there are no trucks
+     */
+    public static class Payload {
+        private final long count;
+        private final Double average;
+        private final Double min;
+        private final Double max;
+
+        public Payload(long count, Double average, Double min, Double max) {
+            this.count = count;
+            this.average = average;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() { return count; }
+        public Double getAverage() { return average; }
+        public Double getMin() { return min; }
+        public Double getMax() { return max; }
+    }
+
+    static int ccBucket(int cc) {
+        return Math.floorDiv(cc, CC_BUCKET) * CC_BUCKET;
+    }
+
+    void addType(String type, long count) {
+        countsByType.merge(type.toLowerCase(), count, Long::sum);
+    }
+
+    void addBrand(String brand, long count) {
+        if (brand != null) countsByBrand.merge(brand, count, Long::sum);
+    }
+
+    void addYear(int year, long count) {
+        countsByYear.merge(year, count, Long::sum);
+    }
+
+    void addCcBucket(int bucket, long count) {
+        engineCcDistribution.merge(bucket, count, Long::sum);
+    }
+
+    void setTruckPayload(Payload payload) {
+        this.truckPayload = payload;
+    }
+
+    public Map<String, Long> getCountsByType() {
+        return countsByType;
+    }
+
+    public Map<String, Long> getCountsByBrand() {
+        return countsByBrand;
+    }
+
+    public Map<Integer, Long> getCountsByYear() {
+        return countsByYear;
+    }
+
+    public Payload getTruckPayload() {
+        return truckPayload;
+    }
+
+    /** Motorcycles per engine-size bucket of CC_BUCKET cc, keyed by the bucket's lower bound */
+    public Map<Integer, Long> getEngineCcDistribution() {
+        return engineCcDistribution;
+    }
+
+    public long getTotalCount() {
+        long n = 0;
+        for (long c : countsByType.values()) n += c;
+        return n;
+    }
+}
@@ -0,0 +1,67 @@
+package data;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import models.Vehicle;
+
+/**
+ * Fleet-wide figures for dashboards: size, average and top max speed, and counts
+ * per type (lowercased class name) and per brand.
+ */
+public class FleetSummary {
+    private final int totalCount;
+    private final double averageMaxSpeed;
+    private final Vehicle fastest;
+    private final Map<String, Integer> countsByType;
+    private final Map<String, Integer> countsByBrand;
+
+    public FleetSummary(int totalCount, double averageMaxSpeed, Vehicle fastest,
+                        Map<String, Integer> countsByType, Map<String, Integer> countsByBrand) {
+        this.totalCount = totalCount;
+        this.averageMaxSpeed = averageMaxSpeed;
+        this.fastest = fastest;
+        this.countsByType = countsByType;
+        this.countsByBrand = countsByBrand;
+    }
+
+    /**
+     * Compute the summary in a single pass, for stores without maintained aggregates
+     */
+    public static FleetSummary of(Collection<? extends Vehicle> vehicles) {
+        double sum = 0;
+        Vehicle fastest = null;
+        Map<String, Integer> byType = new TreeMap<>();
+        Map<String, Integer> byBrand = new TreeMap<>();
+        for (Vehicle v : vehicles) {
+            double speed = v.getMaxSpeed();
+            sum += speed;
+            if (fastest == null || speed > fastest.getMaxSpeed()) fastest = v;
+            byType.merge(v.getClass().getSimpleName().toLowerCase(), 1, Integer::sum);
+            if (v.getBrand() != null) byBrand.merge(v.getBrand(), 1, Integer::sum);
+        }
+        int n = vehicles.size();
+        return new FleetSummary(n, n == 0 ? 0.0 : sum / n, fastest, byType, byBrand);
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public double getAverageMaxSpeed() {
+        return averageMaxSpeed;
+    }
+
+    public Vehicle getFastest() {
+        return fastest;
+    }
+
+    public Map<String, Integer> getCountsByType() {
+        return countsByType;
+    }
+
+    public Map<String, Integer> getCountsByBrand() {
+        return countsByBrand;
+    }
+}
@@ -0,0 +1,165 @@
+package data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Connection pool for VehicleDaoJdbc, backed by HikariCP (already on the classpath
+ * through spring-boot-starter-jdbc). Connections are validated with JDBC4
+ * Connection.isValid() (or a test query when one is configured) and idle
+ * connections above the minimum are evicted after the idle timeout.
+ */
+public class JdbcPool implements AutoCloseable {
+
+    /**
+     * Pool configuration; defaults suit a small service on an embedded database
+     */
+    public static class Settings {
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 2;
+        private long idleTimeoutMs = TimeUnit.MINUTES.toMillis(5);
+        private long connectionTimeoutMs = TimeUnit.SECONDS.toMillis(30);
+        private long validationTimeoutMs = TimeUnit.SECONDS.toMillis(5);
+        private long maxLifetimeMs = TimeUnit.MINUTES.toMillis(30);
+        private String validationQuery;
+
+        public Settings maximumPoolSize(int size) { this.maximumPoolSize = size; return this; }
+        public Settings minimumIdle(int idle) { this.minimumIdle = idle; return this; }
+        public Settings idleTimeoutMs(long ms) { this.idleTimeoutMs = ms; return this; }
+        public Settings connectionTimeoutMs(long ms) { this.connectionTimeoutMs = ms; return this; }
+        public Settings validationTimeoutMs(long ms) { this.validationTimeoutMs = ms; return this; }
+        public Settings maxLifetimeMs(long ms) { this.maxLifetimeMs = ms; return this; }
+        /** Query used to validate connections; null uses the driver's isValid() */
+        public Settings validationQuery(String sql) { this.validationQuery = sql; return this; }
+    }
+
+    /**
+     * Point-in-time pool metrics
+     */
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int waiting;
+        private final long acquired;
+        private final double averageWaitMs;
+        private final double maxWaitMs;
+        private final long timeouts;
+
+        Stats(int active, int idle, int total, int waiting, long acquired, double averageWaitMs, double maxWaitMs, long timeouts) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.waiting = waiting;
+            this.acquired = acquired;
+            this.averageWaitMs = averageWaitMs;
+            this.maxWaitMs = maxWaitMs;
+            this.timeouts = timeouts;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        /** Threads currently blocked waiting for a connection */
+        public int getWaiting() { return waiting; }
+        /** Connections handed out since the pool started */
+        public long getAcquired() { return acquired; }
+        public double getAverageWaitMs() { return averageWaitMs; }
+        public double getMaxWaitMs() { return maxWaitMs; }
+        /** Borrow attempts that gave up after the connection timeout */
+        public long getTimeouts() { return timeouts; }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d total=%d waiting=%d acquired=%d avgWait=%.3fms maxWait=%.3fms timeouts=%d",
+                    active, idle, total, waiting, acquired, averageWaitMs, maxWaitMs, timeouts);
+        }
+    }
+
+    private final HikariDataSource dataSource;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+
+    public JdbcPool(String url, String user, String password, Settings settings) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("vehicles-jdbc");
+        config.setJdbcUrl(url);
+        if (user != null) config.setUsername(user);
+        if (password != null) config.setPassword(password);
+        config.setMaximumPoolSize(settings.maximumPoolSize);
+        config.setMinimumIdle(Math.min(settings.minimumIdle, settings.maximumPoolSize));
+        config.setIdleTimeout(settings.idleTimeoutMs);
+        config.setConnectionTimeout(settings.connectionTimeoutMs);
+        config.setValidationTimeout(settings.validationTimeoutMs);
+        config.setMaxLifetime(settings.maxLifetimeMs);
+        if (settings.validationQuery != null) config.setConnectionTestQuery(settings.validationQuery);
+        config.setMetricsTrackerFactory(new Tracking());
+        this.dataSource = new HikariDataSource(config);
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public Stats getStats() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        long count = acquired.sum();
+        double avg = count == 0 ? 0.0 : waitNanos.sum() / (double) count / 1_000_000.0;
+        return new Stats(pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(), count, avg, maxWaitNanos.get() / 1_000_000.0, timeouts.sum());
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+
+    /**
+     * Retire a connection found broken, when dataSource is a Hikari pool (this class's, or
+     * Spring's); other pools are left to their own validation. evictConnection reads the
+     * connection's auto-commit flag, which a driver refuses once it has closed the
+     * physical connection, so a closed one is retired together with the rest of the
+     * pool: they most likely lost the same server, and are replaced as they are borrowed.
+     */
+    static void evict(DataSource dataSource, Connection pooled, boolean closed) throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) return;
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (!closed) hikari.evictConnection(pooled);
+        else if (pool != null) pool.softEvictConnections();
+    }
+
+    // Hikari reports every borrow and timeout to the tracker created here
+    private final class Tracking implements MetricsTrackerFactory {
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    acquired.increment();
+                    waitNanos.add(elapsedAcquiredNanos);
+                    maxWaitNanos.accumulate(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    timeouts.increment();
+                }
+            };
+        }
+    }
+}
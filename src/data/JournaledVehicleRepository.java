@@ -0,0 +1,357 @@
+package data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import models.Vehicle;
+
+/**
+ * Durable in-memory repository: vehicles are served from a VehicleDatabase, and every
+ * change is appended to a VehicleLog before it is applied, so a write costs one log
+ * record instead of rewriting the fleet.
+ *
+ * Writers are serialized only while they append and apply (which keeps log order equal
+ * to apply order); they wait for the disk outside that lock, so concurrent writers
+ * share fsyncs. A change is visible to readers as soon as it is applied, slightly
+ * before the writer's call returns.
+ *
+ * Once the log has grown by compactAfterBytes since the last snapshot, a background
+ * thread rotates the log and writes a VehicleSnapshot named after the rotation LSN,
+ * then deletes older snapshots and segments. The snapshot is taken from the live
+ * database without blocking writers, so it may already contain some later changes;
+ * that is harmless because records hold full vehicles or removals and replaying them
+ * again yields the same state. init() loads the newest snapshot and replays the log
+ * from its LSN.
+ */
+public class JournaledVehicleRepository implements VehicleRepository, AutoCloseable {
+    /**
+     * When appended records are forced to disk:
+     * ALWAYS before a write returns (group commit), INTERVAL at most every
+     * fsyncIntervalMillis (a write returns once the OS has the record), NEVER except
+     * on rotation and close.
+     */
+    public enum FsyncPolicy { ALWAYS, INTERVAL, NEVER }
+
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 1000;
+    public static final long DEFAULT_COMPACT_AFTER_BYTES = 16L * 1024 * 1024;
+
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d{16})\\.snap");
+    private static final long FIRST_LSN = 1;
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+    private final long compactAfterBytes;
+    private final VehicleDatabase db = new VehicleDatabase();
+    private final VehicleDatabaseRepository reads = new VehicleDatabaseRepository(db);
+    private final ReentrantLock mutations = new ReentrantLock();
+    private final Object compactLock = new Object();
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    private ExecutorService compactor;
+    private volatile VehicleLog log;
+
+    public JournaledVehicleRepository(Path directory) {
+        this(directory, FsyncPolicy.ALWAYS, DEFAULT_FSYNC_INTERVAL_MILLIS, DEFAULT_COMPACT_AFTER_BYTES);
+    }
+
+    /**
+     * @param compactAfterBytes log growth that triggers a background snapshot; 0 disables it
+     */
+    public JournaledVehicleRepository(Path directory, FsyncPolicy policy, long fsyncIntervalMillis, long compactAfterBytes) {
+        this.directory = directory;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.compactAfterBytes = compactAfterBytes;
+    }
+
+    /**
+     * Recover from the newest readable snapshot plus the log, then open a new segment
+     */
+    @Override
+    public void init() throws IOException {
+        mutations.lock();
+        try {
+            if (log != null) return;
+            Files.createDirectories(directory);
+            db.clear();
+            long from = FIRST_LSN;
+            List<Long> snapshots = snapshots();
+            for (int i = snapshots.size() - 1; i >= 0; i--) {
+                Path path = snapshotPath(snapshots.get(i));
+                try {
+                    db.addVehicles(VehicleSnapshot.read(path));
+                    from = snapshots.get(i);
+                    break;
+                } catch (IOException e) {
+                    System.err.println("Skipping unreadable snapshot " + path + ": " + e.getMessage());
+                }
+            }
+            long next = VehicleLog.replay(directory, from, this::replay);
+            log = new VehicleLog(directory, next, policy, fsyncIntervalMillis);
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "vehicle-log-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+        } finally {
+            mutations.unlock();
+        }
+    }
+
+    private void replay(byte op, DataInputStream body) throws IOException {
+        switch (op) {
+            case VehicleLog.PUT:
+                db.addVehicle(VehicleSnapshot.readRecord(body));
+                break;
+            case VehicleLog.REMOVE:
+                db.removeVehicleById(body.readUTF());
+                break;
+            default:
+                throw new IOException("Unknown vehicle log operation " + op);
+        }
+    }
+
+    private VehicleLog log() {
+        VehicleLog l = log;
+        if (l == null) throw new IllegalStateException("JournaledVehicleRepository is not initialized (call init())");
+        return l;
+    }
+
+    // ---- writes ----
+
+    @Override
+    public void addVehicle(Vehicle v) throws IOException {
+        addVehicles(Collections.singletonList(v));
+    }
+
+    @Override
+    public void addVehicles(List<Vehicle> vehicles) throws IOException {
+        List<byte[]> records = new ArrayList<>(vehicles.size());
+        for (Vehicle v : vehicles) records.add(put(v));
+        long last = 0;
+        mutations.lock();
+        try {
+            VehicleLog l = log();
+            for (int i = 0; i < records.size(); i++) {
+                last = l.append(VehicleLog.PUT, records.get(i));
+                db.addVehicle(vehicles.get(i));
+            }
+        } finally {
+            mutations.unlock();
+        }
+        committed(last);
+    }
+
+    @Override
+    public boolean updateVehicle(Vehicle v) throws IOException {
+        return updateVehicles(Collections.singletonList(v)) == 1;
+    }
+
+    @Override
+    public int updateVehicles(List<Vehicle> vehicles) throws IOException {
+        List<byte[]> records = new ArrayList<>(vehicles.size());
+        for (Vehicle v : vehicles) records.add(put(v));
+        long last = 0;
+        int updated = 0;
+        mutations.lock();
+        try {
+            VehicleLog l = log();
+            for (int i = 0; i < records.size(); i++) {
+                Vehicle v = vehicles.get(i);
+                // only changes that happen are logged, so replay can treat updates as puts
+                if (db.getVehicleById(v.getId()) == null) continue;
+                last = l.append(VehicleLog.PUT, records.get(i));
+                db.updateVehicle(v);
+                updated++;
+            }
+        } finally {
+            mutations.unlock();
+        }
+        committed(last);
+        return updated;
+    }
+
+    @Override
+    public boolean removeVehicleById(String id) throws IOException {
+        return removeVehiclesByIds(Collections.singletonList(id)) == 1;
+    }
+
+    @Override
+    public int removeVehiclesByIds(Collection<String> ids) throws IOException {
+        long last = 0;
+        int removed = 0;
+        mutations.lock();
+        try {
+            VehicleLog l = log();
+            for (String id : ids) {
+                if (id == null || db.getVehicleById(id) == null) continue;
+                last = l.append(VehicleLog.REMOVE, remove(id));
+                db.removeVehicleById(id);
+                removed++;
+            }
+        } finally {
+            mutations.unlock();
+        }
+        committed(last);
+        return removed;
+    }
+
+    // Validate and encode before the lock, so nothing that cannot be applied is logged
+    private static byte[] put(Vehicle v) throws IOException {
+        if (v.getId() == null) throw new IllegalArgumentException("Vehicle id is required");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        VehicleSnapshot.writeRecord(new DataOutputStream(bytes), v);
+        byte[] record = bytes.toByteArray();
+        VehicleLog.checkBody(record);
+        return record;
+    }
+
+    private static byte[] remove(String id) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        new DataOutputStream(bytes).writeUTF(id);
+        return bytes.toByteArray();
+    }
+
+    // Wait for durability outside the mutation lock, then consider compacting
+    private void committed(long lsn) throws IOException {
+        if (lsn == 0) return;
+        VehicleLog l = log();
+        l.awaitDurable(lsn);
+        if (compactAfterBytes > 0 && l.bytesSinceRotate() >= compactAfterBytes
+                && compactionQueued.compareAndSet(false, true)) {
+            try {
+                compactor.execute(() -> {
+                    try {
+                        compact();
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Vehicle snapshot failed: " + e.getMessage());
+                    } finally {
+                        compactionQueued.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // closing; the log keeps everything
+                compactionQueued.set(false);
+            }
+        }
+    }
+
+    // ---- compaction ----
+
+    /**
+     * Write a snapshot and drop the snapshots and log segments it supersedes
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            long from;
+            mutations.lock();
+            try {
+                from = log().rotate();
+            } finally {
+                mutations.unlock();
+            }
+            VehicleSnapshot.write(snapshotPath(from), db.liveView());
+            for (long lsn : snapshots()) {
+                if (lsn < from) Files.deleteIfExists(snapshotPath(lsn));
+            }
+            for (long first : VehicleLog.segments(directory)) {
+                if (first < from) Files.deleteIfExists(VehicleLog.segmentPath(directory, first));
+            }
+        }
+    }
+
+    private Path snapshotPath(long lsn) {
+        return directory.resolve(String.format("snapshot-%016d.snap", lsn));
+    }
+
+    private List<Long> snapshots() throws IOException {
+        List<Long> lsns = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(p -> {
+                Matcher m = SNAPSHOT.matcher(p.getFileName().toString());
+                if (m.matches()) lsns.add(Long.parseLong(m.group(1)));
+            });
+        }
+        Collections.sort(lsns);
+        return lsns;
+    }
+
+    /**
+     * Finish a running snapshot, force the log and close it
+     */
+    @Override
+    public void close() throws IOException {
+        mutations.lock();
+        try {
+            if (log == null) return;
+            compactor.shutdown();
+        } finally {
+            mutations.unlock();
+        }
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mutations.lock();
+        try {
+            if (log == null) return;
+            log.close();
+            log = null;
+        } finally {
+            mutations.unlock();
+        }
+    }
+
+    // ---- reads: served by the in-memory database ----
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        return reads.getAllVehicles();
+    }
+
+    @Override
+    public Vehicle getVehicleById(String id) {
+        return reads.getVehicleById(id);
+    }
+
+    @Override
+    public List<Vehicle> findVehicles(VehicleQuery query) {
+        return reads.findVehicles(query);
+    }
+
+    @Override
+    public void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) {
+        reads.streamVehicles(query, sink);
+    }
+
+    @Override
+    public FleetStatistics getFleetStatistics() {
+        return reads.getFleetStatistics();
+    }
+
+    /**
+     * Aggregates maintained incrementally by the underlying VehicleDatabase
+     */
+    public FleetSummary getSummary() {
+        return db.getSummary();
+    }
+}
@@ -0,0 +1,26 @@
+package data;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * vehicles.jpa.second-level-cache=true adds the VehicleEntityCache settings to the
+ * Spring-managed persistence unit, so SpringDataVehicleRepository reads hot vehicles
+ * and repeated pages from memory. The cache is closed after the EntityManagerFactory.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vehicles.jpa.second-level-cache", havingValue = "true")
+public class JpaCacheConfig {
+
+    @Bean
+    public VehicleEntityCache vehicleEntityCache() {
+        return new VehicleEntityCache();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer vehicleEntityCacheProperties(VehicleEntityCache cache) {
+        return props -> props.putAll(cache.hibernateProperties());
+    }
+}
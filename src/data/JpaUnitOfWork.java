@@ -0,0 +1,110 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+
+import models.Vehicle;
+
+/**
+ * One EntityManager and one transaction, handed to the callback of
+ * VehicleRepositoryJpa.inTransaction. Everything done through it shares a persistence
+ * context: a vehicle is loaded at most once, writes are flushed together (as JDBC
+ * batches) at commit, and either all of them commit or none do.
+ *
+ * Only valid inside the callback; the repository commits, rolls back and closes it.
+ */
+public final class JpaUnitOfWork {
+    private final EntityManager em;
+
+    JpaUnitOfWork(EntityManager em) {
+        this.em = em;
+    }
+
+    /** Vehicle by id, from the persistence context if already loaded in this unit */
+    public Vehicle find(String id) {
+        return em.find(Vehicle.class, id);
+    }
+
+    public List<Vehicle> find(VehicleQuery query) {
+        if (query.hasUnknownType()) return new ArrayList<>();
+        return JpaVehicleQueries.findCacheable(em, query).getResultList();
+    }
+
+    public void add(Vehicle v) {
+        em.persist(v);
+    }
+
+    /**
+     * Persist many vehicles in JDBC batches. Flushes and clears the persistence context
+     * every JpaVehicleQueries.BATCH_SIZE vehicles, so vehicles loaded earlier in this
+     * unit are detached afterwards.
+     */
+    public void addAll(List<Vehicle> vehicles) {
+        JpaVehicleQueries.persistAll(em, vehicles);
+    }
+
+    /**
+     * Copy v's state onto the stored vehicle with the same id, loading it unless this
+     * unit already has; the UPDATE is only sent if something changed. Returns false
+     * (and changes nothing) if there is no such vehicle.
+     */
+    public boolean update(Vehicle v) {
+        if (em.find(Vehicle.class, v.getId()) == null) return false;
+        em.merge(v);
+        return true;
+    }
+
+    /**
+     * Batched update of the vehicles that exist (see update); flushes and clears like addAll
+     */
+    public int updateAll(List<Vehicle> vehicles) {
+        return JpaVehicleQueries.mergeExisting(em, vehicles);
+    }
+
+    /**
+     * Delete with a single JPQL DELETE, without loading the vehicle first; returns
+     * whether a row was removed
+     */
+    public boolean remove(String id) {
+        // a bulk delete bypasses the persistence context: send what is pending, then drop
+        // any copy this unit loaded so it is not written back
+        em.flush();
+        em.detach(em.getReference(Vehicle.class, id));
+        boolean removed = em.createQuery("DELETE FROM Vehicle v WHERE v.id = :id")
+                .setParameter("id", id)
+                .executeUpdate() > 0;
+        evict(Collections.singleton(id));
+        return removed;
+    }
+
+    /**
+     * Bulk delete, one statement per chunk of ids; flushes first and clears the
+     * persistence context afterwards. Returns how many rows were removed.
+     */
+    public int removeAll(Collection<String> ids) {
+        em.flush();
+        int removed = JpaVehicleQueries.deleteByIds(em, ids);
+        em.clear();
+        evict(ids);
+        return removed;
+    }
+
+    // Hibernate evicts the second-level cache for a bulk delete only once the transaction
+    // completes; evict now so later finds in this unit do not see the deleted vehicles
+    private void evict(Collection<String> ids) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        for (String id : ids) {
+            if (id != null) cache.evict(Vehicle.class, id);
+        }
+    }
+
+    /** The underlying EntityManager, for queries this class does not cover */
+    public EntityManager getEntityManager() {
+        return em;
+    }
+}
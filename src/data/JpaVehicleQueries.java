@@ -0,0 +1,215 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import models.Vehicle;
+
+/**
+ * JPQL built from a VehicleQuery, shared by the JPA-backed repositories so the
+ * filtering and paging run in the database instead of in Java, plus the batched
+ * write helpers both repositories run inside their own transaction.
+ */
+final class JpaVehicleQueries {
+    // matches hibernate.jdbc.batch_size so each flush sends full JDBC batches
+    static final int BATCH_SIZE = 50;
+    // rows fetched per round trip while streaming
+    static final int STREAM_FETCH_SIZE = 500;
+    // bound on IN-list parameters per statement
+    private static final int IN_CHUNK = 1000;
+
+    private JpaVehicleQueries() {}
+
+    static TypedQuery<Vehicle> find(EntityManager em, VehicleQuery query) {
+        StringBuilder jpql = new StringBuilder("SELECT v FROM Vehicle v");
+        Map<String, Object> params = new HashMap<>();
+        appendWhere(query, jpql, params);
+        if (query.isPaged()) jpql.append(" ORDER BY v.id");
+        TypedQuery<Vehicle> q = em.createQuery(jpql.toString(), Vehicle.class);
+        params.forEach(q::setParameter);
+        if (query.getOffset() > 0) q.setFirstResult(query.getOffset());
+        if (query.getLimit() != null) q.setMaxResults(query.getLimit());
+        return q;
+    }
+
+    /**
+     * find, with bounded (limited) queries marked cacheable: when the query cache is on
+     * (see VehicleEntityCache) the ids of a repeated page come from memory. Unbounded
+     * queries are not cached, so one entry can never hold the whole table.
+     */
+    static TypedQuery<Vehicle> findCacheable(EntityManager em, VehicleQuery query) {
+        TypedQuery<Vehicle> q = find(em, query);
+        if (query.getLimit() != null) q.setHint("org.hibernate.cacheable", true);
+        return q;
+    }
+
+    /**
+     * The query's list-view columns through a JPQL constructor expression: no entities
+     * are loaded or registered in the persistence context. Limited queries are cacheable
+     * like findCacheable's.
+     */
+    static TypedQuery<VehicleSummary> findSummaries(EntityManager em, VehicleQuery query) {
+        StringBuilder jpql = new StringBuilder("SELECT NEW data.VehicleSummary(v.id, TYPE(v), v.brand, v.model, v.year) FROM Vehicle v");
+        Map<String, Object> params = new HashMap<>();
+        appendWhere(query, jpql, params);
+        if (query.isPaged()) jpql.append(" ORDER BY v.id");
+        TypedQuery<VehicleSummary> q = em.createQuery(jpql.toString(), VehicleSummary.class);
+        params.forEach(q::setParameter);
+        if (query.getOffset() > 0) q.setFirstResult(query.getOffset());
+        if (query.getLimit() != null) {
+            q.setMaxResults(query.getLimit());
+            q.setHint("org.hibernate.cacheable", true);
+        }
+        return q;
+    }
+
+    /**
+     * Scroll through the query's results, handing each vehicle to sink and detaching it
+     * straight away so neither the result nor the persistence context grows with the table
+     */
+    static void stream(EntityManager em, VehicleQuery query, Consumer<? super Vehicle> sink) {
+        TypedQuery<Vehicle> q = find(em, query);
+        q.setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE);
+        q.setHint("org.hibernate.readOnly", true);
+        try (Stream<Vehicle> rows = q.getResultStream()) {
+            rows.forEach(v -> {
+                sink.accept(v);
+                em.detach(v);
+            });
+        }
+    }
+
+    /**
+     * Fleet analytics as aggregate queries. Type counts and the engine-cc histogram are
+     * native SQL over the single-table mapping: the discriminator values (CAR, BIKE...)
+     * lowercase to the type keys, and bucketing needs arithmetic JPQL cannot group by.
+     */
+    static FleetStatistics statistics(EntityManager em) {
+        FleetStatistics stats = new FleetStatistics();
+        for (Object row : em.createNativeQuery("SELECT vehicle_type, COUNT(*) FROM vehicles GROUP BY vehicle_type").getResultList()) {
+            Object[] r = (Object[]) row;
+            stats.addType((String) r[0], ((Number) r[1]).longValue());
+        }
+        for (Object[] r : em.createQuery("SELECT v.brand, COUNT(v) FROM Vehicle v GROUP BY v.brand", Object[].class).getResultList()) {
+            stats.addBrand((String) r[0], ((Number) r[1]).longValue());
+        }
+        for (Object[] r : em.createQuery("SELECT v.year, COUNT(v) FROM Vehicle v GROUP BY v.year", Object[].class).getResultList()) {
+            stats.addYear(((Number) r[0]).intValue(), ((Number) r[1]).longValue());
+        }
+        Object[] payload = em.createQuery("SELECT COUNT(t), AVG(t.payloadCapacityKg), MIN(t.payloadCapacityKg), MAX(t.payloadCapacityKg) FROM Truck t",
+                Object[].class).getSingleResult();
+        long trucks = ((Number) payload[0]).longValue();
+        if (trucks > 0) {
+            stats.setTruckPayload(new FleetStatistics.Payload(trucks, ((Number) payload[1]).doubleValue(),
+                    ((Number) payload[2]).doubleValue(), ((Number) payload[3]).doubleValue()));
+        }
+        String bucket = "FLOOR(engine_cc / " + FleetStatistics.CC_BUCKET + ".0) * " + FleetStatistics.CC_BUCKET;
+        for (Object row : em.createNativeQuery("SELECT " + bucket + ", COUNT(*) FROM vehicles WHERE vehicle_type = 'MOTORCYCLE' GROUP BY " + bucket)
+                .getResultList()) {
+            Object[] r = (Object[]) row;
+            stats.addCcBucket(((Number) r[0]).intValue(), ((Number) r[1]).longValue());
+        }
+        return stats;
+    }
+
+    static void appendWhere(VehicleQuery query, StringBuilder jpql, Map<String, Object> params) {
+        String sep = " WHERE ";
+        if (query.getBrand() != null) {
+            jpql.append(sep).append("LOWER(v.brand) LIKE :brand ESCAPE '!'");
+            params.put("brand", query.brandLikePattern());
+            sep = " AND ";
+        }
+        if (query.getType() != null) {
+            jpql.append(sep).append("TYPE(v) = :type");
+            params.put("type", query.getVehicleClass());
+            sep = " AND ";
+        }
+        if (query.getYear() != null) {
+            jpql.append(sep).append("v.year = :year");
+            params.put("year", query.getYear());
+            sep = " AND ";
+        }
+        if (query.getAfterId() != null) {
+            jpql.append(sep).append("v.id > :afterId");
+            params.put("afterId", query.getAfterId());
+        }
+    }
+
+    /**
+     * Persist vehicles, flushing and clearing every BATCH_SIZE entities so the
+     * persistence context stays small and inserts go out as JDBC batches
+     */
+    static void persistAll(EntityManager em, List<Vehicle> vehicles) {
+        int pending = 0;
+        for (Vehicle v : vehicles) {
+            em.persist(v);
+            if (++pending == BATCH_SIZE) {
+                em.flush();
+                em.clear();
+                pending = 0;
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * Merge the vehicles that already exist, BATCH_SIZE at a time: each batch's stored
+     * rows are loaded with one IN query, so merge copies onto them instead of selecting
+     * every vehicle again, and the updates go out as one JDBC batch. Returns how many
+     * were updated.
+     */
+    static int mergeExisting(EntityManager em, List<Vehicle> vehicles) {
+        int updated = 0;
+        for (int i = 0; i < vehicles.size(); i += BATCH_SIZE) {
+            List<Vehicle> batch = vehicles.subList(i, Math.min(vehicles.size(), i + BATCH_SIZE));
+            List<String> ids = new ArrayList<>(batch.size());
+            for (Vehicle v : batch) ids.add(v.getId());
+            Set<String> existing = new HashSet<>();
+            for (Vehicle stored : em.createQuery("SELECT v FROM Vehicle v WHERE v.id IN :ids", Vehicle.class)
+                    .setParameter("ids", ids)
+                    .getResultList()) {
+                existing.add(stored.getId());
+            }
+            for (Vehicle v : batch) {
+                if (!existing.contains(v.getId())) continue;
+                em.merge(v);
+                updated++;
+            }
+            em.flush();
+            em.clear();
+        }
+        return updated;
+    }
+
+    /**
+     * Bulk JPQL delete, one statement per chunk of ids; returns how many rows were removed
+     */
+    static int deleteByIds(EntityManager em, Collection<String> ids) {
+        int removed = 0;
+        for (List<String> chunk : chunks(new ArrayList<>(ids))) {
+            removed += em.createQuery("DELETE FROM Vehicle v WHERE v.id IN :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+        return removed;
+    }
+
+    private static List<List<String>> chunks(List<String> ids) {
+        List<List<String>> out = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_CHUNK) {
+            out.add(ids.subList(i, Math.min(ids.size(), i + IN_CHUNK)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,782 @@
+package data;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * VehicleRepository whose vehicles live off-heap in a memory-mapped file of
+ * fixed-size records, so opening a fleet is a map plus one pass over the ids rather
+ * than a JSON parse, and the heap holds no per-vehicle objects for the GC to trace.
+ *
+ * A directory holds two files:
+ * - vehicles.dat: a HEADER_SIZE header (magic, version, record size, count) followed
+ *   by RECORD_SIZE records: type, flags, id length, brand/model/label dictionary
+ *   codes, year, doors, engine cc, payload and the UTF-8 id (at most MAX_ID_BYTES)
+ * - vehicles.dict: the string dictionary shared by brand, model, fuel type and
+ *   category, as append-only [int length][UTF-8 bytes] entries; an entry's code is
+ *   its position
+ *
+ * The only per-vehicle heap structure is an int hash table from id to record. A
+ * removal moves the last record into the freed one; the header notes the move
+ * until the count is lowered, and init() redoes one that a crash interrupted, so
+ * the moved vehicle is never left in two records. Writes reach the page cache
+ * immediately, so they survive a process crash; flush() and close() force both
+ * files to disk. A single mapping limits a file to about 22 million records.
+ */
+public class MappedVehicleRepository implements VehicleRepository, AutoCloseable {
+    static final String DATA_FILE = "vehicles.dat";
+    static final String DICTIONARY_FILE = "vehicles.dict";
+
+    private static final int MAGIC = 0x56484331; // "VHC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int COUNT_OFFSET = 12;
+    private static final int PENDING_RECORD = 16; // record + 1 a removal is refilling, 0 when none
+    private static final int PENDING_COUNT = 20; // record count before that removal
+    static final int RECORD_SIZE = 96;
+    static final int MAX_ID_BYTES = 48;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final int STREAM_CHUNK = 256;
+
+    // record layout
+    private static final int TYPE = 0;
+    private static final int FLAGS = 1;
+    private static final int ID_LENGTH = 2;
+    private static final int BRAND = 4;
+    private static final int MODEL = 8;
+    private static final int YEAR = 12;
+    private static final int LABEL = 16; // fuel type for cars, category for bikes and motorcycles
+    private static final int DOORS = 20;
+    private static final int ENGINE_CC = 24;
+    private static final int PAYLOAD = 32;
+    private static final int ID = 48;
+
+    private static final byte CAR = 0;
+    private static final byte BIKE = 1;
+    private static final byte TRUCK = 2;
+    private static final byte MOTORCYCLE = 3;
+    private static final String[] TYPE_KEYS = {"car", "bike", "truck", "motorcycle"};
+    private static final String[] TYPE_NAMES = {"Car", "Bike", "Truck", "Motorcycle"};
+    private static final byte SIDECAR = 1;
+    private static final byte TRAILER = 2;
+
+    private final Path directory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StringDictionary strings = new StringDictionary();
+
+    private RandomAccessFile dataFile;
+    private FileChannel dictionary;
+    private MappedByteBuffer data;
+    private int capacity;
+    private int size;
+    // id hash -> record + 1 (0 marks an empty slot), linear probing, at most half full
+    private int[] slots;
+
+    public MappedVehicleRepository(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Open (or create) the files in the directory and index the stored ids
+     */
+    @Override
+    public void init() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (data != null) return;
+            Files.createDirectories(directory);
+            loadDictionary(directory.resolve(DICTIONARY_FILE));
+            Path path = directory.resolve(DATA_FILE);
+            boolean created = !Files.exists(path) || Files.size(path) == 0;
+            dataFile = new RandomAccessFile(path.toFile(), "rw");
+            if (created) {
+                map(INITIAL_CAPACITY);
+                data.putInt(0, MAGIC);
+                data.putInt(4, VERSION);
+                data.putInt(8, RECORD_SIZE);
+                data.putInt(COUNT_OFFSET, 0);
+            } else {
+                long length = dataFile.length();
+                if (length < HEADER_SIZE) throw new IOException("Truncated vehicle data file: " + path);
+                map((int) Math.min(MAX_CAPACITY, (length - HEADER_SIZE) / RECORD_SIZE));
+                if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION || data.getInt(8) != RECORD_SIZE) {
+                    throw new IOException("Not a vehicle data file (or unsupported version): " + path);
+                }
+                size = data.getInt(COUNT_OFFSET);
+                if (size < 0 || size > capacity) throw new IOException("Corrupt record count " + size + " in " + path);
+                if (data.getInt(PENDING_RECORD) != 0) finishRemoval(path);
+            }
+            rehash(tableSizeFor(Math.max(size, INITIAL_CAPACITY)));
+        } catch (IOException | RuntimeException e) {
+            closeFiles();
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Redo a removal cut short by a crash. The last record is only read by the move, so
+    // copying it again is safe whether or not the first copy completed.
+    private void finishRemoval(Path path) throws IOException {
+        int record = data.getInt(PENDING_RECORD) - 1;
+        int count = data.getInt(PENDING_COUNT);
+        if (record < 0 || count > capacity || record >= count - 1 || (size != count && size != count - 1)) {
+            throw new IOException("Corrupt pending removal of record " + record + " in " + path);
+        }
+        if (size == count) {
+            copyRecord(count - 1, record);
+            setSize(count - 1);
+        }
+        data.putInt(PENDING_RECORD, 0);
+    }
+
+    private void loadDictionary(Path path) throws IOException {
+        dictionary = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = dictionary.size();
+        ByteBuffer in = ByteBuffer.allocate((int) Math.min(length, Integer.MAX_VALUE));
+        while (in.hasRemaining() && dictionary.read(in) >= 0) { }
+        in.flip();
+        int good = 0;
+        while (in.remaining() >= 4) {
+            int n = in.getInt();
+            if (n < 0 || n > in.remaining()) break;
+            byte[] bytes = new byte[n];
+            in.get(bytes);
+            strings.encode(new String(bytes, StandardCharsets.UTF_8));
+            good = in.position();
+        }
+        // drop an entry torn by a crash mid-append
+        if (good < length) dictionary.truncate(good);
+        dictionary.position(good);
+    }
+
+    private void map(int records) throws IOException {
+        long length = HEADER_SIZE + (long) records * RECORD_SIZE;
+        if (dataFile.length() < length) dataFile.setLength(length);
+        data = dataFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        capacity = records;
+    }
+
+    /**
+     * Force written records and dictionary entries to the storage device
+     */
+    public void flush() throws IOException {
+        lock.readLock().lock();
+        try {
+            if (data == null) return;
+            dictionary.force(false);
+            data.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (data == null) return;
+            dictionary.force(false);
+            data.force();
+            closeFiles();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void closeFiles() throws IOException {
+        data = null;
+        slots = null;
+        try {
+            if (dictionary != null) dictionary.close();
+        } finally {
+            dictionary = null;
+            if (dataFile != null) dataFile.close();
+            dataFile = null;
+        }
+    }
+
+    private void checkOpen() {
+        if (data == null) throw new IllegalStateException("MappedVehicleRepository is not initialized (call init())");
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- writes ----
+
+    @Override
+    public void addVehicle(Vehicle v) throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            put(v);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addVehicles(List<Vehicle> vehicles) throws IOException {
+        for (Vehicle v : vehicles) check(v); // reject the batch before any of it is stored
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            for (Vehicle v : vehicles) put(v);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateVehicle(Vehicle v) throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            return replace(v);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int updateVehicles(List<Vehicle> vehicles) throws IOException {
+        for (Vehicle v : vehicles) check(v);
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int updated = 0;
+            for (Vehicle v : vehicles) {
+                if (replace(v)) updated++;
+            }
+            return updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeVehicleById(String id) {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            return delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int removeVehiclesByIds(Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int removed = 0;
+            for (String id : ids) {
+                if (delete(id)) removed++;
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Vehicle v) throws IOException {
+        byte[] id = idBytes(v);
+        int slot = slotOf(id);
+        if (slots[slot] != 0) {
+            write(slots[slot] - 1, v, id);
+            return;
+        }
+        if (size == capacity) {
+            if (capacity == MAX_CAPACITY) throw new IllegalStateException("Mapped vehicle file is full");
+            map((int) Math.min(MAX_CAPACITY, (long) capacity * 2));
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+            slot = slotOf(id);
+        }
+        int record = size;
+        write(record, v, id);
+        slots[slot] = record + 1;
+        setSize(size + 1);
+    }
+
+    private boolean replace(Vehicle v) throws IOException {
+        byte[] id = idBytes(v);
+        int record = slots[slotOf(id)] - 1;
+        if (record < 0) return false;
+        write(record, v, id);
+        return true;
+    }
+
+    private boolean delete(String id) {
+        if (id == null) return false;
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_ID_BYTES) return false;
+        int slot = slotOf(key);
+        if (slots[slot] == 0) return false;
+        int record = slots[slot] - 1;
+        clearSlot(slot);
+        int last = size - 1;
+        if (record == last) {
+            setSize(last);
+            return true;
+        }
+        slots[slotOf(idAt(last))] = record + 1;
+        data.putInt(PENDING_COUNT, size);
+        data.putInt(PENDING_RECORD, record + 1);
+        copyRecord(last, record);
+        setSize(last);
+        data.putInt(PENDING_RECORD, 0);
+        return true;
+    }
+
+    private void setSize(int n) {
+        size = n;
+        data.putInt(COUNT_OFFSET, n);
+    }
+
+    private static byte[] idBytes(Vehicle v) {
+        if (v.getId() == null) throw new IllegalArgumentException("Vehicle id is required");
+        byte[] id = v.getId().getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Vehicle id longer than " + MAX_ID_BYTES + " bytes: " + v.getId());
+        }
+        return id;
+    }
+
+    // Everything write() can reject, so a batch can be checked before it is applied
+    private static void check(Vehicle v) {
+        idBytes(v);
+        typeOf(v);
+    }
+
+    private static byte typeOf(Vehicle v) {
+        if (v instanceof Car) return CAR;
+        if (v instanceof Bike) return BIKE;
+        if (v instanceof Truck) return TRUCK;
+        if (v instanceof Motorcycle) return MOTORCYCLE;
+        throw new IllegalArgumentException("Unsupported vehicle type: " + v.getClass().getName());
+    }
+
+    private void write(int record, Vehicle v, byte[] id) throws IOException {
+        byte type = typeOf(v);
+        byte flags = 0;
+        int label = StringDictionary.NULL;
+        int doors = 0, cc = 0;
+        double payload = 0;
+        switch (type) {
+            case CAR:
+                Car c = (Car) v;
+                doors = c.getNumDoors();
+                label = encode(c.getFuelType());
+                break;
+            case BIKE:
+                Bike b = (Bike) v;
+                label = encode(b.getType());
+                if (b.hasSidecar()) flags |= SIDECAR;
+                break;
+            case TRUCK:
+                Truck t = (Truck) v;
+                payload = t.getPayloadCapacityKg();
+                if (t.hasTrailer()) flags |= TRAILER;
+                break;
+            default:
+                Motorcycle m = (Motorcycle) v;
+                cc = m.getEngineCc();
+                label = encode(m.getCategory());
+        }
+        int brand = encode(v.getBrand());
+        int model = encode(v.getModel());
+        int base = offset(record);
+        data.put(base + TYPE, type);
+        data.put(base + FLAGS, flags);
+        data.put(base + ID_LENGTH, (byte) id.length);
+        data.putInt(base + BRAND, brand);
+        data.putInt(base + MODEL, model);
+        data.putInt(base + YEAR, v.getYear());
+        data.putInt(base + LABEL, label);
+        data.putInt(base + DOORS, doors);
+        data.putInt(base + ENGINE_CC, cc);
+        data.putDouble(base + PAYLOAD, payload);
+        for (int i = 0; i < id.length; i++) data.put(base + ID + i, id[i]);
+    }
+
+    // Encode a string, appending it to the dictionary file the first time it is seen
+    private int encode(String value) throws IOException {
+        int known = strings.size();
+        int code = strings.encode(value);
+        if (code == known) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer entry = ByteBuffer.allocate(4 + bytes.length);
+            entry.putInt(bytes.length).put(bytes).flip();
+            while (entry.hasRemaining()) dictionary.write(entry);
+        }
+        return code;
+    }
+
+    private void copyRecord(int from, int to) {
+        int src = offset(from), dst = offset(to);
+        for (int i = 0; i < RECORD_SIZE; i += 8) data.putLong(dst + i, data.getLong(src + i));
+    }
+
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    // ---- id hash table ----
+
+    private static int hash(byte[] id) {
+        int h = Arrays.hashCode(id) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private byte[] idAt(int record) {
+        int base = offset(record);
+        byte[] id = new byte[data.get(base + ID_LENGTH)];
+        for (int i = 0; i < id.length; i++) id[i] = data.get(base + ID + i);
+        return id;
+    }
+
+    private boolean idEquals(int record, byte[] id) {
+        int base = offset(record);
+        if (data.get(base + ID_LENGTH) != id.length) return false;
+        for (int i = 0; i < id.length; i++) {
+            if (data.get(base + ID + i) != id[i]) return false;
+        }
+        return true;
+    }
+
+    private int slotOf(byte[] id) {
+        int mask = slots.length - 1;
+        int i = hash(id) & mask;
+        while (slots[i] != 0 && !idEquals(slots[i] - 1, id)) i = (i + 1) & mask;
+        return i;
+    }
+
+    private int recordOf(String id) {
+        if (id == null) return -1;
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        return key.length > MAX_ID_BYTES ? -1 : slots[slotOf(key)] - 1;
+    }
+
+    // Backward-shift deletion keeps every probe chain unbroken without tombstones
+    private void clearSlot(int hole) {
+        int mask = slots.length - 1;
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            int entry = slots[j];
+            if (entry == 0) break;
+            int home = hash(idAt(entry - 1)) & mask;
+            boolean reachable = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!reachable) {
+                slots[hole] = entry;
+                hole = j;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int record = 0; record < size; record++) {
+            int i = hash(idAt(record)) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = record + 1;
+        }
+    }
+
+    private static int tableSizeFor(int records) {
+        return Integer.highestOneBit(Math.max(1, records) * 2 - 1) << 1;
+    }
+
+    // ---- reads ----
+
+    @Override
+    public Vehicle getVehicleById(String id) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int record = recordOf(id);
+            return record < 0 ? null : vehicleAt(record);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            List<Vehicle> out = new ArrayList<>(size);
+            for (int record = 0; record < size; record++) out.add(vehicleAt(record));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> findVehicles(VehicleQuery query) {
+        List<Vehicle> out = new ArrayList<>();
+        streamVehicles(query, out::add);
+        return out;
+    }
+
+    /**
+     * Decodes only the id and the summary fields of each matching record
+     */
+    @Override
+    public List<VehicleSummary> findVehicleSummaries(VehicleQuery query) {
+        if (query.hasUnknownType()) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int[] records = query.isPaged() ? page(query) : matchingRecords(query);
+            List<VehicleSummary> out = new ArrayList<>(records.length);
+            for (int record : records) {
+                int base = offset(record);
+                out.add(new VehicleSummary(idString(record), TYPE_NAMES[data.get(base + TYPE)],
+                        strings.decode(data.getInt(base + BRAND)), strings.decode(data.getInt(base + MODEL)), data.getInt(base + YEAR)));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The matching ids are taken under the read lock, then vehicles are decoded
+     * STREAM_CHUNK at a time under it and handed to the sink outside it, so a slow sink
+     * does not hold up writers. Ids rather than record numbers are kept because a
+     * removal moves the last record. A vehicle removed, or changed so that it no longer
+     * matches, before its chunk is decoded is skipped.
+     */
+    @Override
+    public void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) {
+        if (query.hasUnknownType()) return;
+        String[] matching;
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int[] records = query.isPaged() ? page(query) : matchingRecords(query);
+            matching = new String[records.length];
+            for (int i = 0; i < records.length; i++) matching[i] = idString(records[i]);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Vehicle> chunk = new ArrayList<>(Math.min(STREAM_CHUNK, matching.length));
+        for (int from = 0; from < matching.length; from += STREAM_CHUNK) {
+            int to = Math.min(matching.length, from + STREAM_CHUNK);
+            chunk.clear();
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                RecordFilter filter = new RecordFilter(query);
+                for (int i = from; i < to; i++) {
+                    int record = recordOf(matching[i]);
+                    if (record >= 0 && filter.test(record)) chunk.add(vehicleAt(record));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            chunk.forEach(sink);
+        }
+    }
+
+    // Records passing the filter and cursor, in file order
+    private int[] matchingRecords(VehicleQuery query) {
+        RecordFilter filter = new RecordFilter(query);
+        String after = query.getAfterId();
+        int[] out = new int[Math.min(size, 1024)];
+        int n = 0;
+        for (int record = 0; record < size; record++) {
+            if (!filter.test(record)) continue;
+            if (after != null && idString(record).compareTo(after) <= 0) continue;
+            if (n == out.length) out = Arrays.copyOf(out, Math.max(16, n * 2));
+            out[n++] = record;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // The query's type, year and brand conditions against a mapped record; the brand
+    // test is resolved once per dictionary entry when the filter is built
+    private final class RecordFilter {
+        final boolean[] brandOk;
+        final int type;
+        final boolean anyYear;
+        final int year;
+
+        RecordFilter(VehicleQuery query) {
+            if (query.getBrand() == null) {
+                brandOk = null;
+            } else {
+                brandOk = new boolean[strings.size()];
+                for (int code = 0; code < brandOk.length; code++) {
+                    brandOk[code] = strings.decode(code).toLowerCase().contains(query.getBrand());
+                }
+            }
+            type = query.getType() == null ? -1 : typeCode(query.getVehicleClass());
+            anyYear = query.getYear() == null;
+            year = anyYear ? 0 : query.getYear();
+        }
+
+        boolean test(int record) {
+            int base = offset(record);
+            if (type >= 0 && data.get(base + TYPE) != type) return false;
+            if (!anyYear && data.getInt(base + YEAR) != year) return false;
+            if (brandOk == null) return true;
+            int brand = data.getInt(base + BRAND);
+            return brand >= 0 && brandOk[brand];
+        }
+    }
+
+    private static final class Match {
+        final String id;
+        final int record;
+
+        Match(String id, int record) {
+            this.id = id;
+            this.record = record;
+        }
+    }
+
+    // Id-ordered window; with a limit only the offset + limit smallest ids are kept
+    private int[] page(VehicleQuery query) {
+        int[] records = matchingRecords(query);
+        Comparator<Match> byId = Comparator.comparing(m -> m.id);
+        List<Match> sorted = new ArrayList<>();
+        if (query.getLimit() != null && (long) query.getOffset() + query.getLimit() < records.length) {
+            int keep = query.getOffset() + query.getLimit();
+            PriorityQueue<Match> largestFirst = new PriorityQueue<>(keep + 1, byId.reversed());
+            for (int record : records) {
+                largestFirst.add(new Match(idString(record), record));
+                if (largestFirst.size() > keep) largestFirst.poll();
+            }
+            sorted.addAll(largestFirst);
+        } else {
+            for (int record : records) sorted.add(new Match(idString(record), record));
+        }
+        sorted.sort(byId);
+        int from = Math.min(query.getOffset(), sorted.size());
+        int to = query.getLimit() == null ? sorted.size() : (int) Math.min(sorted.size(), (long) from + query.getLimit());
+        int[] out = new int[to - from];
+        for (int i = from; i < to; i++) out[i - from] = sorted.get(i).record;
+        return out;
+    }
+
+    private static int typeCode(Class<? extends Vehicle> type) {
+        if (type == Car.class) return CAR;
+        if (type == Bike.class) return BIKE;
+        if (type == Truck.class) return TRUCK;
+        return MOTORCYCLE;
+    }
+
+    private String idString(int record) {
+        return new String(idAt(record), StandardCharsets.UTF_8);
+    }
+
+    private Vehicle vehicleAt(int record) {
+        int base = offset(record);
+        String id = idString(record);
+        String brand = strings.decode(data.getInt(base + BRAND));
+        String model = strings.decode(data.getInt(base + MODEL));
+        int year = data.getInt(base + YEAR);
+        String label = strings.decode(data.getInt(base + LABEL));
+        byte flags = data.get(base + FLAGS);
+        switch (data.get(base + TYPE)) {
+            case CAR:
+                return new Car(id, brand, model, year, data.getInt(base + DOORS), label);
+            case BIKE:
+                return new Bike(id, brand, model, year, (flags & SIDECAR) != 0, label);
+            case TRUCK:
+                return new Truck(id, brand, model, year, data.getDouble(base + PAYLOAD), (flags & TRAILER) != 0);
+            default:
+                return new Motorcycle(id, brand, model, year, data.getInt(base + ENGINE_CC), label);
+        }
+    }
+
+    /**
+     * One pass over the mapped records; counters are keyed by type code, dictionary
+     * code, year and cc bucket and only turned into maps at the end
+     */
+    @Override
+    public FleetStatistics getFleetStatistics() {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            FleetStatistics stats = new FleetStatistics();
+            long[] perType = new long[TYPE_KEYS.length];
+            long[] perBrand = new long[strings.size()];
+            Map<Integer, long[]> perYear = new HashMap<>();
+            Map<Integer, long[]> perBucket = new HashMap<>();
+            long trucks = 0;
+            double payloadSum = 0, payloadMin = Double.POSITIVE_INFINITY, payloadMax = Double.NEGATIVE_INFINITY;
+            for (int record = 0; record < size; record++) {
+                int base = offset(record);
+                byte type = data.get(base + TYPE);
+                perType[type]++;
+                int brand = data.getInt(base + BRAND);
+                if (brand >= 0) perBrand[brand]++;
+                perYear.computeIfAbsent(data.getInt(base + YEAR), k -> new long[1])[0]++;
+                if (type == TRUCK) {
+                    double p = data.getDouble(base + PAYLOAD);
+                    trucks++;
+                    payloadSum += p;
+                    payloadMin = Math.min(payloadMin, p);
+                    payloadMax = Math.max(payloadMax, p);
+                } else if (type == MOTORCYCLE) {
+                    perBucket.computeIfAbsent(FleetStatistics.ccBucket(data.getInt(base + ENGINE_CC)), k -> new long[1])[0]++;
+                }
+            }
+            for (int t = 0; t < perType.length; t++) {
+                if (perType[t] > 0) stats.addType(TYPE_KEYS[t], perType[t]);
+            }
+            for (int code = 0; code < perBrand.length; code++) {
+                if (perBrand[code] > 0) stats.addBrand(strings.decode(code), perBrand[code]);
+            }
+            perYear.forEach((year, n) -> stats.addYear(year, n[0]));
+            perBucket.forEach((bucket, n) -> stats.addCcBucket(bucket, n[0]));
+            if (trucks > 0) {
+                stats.setTruckPayload(new FleetStatistics.Payload(trucks, payloadSum / trucks, payloadMin, payloadMax));
+            }
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package data;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import javax.transaction.Transactional;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import models.Vehicle;
 
 @Repository
+@ConditionalOnProperty(name = "vehicles.store", havingValue = "jpa", matchIfMissing = true)
 public class SpringDataVehicleRepository implements VehicleRepository {
 
     @PersistenceContext
@@ -57,4 +62,52 @@ public class SpringDataVehicleRepository implements VehicleRepository {
         return em.find(Vehicle.class, id);
     }
 
+    @Override
+    public List<Vehicle> findVehicles(VehicleQuery query) throws Exception {
+        if (query.hasUnknownType()) return new ArrayList<>();
+        return JpaVehicleQueries.findCacheable(em, query).getResultList();
+    }
+
+    @Override
+    public List<VehicleSummary> findVehicleSummaries(VehicleQuery query) throws Exception {
+        if (query.hasUnknownType()) return new ArrayList<>();
+        return JpaVehicleQueries.findSummaries(em, query).getResultList();
+    }
+
+    @Override
+    @Transactional // keeps one EntityManager open while the result is scrolled
+    public void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) throws Exception {
+        if (query.hasUnknownType()) return;
+        JpaVehicleQueries.stream(em, query, sink);
+    }
+
+    @Override
+    public FleetStatistics getFleetStatistics() throws Exception {
+        return JpaVehicleQueries.statistics(em);
+    }
+
+    @Override
+    @Transactional
+    public void addVehicles(List<Vehicle> vehicles) throws Exception {
+        JpaVehicleQueries.persistAll(em, vehicles);
+    }
+
+    @Override
+    @Transactional
+    public int updateVehicles(List<Vehicle> vehicles) throws Exception {
+        return JpaVehicleQueries.mergeExisting(em, vehicles);
+    }
+
+    @Override
+    @Transactional
+    public int removeVehiclesByIds(Collection<String> ids) throws Exception {
+        return JpaVehicleQueries.deleteByIds(em, ids);
+    }
+
+    /**
+     * Counters of the second-level and query caches (vehicles.jpa.second-level-cache)
+     */
+    public EntityCacheStats getCacheStatistics() {
+        return VehicleEntityCache.statistics(em.getEntityManagerFactory());
+    }
 }
@@ -0,0 +1,258 @@
+package data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-connection cache of PreparedStatements for VehicleDaoJdbc, keyed by SQL text.
+ *
+ * Statements are prepared on the physical connection behind a pool's proxy, so they
+ * outlive one borrow and are found again the next time the pool hands out the same
+ * connection. A connection is used by one thread at a time, so its statements need no
+ * locking; each connection keeps at most perConnection statements and closes the least
+ * recently used one beyond that. Statements of connections the pool has closed are
+ * dropped on the next miss.
+ *
+ * Because the statements bypass the pool's proxy, the pool never sees their failures.
+ * A lease therefore watches for a broken connection itself: a statement failing with a
+ * connection-exception SQLState (class 08), or a physical connection found closed when
+ * the lease ends. Such a connection loses its cached statements and is handed to the
+ * Evictor, so the pool does not lend it out again.
+ */
+public final class StatementCache implements AutoCloseable {
+
+    /**
+     * Takes a connection found broken out of its pool; closed tells whether the
+     * driver has already closed the physical connection
+     */
+    public interface Evictor {
+        void evict(Connection pooled, boolean closed) throws SQLException;
+    }
+
+    /**
+     * Point-in-time cache counters
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long broken;
+        private final int connections;
+        private final int statements;
+
+        Stats(long hits, long misses, long evictions, long broken, int connections, int statements) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.broken = broken;
+            this.connections = connections;
+            this.statements = statements;
+        }
+
+        /** Statements reused instead of prepared */
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        /** Statements closed to stay within the per-connection limit */
+        public long getEvictions() { return evictions; }
+        /** Connections found broken and handed to the Evictor */
+        public long getBrokenConnections() { return broken; }
+        /** Physical connections holding cached statements */
+        public int getConnections() { return connections; }
+        public int getStatements() { return statements; }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d evictions=%d broken=%d connections=%d statements=%d",
+                    hits, misses, evictions, broken, connections, statements);
+        }
+    }
+
+    /**
+     * A statement borrowed for one call; close() hands a cached statement back open.
+     * Execute through the lease so that a connection failure is noticed.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final PreparedStatement statement;
+        private final StatementCache cache; // null for an uncached statement
+        private final Connection pooled;
+        private final Connection physical;
+        private boolean broken;
+
+        Lease(PreparedStatement statement, StatementCache cache, Connection pooled, Connection physical) {
+            this.statement = statement;
+            this.cache = cache;
+            this.pooled = pooled;
+            this.physical = physical;
+        }
+
+        public PreparedStatement statement() { return statement; }
+
+        public ResultSet executeQuery() throws SQLException {
+            try {
+                return statement.executeQuery();
+            } catch (SQLException e) {
+                throw watch(e);
+            }
+        }
+
+        public int executeUpdate() throws SQLException {
+            try {
+                return statement.executeUpdate();
+            } catch (SQLException e) {
+                throw watch(e);
+            }
+        }
+
+        public int[] executeBatch() throws SQLException {
+            try {
+                return statement.executeBatch();
+            } catch (SQLException e) {
+                throw watch(e);
+            }
+        }
+
+        private SQLException watch(SQLException e) {
+            for (SQLException next = e; next != null && !broken; next = next.getNextException()) {
+                String state = next.getSQLState();
+                broken = state != null && state.startsWith("08");
+            }
+            return e;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (cache == null) {
+                statement.close();
+                return;
+            }
+            boolean closed = physical.isClosed();
+            if (broken || closed) {
+                cache.retire(pooled, physical, closed);
+                return;
+            }
+            try {
+                statement.clearBatch(); // rows left behind by a failed executeBatch
+            } catch (SQLException e) {
+                statement.close(); // dead connection; the next lease prepares a new one
+            }
+        }
+    }
+
+    private final int perConnection;
+    private final Evictor evictor;
+    private final Map<Connection, Statements> byConnection = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder broken = new LongAdder();
+
+    public StatementCache(int perConnection) {
+        this(perConnection, (pooled, closed) -> { });
+    }
+
+    /**
+     * @param evictor told about every connection found broken
+     */
+    public StatementCache(int perConnection, Evictor evictor) {
+        if (perConnection < 1) throw new IllegalArgumentException("perConnection must be positive");
+        this.perConnection = perConnection;
+        this.evictor = evictor;
+    }
+
+    /**
+     * Statement for sql on c, reused when c's physical connection prepared it before
+     */
+    public Lease lease(Connection c, String sql) throws SQLException {
+        Connection physical = c.unwrap(Connection.class);
+        Statements statements = byConnection.get(physical);
+        if (statements == null) {
+            removeClosedConnections();
+            statements = new Statements();
+            byConnection.put(physical, statements);
+        }
+        PreparedStatement ps = statements.get(sql);
+        if (ps != null && !ps.isClosed()) {
+            hits.increment();
+            return new Lease(ps, this, c, physical);
+        }
+        misses.increment();
+        ps = physical.prepareStatement(sql);
+        statements.put(sql, ps);
+        return new Lease(ps, this, c, physical);
+    }
+
+    /**
+     * Uncached lease for DAOs that open a fresh connection per call
+     */
+    public static Lease uncached(Connection c, String sql) throws SQLException {
+        return new Lease(c.prepareStatement(sql), null, c, null);
+    }
+
+    public Stats getStats() {
+        int statements = 0;
+        for (Statements s : byConnection.values()) statements += s.size();
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), broken.sum(), byConnection.size(), statements);
+    }
+
+    // Called by the thread holding the connection, so its statements are not in use elsewhere
+    private void retire(Connection pooled, Connection physical, boolean closed) throws SQLException {
+        broken.increment();
+        Statements dropped = byConnection.remove(physical);
+        if (dropped != null) {
+            for (PreparedStatement ps : dropped.values()) closeQuietly(ps);
+        }
+        evictor.evict(pooled, closed);
+    }
+
+    private void removeClosedConnections() throws SQLException {
+        for (Iterator<Map.Entry<Connection, Statements>> it = byConnection.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getKey().isClosed()) it.remove();
+        }
+    }
+
+    /**
+     * Closes every cached statement; call before the connections' pool shuts down
+     */
+    @Override
+    public void close() {
+        List<Statements> all = new ArrayList<>(byConnection.values());
+        byConnection.clear();
+        for (Statements s : all) {
+            for (PreparedStatement ps : s.values()) closeQuietly(ps);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+            // the connection is going away anyway
+        }
+    }
+
+    // LRU by SQL text; only touched by the thread currently holding the connection
+    private final class Statements extends LinkedHashMap<String, PreparedStatement> {
+        private static final long serialVersionUID = 1L;
+
+        Statements() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= perConnection) return false;
+            evictions.increment();
+            closeQuietly(eldest.getValue());
+            return true;
+        }
+    }
+}
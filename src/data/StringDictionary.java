@@ -0,0 +1,35 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Dictionary encoding for repeated strings (brands, models, fuel types...). Each
+ * distinct value gets a dense int code, so a column stores four bytes per row and a
+ * string test runs once per distinct value instead of once per row. Codes are never
+ * reused; null encodes as NULL. Not thread-safe: callers synchronize.
+ */
+final class StringDictionary {
+    static final int NULL = -1;
+
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    private final ArrayList<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        if (value == null) return NULL;
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        int next = values.size();
+        values.add(value);
+        codes.put(value, next);
+        return next;
+    }
+
+    String decode(int code) {
+        return code == NULL ? null : values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
@@ -2,16 +2,28 @@ package data;
 
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
 import models.*;
+import tools.DbMigrations;
 
 /**
  * A simple JDBC-based DAO for vehicles. Uses a standard JDBC API and
  * expects the driver to be available on the classpath (example: H2).
+ * The schema is the Flyway-managed one VehicleRepositoryJpa uses (see
+ * tools.DbMigrations), so both can work on the same database.
+ * Connections come from a DataSource when one is supplied (see pooled()),
+ * otherwise from DriverManager on every call. On a DataSource the prepared
+ * statements are cached per physical connection (see StatementCache), and a
+ * connection those statements find broken is evicted from a Hikari pool.
  */
-public class VehicleDaoJdbc implements VehicleRepository {
+public class VehicleDaoJdbc implements VehicleRepository, AutoCloseable {
     private final String url;
     private final String user;
     private final String password;
+    private final DataSource dataSource;
+    private final JdbcPool pool; // set when this DAO owns its pool
+    private final StatementCache statements; // null when every call opens a new connection
 
     public VehicleDaoJdbc(String url) {
         this(url, null, null);
@@ -19,69 +31,294 @@ public class VehicleDaoJdbc implements VehicleRepository {
 
     public VehicleDaoJdbc(String url, String user, String password) {
         this.url = url; this.user = user; this.password = password;
+        this.dataSource = null; this.pool = null; this.statements = null;
+    }
+
+    /**
+     * Use connections from an externally managed DataSource (e.g. Spring's pool)
+     */
+    public VehicleDaoJdbc(DataSource dataSource) {
+        this.url = null; this.user = null; this.password = null;
+        this.dataSource = dataSource; this.pool = null;
+        this.statements = new StatementCache(STATEMENTS_PER_CONNECTION, (c, closed) -> JdbcPool.evict(dataSource, c, closed));
+    }
+
+    private VehicleDaoJdbc(String url, String user, String password, JdbcPool pool) {
+        this.url = url; this.user = user; this.password = password;
+        this.dataSource = pool.getDataSource(); this.pool = pool;
+        this.statements = new StatementCache(STATEMENTS_PER_CONNECTION, (c, closed) -> JdbcPool.evict(dataSource, c, closed));
+    }
+
+    /**
+     * DAO running on its own connection pool; close() shuts the pool down
+     */
+    public static VehicleDaoJdbc pooled(String url, String user, String password, JdbcPool.Settings settings) {
+        return new VehicleDaoJdbc(url, user, password, new JdbcPool(url, user, password, settings));
+    }
+
+    /**
+     * Metrics of the owned pool, or null when not running on one
+     */
+    public JdbcPool.Stats getPoolStats() {
+        return pool == null ? null : pool.getStats();
+    }
+
+    /**
+     * Counters of the prepared-statement cache, or null when connections are not reused
+     */
+    public StatementCache.Stats getStatementCacheStats() {
+        return statements == null ? null : statements.getStats();
+    }
+
+    @Override
+    public void close() {
+        if (statements != null) statements.close();
+        if (pool != null) pool.close();
     }
 
     private Connection getConnection() throws SQLException {
+        if (dataSource != null) return dataSource.getConnection();
         if (user == null) return DriverManager.getConnection(url);
         return DriverManager.getConnection(url, user, password);
     }
 
+    private StatementCache.Lease prepare(Connection c, String sql) throws SQLException {
+        return statements == null ? StatementCache.uncached(c, sql) : statements.lease(c, sql);
+    }
+
     public void init() throws SQLException {
-        try (Connection c = getConnection(); Statement s = c.createStatement()) {
-                s.execute("CREATE TABLE IF NOT EXISTS vehicles(" +
-                    "id VARCHAR(255) PRIMARY KEY, " +
-                    "type VARCHAR(50), " +
-                    "brand VARCHAR(100), " +
-                    "model VARCHAR(100), " +
-                    "manufacture_year INT, " +
-                    "doors INT, " +
-                    "fuel VARCHAR(50), " +
-                    "sidecar BOOLEAN, " +
-                    "category VARCHAR(100), " +
-                    "payload DOUBLE, " +
-                    "trailer BOOLEAN, " +
-                    "cc INT)");
-            // Seed sample data if table is empty (dev convenience)
-            try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM vehicles")) {
-                if (rs.next() && rs.getInt(1) == 0) {
-                    try {
-                        // Insert a few sample vehicles
-                        addVehicle(new models.Car("Toyota", "Camry", 2021, 4, "Petrol"));
-                        addVehicle(new models.Bike("Honda", "CB500F", 2020, false, "Sports"));
-                        addVehicle(new models.Truck("Ford", "F-150", 2019, 1500.0, false));
-                        addVehicle(new models.Motorcycle("Yamaha", "R1", 2022, 1000, "Sports"));
-                        System.out.println("Seeded sample vehicles into JDBC DB");
-                    } catch (SQLException ignored) {
-                        // ignore seeding errors - non-critical
-                    }
-                }
+        // Flyway creates the schema and its indexes, converting a table from the old JDBC layout.
+        // It holds more than one connection at a time, so it goes around an owned pool (which
+        // may be a single connection); only an external DataSource is used directly
+        if (url != null) DbMigrations.migrate(url, user, password);
+        else DbMigrations.migrate(dataSource);
+        boolean empty;
+        try (Connection c = getConnection(); Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM vehicles")) {
+            empty = rs.next() && rs.getInt(1) == 0;
+        }
+        // Seed sample data if table is empty (dev convenience); done after releasing
+        // the schema connection so a pool of size one does not wait on itself
+        if (empty) {
+            try {
+                // Insert a few sample vehicles
+                addVehicle(new models.Car("Toyota", "Camry", 2021, 4, "Petrol"));
+                addVehicle(new models.Bike("Honda", "CB500F", 2020, false, "Sports"));
+                addVehicle(new models.Truck("Ford", "F-150", 2019, 1500.0, false));
+                addVehicle(new models.Motorcycle("Yamaha", "R1", 2022, 1000, "Sports"));
+                System.out.println("Seeded sample vehicles into JDBC DB");
+            } catch (SQLException ignored) {
+                // ignore seeding errors - non-critical
             }
         }
     }
 
+    // Selected in this order, so rows are read by constant index instead of by column name
+    private static final String COLUMNS = "id,vehicle_type,brand,model,manufacture_year,num_doors,fuel_type,has_sidecar,bike_type,"
+            + "payload_capacity_kg,has_trailer,engine_cc,category";
+    private static final int ID = 1, TYPE = 2, BRAND = 3, MODEL = 4, YEAR = 5, DOORS = 6, FUEL = 7,
+            SIDECAR = 8, BIKE_TYPE = 9, PAYLOAD = 10, TRAILER = 11, CC = 12, CATEGORY = 13;
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM vehicles";
+    private static final String SELECT_BY_ID_SQL = SELECT_SQL + " WHERE id = ?";
+    // the list-view columns only, at the same indexes (ID..YEAR) as in SELECT_SQL
+    private static final String SELECT_SUMMARY_SQL = "SELECT id,vehicle_type,brand,model,manufacture_year FROM vehicles";
+    private static final String INSERT_SQL = "INSERT INTO vehicles(" + COLUMNS + ") VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    private static final String UPDATE_SQL = "UPDATE vehicles SET vehicle_type=?,brand=?,model=?,manufacture_year=?,num_doors=?,fuel_type=?,"
+            + "has_sidecar=?,bike_type=?,payload_capacity_kg=?,has_trailer=?,engine_cc=?,category=? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM vehicles WHERE id = ?";
+    // rows per executeBatch round trip
+    private static final int BATCH_SIZE = 500;
+    // rows per fetch round trip while streaming
+    private static final int STREAM_FETCH_SIZE = 500;
+    // distinct SQL texts kept open per connection (the fixed statements plus findVehicles variants)
+    private static final int STATEMENTS_PER_CONNECTION = 32;
+
     public void addVehicle(Vehicle v) throws SQLException {
-        String sql = "INSERT INTO vehicles(id,type,brand,model,manufacture_year,doors,fuel,sidecar,category,payload,trailer,cc) VALUES(?,?,?,?,?,?,?,?,?,?,?,?)";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); StatementCache.Lease lease = prepare(c, INSERT_SQL)) {
+            PreparedStatement ps = lease.statement();
             ps.setString(1, v.getId());
-            ps.setString(2, v.getClass().getSimpleName());
-            ps.setString(3, v.getBrand());
-            ps.setString(4, v.getModel());
-            ps.setInt(5, v.getYear());
-            if (v instanceof Car) { Car cobj = (Car) v; ps.setInt(6, cobj.getNumDoors()); ps.setString(7, cobj.getFuelType()); ps.setNull(8, Types.BOOLEAN); ps.setNull(9, Types.VARCHAR); ps.setNull(10, Types.DOUBLE); ps.setNull(11, Types.BOOLEAN); ps.setNull(12, Types.INTEGER); }
-            else if (v instanceof Bike) { Bike b = (Bike) v; ps.setNull(6, Types.INTEGER); ps.setNull(7, Types.VARCHAR); ps.setBoolean(8, b.hasSidecar()); ps.setString(9, b.getType()); ps.setNull(10, Types.DOUBLE); ps.setNull(11, Types.BOOLEAN); ps.setNull(12, Types.INTEGER); }
-            else if (v instanceof Truck) { Truck t = (Truck) v; ps.setNull(6, Types.INTEGER); ps.setNull(7, Types.VARCHAR); ps.setNull(8, Types.BOOLEAN); ps.setNull(9, Types.VARCHAR); ps.setDouble(10, t.getPayloadCapacityKg()); ps.setBoolean(11, t.hasTrailer()); ps.setNull(12, Types.INTEGER); }
-            else if (v instanceof Motorcycle) { Motorcycle m = (Motorcycle) v; ps.setNull(6, Types.INTEGER); ps.setNull(7, Types.VARCHAR); ps.setNull(8, Types.BOOLEAN); ps.setNull(9, Types.VARCHAR); ps.setNull(10, Types.DOUBLE); ps.setNull(11, Types.BOOLEAN); ps.setInt(12, m.getEngineCc()); }
-            else { // unknown type - set nulls
-                ps.setNull(6, Types.INTEGER); ps.setNull(7, Types.VARCHAR); ps.setNull(8, Types.BOOLEAN); ps.setNull(9, Types.VARCHAR); ps.setNull(10, Types.DOUBLE); ps.setNull(11, Types.BOOLEAN); ps.setNull(12, Types.INTEGER);
+            bindColumns(ps, v, 2);
+            lease.executeUpdate();
+        }
+    }
+
+    // Binds type, brand, model, year and the eight type-specific columns starting at index first
+    private static void bindColumns(PreparedStatement ps, Vehicle v, int first) throws SQLException {
+        Kind kind = Kind.BY_CLASS.get(v.getClass());
+        ps.setString(first, kind != null ? kind.name() : v.getClass().getSimpleName().toUpperCase(Locale.ROOT));
+        ps.setString(first + 1, v.getBrand());
+        ps.setString(first + 2, v.getModel());
+        ps.setInt(first + 3, v.getYear());
+        if (kind != null) kind.bindDetails(ps, v, first + 4);
+        else Kind.bindNoDetails(ps, first + 4);
+    }
+
+    /**
+     * Per-type binding and row mapping of the eight type-specific columns
+     * (num_doors, fuel_type, has_sidecar, bike_type, payload_capacity_kg,
+     * has_trailer, engine_cc, category); the columns a type does not use are
+     * bound as NULL. The constant names are the vehicle_type discriminator values.
+     */
+    private enum Kind {
+        CAR("Car") {
+            void bindDetails(PreparedStatement ps, Vehicle v, int i) throws SQLException {
+                Car c = (Car) v;
+                ps.setInt(i, c.getNumDoors()); ps.setString(i + 1, c.getFuelType()); ps.setNull(i + 2, Types.BOOLEAN); ps.setNull(i + 3, Types.VARCHAR);
+                ps.setNull(i + 4, Types.DOUBLE); ps.setNull(i + 5, Types.BOOLEAN); ps.setNull(i + 6, Types.INTEGER); ps.setNull(i + 7, Types.VARCHAR);
+            }
+            Vehicle read(ResultSet rs, String id, String brand, String model, int year) throws SQLException {
+                return new Car(id, brand, model, year, rs.getInt(DOORS), rs.getString(FUEL));
+            }
+        },
+        BIKE("Bike") {
+            void bindDetails(PreparedStatement ps, Vehicle v, int i) throws SQLException {
+                Bike b = (Bike) v;
+                ps.setNull(i, Types.INTEGER); ps.setNull(i + 1, Types.VARCHAR); ps.setBoolean(i + 2, b.hasSidecar()); ps.setString(i + 3, b.getType());
+                ps.setNull(i + 4, Types.DOUBLE); ps.setNull(i + 5, Types.BOOLEAN); ps.setNull(i + 6, Types.INTEGER); ps.setNull(i + 7, Types.VARCHAR);
+            }
+            Vehicle read(ResultSet rs, String id, String brand, String model, int year) throws SQLException {
+                return new Bike(id, brand, model, year, rs.getBoolean(SIDECAR), rs.getString(BIKE_TYPE));
+            }
+        },
+        TRUCK("Truck") {
+            void bindDetails(PreparedStatement ps, Vehicle v, int i) throws SQLException {
+                Truck t = (Truck) v;
+                ps.setNull(i, Types.INTEGER); ps.setNull(i + 1, Types.VARCHAR); ps.setNull(i + 2, Types.BOOLEAN); ps.setNull(i + 3, Types.VARCHAR);
+                ps.setDouble(i + 4, t.getPayloadCapacityKg()); ps.setBoolean(i + 5, t.hasTrailer()); ps.setNull(i + 6, Types.INTEGER); ps.setNull(i + 7, Types.VARCHAR);
+            }
+            Vehicle read(ResultSet rs, String id, String brand, String model, int year) throws SQLException {
+                return new Truck(id, brand, model, year, rs.getDouble(PAYLOAD), rs.getBoolean(TRAILER));
+            }
+        },
+        MOTORCYCLE("Motorcycle") {
+            void bindDetails(PreparedStatement ps, Vehicle v, int i) throws SQLException {
+                Motorcycle m = (Motorcycle) v;
+                ps.setNull(i, Types.INTEGER); ps.setNull(i + 1, Types.VARCHAR); ps.setNull(i + 2, Types.BOOLEAN); ps.setNull(i + 3, Types.VARCHAR);
+                ps.setNull(i + 4, Types.DOUBLE); ps.setNull(i + 5, Types.BOOLEAN); ps.setInt(i + 6, m.getEngineCc()); ps.setString(i + 7, m.getCategory());
+            }
+            Vehicle read(ResultSet rs, String id, String brand, String model, int year) throws SQLException {
+                return new Motorcycle(id, brand, model, year, rs.getInt(CC), rs.getString(CATEGORY));
+            }
+        };
+
+        // the model class's simple name, as VehicleSummary reports it
+        final String typeName;
+
+        Kind(String typeName) {
+            this.typeName = typeName;
+        }
+
+        abstract void bindDetails(PreparedStatement ps, Vehicle v, int first) throws SQLException;
+
+        abstract Vehicle read(ResultSet rs, String id, String brand, String model, int year) throws SQLException;
+
+        static void bindNoDetails(PreparedStatement ps, int i) throws SQLException {
+            ps.setNull(i, Types.INTEGER); ps.setNull(i + 1, Types.VARCHAR); ps.setNull(i + 2, Types.BOOLEAN); ps.setNull(i + 3, Types.VARCHAR);
+            ps.setNull(i + 4, Types.DOUBLE); ps.setNull(i + 5, Types.BOOLEAN); ps.setNull(i + 6, Types.INTEGER); ps.setNull(i + 7, Types.VARCHAR);
+        }
+
+        // Resolved once per class; subclasses (e.g. DrivableCar) bind like their model type
+        static final ClassValue<Kind> BY_CLASS = new ClassValue<Kind>() {
+            @Override
+            protected Kind computeValue(Class<?> type) {
+                if (Car.class.isAssignableFrom(type)) return CAR;
+                if (Bike.class.isAssignableFrom(type)) return BIKE;
+                if (Truck.class.isAssignableFrom(type)) return TRUCK;
+                if (Motorcycle.class.isAssignableFrom(type)) return MOTORCYCLE;
+                return null;
+            }
+        };
+
+        // vehicle_type holds the constant's name; other casings are still accepted
+        static Kind named(String type) {
+            switch (type) {
+                case "CAR": return CAR;
+                case "BIKE": return BIKE;
+                case "TRUCK": return TRUCK;
+                case "MOTORCYCLE": return MOTORCYCLE;
+                default:
+                    for (Kind k : values()) {
+                        if (k.name().equalsIgnoreCase(type)) return k;
+                    }
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Insert all vehicles on one connection in a single transaction using JDBC batching
+     */
+    public void addVehicles(List<Vehicle> vehicles) throws SQLException {
+        executeBatch(INSERT_SQL, vehicles, (ps, v) -> { ps.setString(1, v.getId()); bindColumns(ps, v, 2); });
+    }
+
+    /**
+     * Update all vehicles in one batched transaction; returns how many rows changed
+     */
+    public int updateVehicles(List<Vehicle> vehicles) throws SQLException {
+        return executeBatch(UPDATE_SQL, vehicles, (ps, v) -> { bindColumns(ps, v, 1); ps.setString(13, v.getId()); });
+    }
+
+    /**
+     * Delete all ids in one batched transaction; returns how many rows were removed
+     */
+    public int removeVehiclesByIds(Collection<String> ids) throws SQLException {
+        return executeBatch(DELETE_SQL, ids, (ps, id) -> ps.setString(1, id));
+    }
+
+    private interface Binder<T> {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    // Runs sql once per item via addBatch/executeBatch inside one transaction
+    private <T> int executeBatch(String sql, Collection<T> items, Binder<T> binder) throws SQLException {
+        if (items.isEmpty()) return 0;
+        try (Connection c = getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try (StatementCache.Lease lease = prepare(c, sql)) {
+                PreparedStatement ps = lease.statement();
+                int affected = 0;
+                int pending = 0;
+                for (T item : items) {
+                    binder.bind(ps, item);
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        affected += countAffected(lease.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) affected += countAffected(lease.executeBatch());
+                c.commit();
+                return affected;
+            } catch (SQLException | RuntimeException | Error e) {
+                // anything short of the commit - including a binder failure - must roll back,
+                // or restoring auto-commit below would commit the rows already sent
+                try {
+                    c.rollback();
+                } catch (SQLException rollback) {
+                    e.addSuppressed(rollback);
+                }
+                throw e;
+            } finally {
+                c.setAutoCommit(autoCommit);
             }
-            ps.executeUpdate();
         }
     }
 
+    private static int countAffected(int[] counts) {
+        int n = 0;
+        for (int count : counts) {
+            if (count > 0) n += count;
+            else if (count == Statement.SUCCESS_NO_INFO) n++;
+        }
+        return n;
+    }
+
     public List<Vehicle> getAllVehicles() throws SQLException {
         List<Vehicle> list = new ArrayList<>();
-        String sql = "SELECT * FROM vehicles";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+        try (Connection c = getConnection(); StatementCache.Lease lease = prepare(c, SELECT_SQL);
+             ResultSet rs = lease.executeQuery()) {
             while (rs.next()) {
                 list.add(readVehicleFromResultSet(rs));
             }
@@ -91,10 +328,10 @@ public class VehicleDaoJdbc implements VehicleRepository {
     }
 
     public Vehicle getVehicleById(String id) throws SQLException {
-        String sql = "SELECT * FROM vehicles WHERE id = ?";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); StatementCache.Lease lease = prepare(c, SELECT_BY_ID_SQL)) {
+            PreparedStatement ps = lease.statement();
             ps.setString(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
+            try (ResultSet rs = lease.executeQuery()) {
                 if (rs.next()) return readVehicleFromResultSet(rs);
             }
         }
@@ -102,56 +339,177 @@ public class VehicleDaoJdbc implements VehicleRepository {
         return null;
     }
 
+    public List<Vehicle> findVehicles(VehicleQuery query) throws SQLException {
+        List<Vehicle> list = new ArrayList<>();
+        if (query.hasUnknownType()) return list;
+        try (Connection c = getConnection(); StatementCache.Lease lease = prepareFind(c, SELECT_SQL, query)) {
+            PreparedStatement ps = lease.statement();
+            ps.setFetchSize(0); // a cached statement may still carry the streaming fetch size
+            try (ResultSet rs = lease.executeQuery()) {
+                while (rs.next()) {
+                    list.add(readVehicleFromResultSet(rs));
+                }
+            }
+        }
+        System.out.println("[JDBC] findVehicles -> count=" + list.size());
+        return list;
+    }
+
+    /**
+     * findVehicles reading only the five list-view columns
+     */
+    @Override
+    public List<VehicleSummary> findVehicleSummaries(VehicleQuery query) throws SQLException {
+        List<VehicleSummary> list = new ArrayList<>();
+        if (query.hasUnknownType()) return list;
+        try (Connection c = getConnection(); StatementCache.Lease lease = prepareFind(c, SELECT_SUMMARY_SQL, query)) {
+            PreparedStatement ps = lease.statement();
+            ps.setFetchSize(0);
+            try (ResultSet rs = lease.executeQuery()) {
+                while (rs.next()) {
+                    String type = rs.getString(TYPE);
+                    Kind kind = type == null ? null : Kind.named(type);
+                    if (kind == null) continue;
+                    list.add(new VehicleSummary(rs.getString(ID), kind.typeName, rs.getString(BRAND), rs.getString(MODEL), rs.getInt(YEAR)));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Reads the query's rows through a forward-only cursor, STREAM_FETCH_SIZE rows per
+     * round trip, and hands each vehicle to sink before reading the next one
+     */
+    public void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) throws SQLException {
+        if (query.hasUnknownType()) return;
+        try (Connection c = getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            // drivers such as PostgreSQL only use a server-side cursor inside a transaction
+            c.setAutoCommit(false);
+            try (StatementCache.Lease lease = prepareFind(c, SELECT_SQL, query)) {
+                PreparedStatement ps = lease.statement();
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = lease.executeQuery()) {
+                    while (rs.next()) {
+                        sink.accept(readVehicleFromResultSet(rs));
+                    }
+                }
+            } finally {
+                c.rollback(); // read-only, nothing to keep
+                c.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    // prepareStatement(sql) already gives a forward-only, read-only cursor; each combination
+    // of criteria is its own SQL text and so its own cached statement
+    private StatementCache.Lease prepareFind(Connection c, String select, VehicleQuery query) throws SQLException {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> params = new ArrayList<>();
+        appendWhere(query, sql, params);
+        appendPaging(query, sql, params);
+        StatementCache.Lease lease = prepare(c, sql.toString());
+        try {
+            PreparedStatement ps = lease.statement();
+            for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+            return lease;
+        } catch (SQLException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Fleet analytics as five aggregate queries on one connection; only grouped
+     * rows cross the wire
+     */
+    public FleetStatistics getFleetStatistics() throws SQLException {
+        FleetStatistics stats = new FleetStatistics();
+        try (Connection c = getConnection(); Statement s = c.createStatement()) {
+            try (ResultSet rs = s.executeQuery("SELECT vehicle_type, COUNT(*) FROM vehicles GROUP BY vehicle_type")) {
+                while (rs.next()) stats.addType(rs.getString(1), rs.getLong(2));
+            }
+            try (ResultSet rs = s.executeQuery("SELECT brand, COUNT(*) FROM vehicles GROUP BY brand")) {
+                while (rs.next()) stats.addBrand(rs.getString(1), rs.getLong(2));
+            }
+            try (ResultSet rs = s.executeQuery("SELECT manufacture_year, COUNT(*) FROM vehicles GROUP BY manufacture_year")) {
+                while (rs.next()) stats.addYear(rs.getInt(1), rs.getLong(2));
+            }
+            try (ResultSet rs = s.executeQuery(
+                    "SELECT COUNT(*), AVG(payload_capacity_kg), MIN(payload_capacity_kg), MAX(payload_capacity_kg) FROM vehicles WHERE vehicle_type = 'TRUCK'")) {
+                if (rs.next() && rs.getLong(1) > 0) {
+                    stats.setTruckPayload(new FleetStatistics.Payload(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4)));
+                }
+            }
+            String bucket = "FLOOR(engine_cc / " + FleetStatistics.CC_BUCKET + ".0) * " + FleetStatistics.CC_BUCKET;
+            try (ResultSet rs = s.executeQuery("SELECT " + bucket + ", COUNT(*) FROM vehicles WHERE vehicle_type = 'MOTORCYCLE' GROUP BY " + bucket)) {
+                while (rs.next()) stats.addCcBucket(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return stats;
+    }
+
+    // Parameterized WHERE clause for the query's criteria
+    private static void appendWhere(VehicleQuery query, StringBuilder sql, List<Object> params) {
+        String sep = " WHERE ";
+        if (query.getBrand() != null) {
+            sql.append(sep).append("LOWER(brand) LIKE ? ESCAPE '!'");
+            params.add(query.brandLikePattern());
+            sep = " AND ";
+        }
+        if (query.getType() != null) {
+            sql.append(sep).append("vehicle_type = ?");
+            params.add(Kind.BY_CLASS.get(query.getVehicleClass()).name());
+            sep = " AND ";
+        }
+        if (query.getYear() != null) {
+            sql.append(sep).append("manufacture_year = ?");
+            params.add(query.getYear());
+            sep = " AND ";
+        }
+        if (query.getAfterId() != null) {
+            sql.append(sep).append("id > ?");
+            params.add(query.getAfterId());
+        }
+    }
+
+    // Id-ordered window: the keyset predicate is in the WHERE clause, offset/limit here
+    private static void appendPaging(VehicleQuery query, StringBuilder sql, List<Object> params) {
+        if (!query.isPaged()) return;
+        sql.append(" ORDER BY id");
+        if (query.getOffset() > 0) {
+            sql.append(" OFFSET ? ROWS");
+            params.add(query.getOffset());
+        }
+        if (query.getLimit() != null) {
+            sql.append(" FETCH NEXT ? ROWS ONLY");
+            params.add(query.getLimit());
+        }
+    }
+
     public boolean updateVehicle(Vehicle v) throws SQLException {
-        String sql = "UPDATE vehicles SET type=?,brand=?,model=?,manufacture_year=?,doors=?,fuel=?,sidecar=?,category=?,payload=?,trailer=?,cc=? WHERE id = ?";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, v.getClass().getSimpleName());
-            ps.setString(2, v.getBrand());
-            ps.setString(3, v.getModel());
-            ps.setInt(4, v.getYear());
-            if (v instanceof Car) { Car cobj = (Car) v; ps.setInt(5, cobj.getNumDoors()); ps.setString(6, cobj.getFuelType()); ps.setNull(7, Types.BOOLEAN); ps.setNull(8, Types.VARCHAR); ps.setNull(9, Types.DOUBLE); ps.setNull(10, Types.BOOLEAN); ps.setNull(11, Types.INTEGER); }
-            else if (v instanceof Bike) { Bike b = (Bike) v; ps.setNull(5, Types.INTEGER); ps.setNull(6, Types.VARCHAR); ps.setBoolean(7, b.hasSidecar()); ps.setString(8, b.getType()); ps.setNull(9, Types.DOUBLE); ps.setNull(10, Types.BOOLEAN); ps.setNull(11, Types.INTEGER); }
-            else if (v instanceof Truck) { Truck t = (Truck) v; ps.setNull(5, Types.INTEGER); ps.setNull(6, Types.VARCHAR); ps.setNull(7, Types.BOOLEAN); ps.setNull(8, Types.VARCHAR); ps.setDouble(9, t.getPayloadCapacityKg()); ps.setBoolean(10, t.hasTrailer()); ps.setNull(11, Types.INTEGER); }
-            else if (v instanceof Motorcycle) { Motorcycle m = (Motorcycle) v; ps.setNull(5, Types.INTEGER); ps.setNull(6, Types.VARCHAR); ps.setNull(7, Types.BOOLEAN); ps.setNull(8, Types.VARCHAR); ps.setNull(9, Types.DOUBLE); ps.setNull(10, Types.BOOLEAN); ps.setInt(11, m.getEngineCc()); }
-            else { ps.setNull(5, Types.INTEGER); ps.setNull(6, Types.VARCHAR); ps.setNull(7, Types.BOOLEAN); ps.setNull(8, Types.VARCHAR); ps.setNull(9, Types.DOUBLE); ps.setNull(10, Types.BOOLEAN); ps.setNull(11, Types.INTEGER); }
-            ps.setString(12, v.getId());
-            return ps.executeUpdate() > 0;
+        try (Connection c = getConnection(); StatementCache.Lease lease = prepare(c, UPDATE_SQL)) {
+            PreparedStatement ps = lease.statement();
+            bindColumns(ps, v, 1);
+            ps.setString(13, v.getId());
+            return lease.executeUpdate() > 0;
         }
     }
 
     public boolean removeVehicleById(String id) throws SQLException {
-        String sql = "DELETE FROM vehicles WHERE id = ?";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); StatementCache.Lease lease = prepare(c, DELETE_SQL)) {
+            PreparedStatement ps = lease.statement();
             ps.setString(1, id);
-            return ps.executeUpdate() > 0;
-        }
-    }
-
-    private Vehicle readVehicleFromResultSet(ResultSet rs) throws SQLException {
-        String id = rs.getString("id");
-        String type = rs.getString("type");
-        String brand = rs.getString("brand");
-        String model = rs.getString("model");
-        int year = rs.getInt("manufacture_year");
-        switch (type.toLowerCase()) {
-            case "car":
-                int doors = rs.getInt("doors");
-                String fuel = rs.getString("fuel");
-                return new Car(id, brand, model, year, doors, fuel);
-            case "bike":
-                boolean side = rs.getBoolean("sidecar");
-                String cat = rs.getString("category");
-                return new Bike(id, brand, model, year, side, cat);
-            case "truck":
-                double payload = rs.getDouble("payload");
-                boolean trailer = rs.getBoolean("trailer");
-                return new Truck(id, brand, model, year, payload, trailer);
-            case "motorcycle":
-                int cc = rs.getInt("cc");
-                String mcat = rs.getString("category");
-                return new Motorcycle(id, brand, model, year, cc, mcat);
-            default:
-                return null;
+            return lease.executeUpdate() > 0;
         }
     }
+
+    // Reads the current row of a SELECT_SQL result by column index
+    private static Vehicle readVehicleFromResultSet(ResultSet rs) throws SQLException {
+        String type = rs.getString(TYPE);
+        Kind kind = type == null ? null : Kind.named(type);
+        if (kind == null) return null;
+        return kind.read(rs, rs.getString(ID), rs.getString(BRAND), rs.getString(MODEL), rs.getInt(YEAR));
+    }
 }
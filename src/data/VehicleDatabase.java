@@ -1,46 +1,153 @@
 package data;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import models.*;
-import utilities.FileHandler;
 
 /**
  * Demonstrates working with collections and streams
- * for managing vehicle data
+ * for managing vehicle data. Safe for concurrent use: reads never block
+ * and writes to different vehicles proceed in parallel.
  */
 public class VehicleDatabase {
-    private final List<Vehicle> vehicles;
-    
-    public VehicleDatabase() {
-        vehicles = new ArrayList<>();
+    // Primary index: id -> stored slot. ConcurrentHashMap locks per bin, so
+    // writers to different ids run in parallel and lookups never block.
+    private final ConcurrentHashMap<String, Slot> vehicles = new ConcurrentHashMap<>();
+    // Insertion-ordered view (sequence -> vehicle) behind getAllVehicles() and the
+    // stream helpers; the skip list iterates without locks and never throws CME.
+    private final ConcurrentNavigableMap<Long, Vehicle> ordered = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Secondary indexes, maintained together with the ordered view
+    private final BrandIndex brands = new BrandIndex();
+    private final VehicleIndex<Integer> years = new VehicleIndex<>();
+    private final VehicleIndex<String> types = new VehicleIndex<>();
+    // Id-ordered view for paged (keyset) queries
+    private final ConcurrentNavigableMap<String, Vehicle> sortedIds = new ConcurrentSkipListMap<>();
+    // Running totals behind the statistics methods
+    private final FleetAggregates aggregates = new FleetAggregates();
+
+    /**
+     * A stored vehicle together with its insertion sequence number and the index keys
+     * it was linked under. All index maintenance for an id happens inside that id's
+     * compute() call, so concurrent writers to the same id are serialized and never
+     * lose updates; keeping the keys means a vehicle mutated in place and then passed
+     * to updateVehicle is still unlinked from the entries it was added to.
+     */
+    private static final class Slot {
+        final long seq;
+        final Vehicle vehicle;
+        final String brand;
+        final int year;
+        final double maxSpeed;
+
+        Slot(long seq, Vehicle vehicle) {
+            this.seq = seq;
+            this.vehicle = vehicle;
+            this.brand = vehicle.getBrand();
+            this.year = vehicle.getYear();
+            this.maxSpeed = vehicle.getMaxSpeed();
+        }
     }
     
     /**
-     * Add vehicle to database
+     * Add vehicle to database (a vehicle with the same id is replaced in place)
      */
     public void addVehicle(Vehicle vehicle) {
-        vehicles.add(vehicle);
+        vehicles.compute(vehicle.getId(),
+                (id, old) -> store(old, old == null ? sequence.incrementAndGet() : old.seq, vehicle));
     }
 
     /**
      * Remove a vehicle by ID
      */
     public boolean removeVehicleById(String id) {
-        return vehicles.removeIf(v -> v.getId().equals(id));
+        if (id == null) return false;
+        boolean[] removed = { false };
+        vehicles.computeIfPresent(id, (k, old) -> {
+            unlink(old);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
     }
 
     /**
      * Update vehicle by ID; replace with provided vehicle (assuming same id)
      */
     public boolean updateVehicle(Vehicle newVehicle) {
-        for (int i = 0; i < vehicles.size(); i++) {
-            if (vehicles.get(i).getId().equals(newVehicle.getId())) {
-                vehicles.set(i, newVehicle);
-                return true;
-            }
+        return vehicles.computeIfPresent(newVehicle.getId(), (id, old) -> store(old, old.seq, newVehicle)) != null;
+    }
+
+    // Link the new slot before unlinking the old one so readers never observe a gap.
+    // Re-storing the same instance must unlink first: the conditional removes in
+    // unlink() would otherwise also drop the entries just linked for it.
+    private Slot store(Slot old, long seq, Vehicle vehicle) {
+        Slot slot = new Slot(seq, vehicle);
+        if (old != null && old.vehicle == vehicle) {
+            unlink(old);
+            link(slot);
+            return slot;
         }
-        return false;
+        link(slot);
+        if (old != null) unlink(old);
+        return slot;
+    }
+
+    private void link(Slot slot) {
+        Vehicle v = slot.vehicle;
+        ordered.put(slot.seq, v);
+        sortedIds.put(v.getId(), v);
+        brands.add(slot.brand, slot.seq, v);
+        years.add(slot.year, slot.seq, v);
+        types.add(typeKey(v), slot.seq, v);
+        aggregates.add(slot.seq, v, slot.maxSpeed, slot.brand);
+    }
+
+    private void unlink(Slot slot) {
+        Vehicle v = slot.vehicle;
+        ordered.remove(slot.seq, v);
+        sortedIds.remove(v.getId(), v);
+        brands.remove(slot.brand, slot.seq, v);
+        years.remove(slot.year, slot.seq, v);
+        types.remove(typeKey(v), slot.seq, v);
+        aggregates.remove(slot.seq, v, slot.maxSpeed, slot.brand);
+    }
+
+    private static String typeKey(Vehicle v) {
+        return v.getClass().getSimpleName().toLowerCase();
+    }
+
+    /**
+     * Add several vehicles; each is an O(1) insert into the indexes
+     */
+    public void addVehicles(Collection<? extends Vehicle> batch) {
+        for (Vehicle v : batch) addVehicle(v);
+    }
+
+    /**
+     * Update several vehicles; returns how many existed and were replaced
+     */
+    public int updateVehicles(Collection<? extends Vehicle> batch) {
+        int n = 0;
+        for (Vehicle v : batch) if (updateVehicle(v)) n++;
+        return n;
+    }
+
+    /**
+     * Remove several vehicles by id; returns how many were removed
+     */
+    public int removeVehiclesByIds(Collection<String> ids) {
+        int n = 0;
+        for (String id : ids) if (removeVehicleById(id)) n++;
+        return n;
     }
 
     /**
@@ -59,11 +166,19 @@ public class VehicleDatabase {
         return updateVehicle(updatedVehicle);
     }
     
+    /**
+     * Weakly consistent live view in insertion order, for writers that stream the
+     * whole fleet without copying it
+     */
+    Collection<Vehicle> liveView() {
+        return Collections.unmodifiableCollection(ordered.values());
+    }
+
     /**
      * Get all vehicles
      */
     public List<Vehicle> getAllVehicles() {
-        return new ArrayList<>(vehicles);
+        return new ArrayList<>(ordered.values());
     }
     
     /**
@@ -71,11 +186,11 @@ public class VehicleDatabase {
      */
     public void displayAllVehicles() {
         System.out.println("\n=== All Vehicles ===");
-        vehicles.forEach(Vehicle::displayInfo);
+        ordered.values().forEach(Vehicle::displayInfo);
     }
     
     /**
-     * Filter vehicles by brand using streams
+     * Filter vehicles by brand using the brand index
      *
      * This method performs a case-insensitive substring match - providing
      * a partial brand string will return matches that contain it (e.g. "hon" -> "Honda").
@@ -83,19 +198,134 @@ public class VehicleDatabase {
      */
     public List<Vehicle> getVehiclesByBrand(String brand) {
         if (brand == null || brand.trim().isEmpty()) return getAllVehicles();
-        final String q = brand.trim().toLowerCase();
-        return vehicles.stream()
-                .filter(v -> v.getBrand() != null && v.getBrand().toLowerCase().contains(q))
-                .collect(Collectors.toList());
+        return new ArrayList<>(merge(brands.matching(brand.trim().toLowerCase())));
     }
     
     /**
      * Get vehicles manufactured in specific year
      */
     public List<Vehicle> getVehiclesByYear(int year) {
-        return vehicles.stream()
-                .filter(v -> v.getYear() == year)
-                .collect(Collectors.toList());
+        VehicleIndex.Posting p = years.get(year);
+        return p == null ? new ArrayList<>() : new ArrayList<>(p.vehicles());
+    }
+
+    /**
+     * Get vehicles of a type by class name, case-insensitive (e.g. "car", "Truck").
+     * If the provided type is null or empty, the full list is returned.
+     */
+    public List<Vehicle> getVehiclesByType(String type) {
+        if (type == null || type.trim().isEmpty()) return getAllVehicles();
+        VehicleIndex.Posting p = types.get(type.trim().toLowerCase());
+        return p == null ? new ArrayList<>() : new ArrayList<>(p.vehicles());
+    }
+
+    /**
+     * Combined filter: case-insensitive brand substring, type name and year.
+     * Null or empty criteria are ignored. Walks the smallest of the matching index
+     * postings and checks the remaining criteria per candidate, so the cost follows
+     * the size of the result rather than the size of the table.
+     */
+    public List<Vehicle> findVehicles(String brand, String type, Integer year) {
+        final String b = brand == null ? "" : brand.trim().toLowerCase();
+        final String t = type == null ? "" : type.trim().toLowerCase();
+        Collection<Vehicle> candidates = ordered.values();
+        int candidateCount = Integer.MAX_VALUE;
+        if (!t.isEmpty()) {
+            VehicleIndex.Posting p = types.get(t);
+            if (p == null) return new ArrayList<>();
+            candidates = p.vehicles();
+            candidateCount = p.size();
+        }
+        if (year != null) {
+            VehicleIndex.Posting p = years.get(year);
+            if (p == null) return new ArrayList<>();
+            if (p.size() < candidateCount) {
+                candidates = p.vehicles();
+                candidateCount = p.size();
+            }
+        }
+        if (!b.isEmpty()) {
+            List<VehicleIndex.Posting> matches = brands.matching(b);
+            if (matches.isEmpty()) return new ArrayList<>();
+            int total = 0;
+            for (VehicleIndex.Posting p : matches) total += p.size();
+            if (total < candidateCount) candidates = merge(matches);
+        }
+        List<Vehicle> out = new ArrayList<>();
+        for (Vehicle v : candidates) {
+            if (!b.isEmpty() && (v.getBrand() == null || !v.getBrand().toLowerCase().contains(b))) continue;
+            if (!t.isEmpty() && !typeKey(v).equals(t)) continue;
+            if (year != null && v.getYear() != year) continue;
+            out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * Filter with optional paging. Unpaged queries behave like findVehicles(brand, type, year);
+     * paged ones return an id-ordered window: an unfiltered page is a slice of the id index
+     * starting at the cursor, a filtered page keeps only the offset + limit smallest ids of
+     * the filtered matches in a bounded heap and sorts those.
+     */
+    public List<Vehicle> findVehicles(VehicleQuery query) {
+        if (!query.isPaged()) return findVehicles(query.getBrand(), query.getType(), query.getYear());
+        Collection<Vehicle> window;
+        if (!query.hasFilter()) {
+            window = query.getAfterId() == null ? sortedIds.values() : sortedIds.tailMap(query.getAfterId(), false).values();
+        } else {
+            List<Vehicle> matches = findVehicles(query.getBrand(), query.getType(), query.getYear());
+            if (query.getAfterId() != null) matches.removeIf(v -> v.getId().compareTo(query.getAfterId()) <= 0);
+            long keep = query.getLimit() == null ? Long.MAX_VALUE : (long) query.getOffset() + query.getLimit();
+            window = smallestIds(matches, keep);
+        }
+        int skip = query.getOffset();
+        int max = query.getLimit() == null ? Integer.MAX_VALUE : query.getLimit();
+        List<Vehicle> out = new ArrayList<>();
+        for (Vehicle v : window) {
+            if (out.size() >= max) break;
+            if (skip > 0) { skip--; continue; }
+            out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * Hand every vehicle matching the query to sink. An unfiltered, unpaged query walks
+     * the live insertion-ordered view without copying it; anything else visits the
+     * result of findVehicles(query).
+     */
+    public void forEachVehicle(VehicleQuery query, Consumer<? super Vehicle> sink) {
+        if (!query.hasFilter() && !query.isPaged()) {
+            ordered.values().forEach(sink);
+        } else {
+            findVehicles(query).forEach(sink);
+        }
+    }
+
+    // The keep vehicles with the smallest ids, in id order
+    private static List<Vehicle> smallestIds(List<Vehicle> vehicles, long keep) {
+        Comparator<Vehicle> byId = Comparator.comparing(Vehicle::getId);
+        if (keep >= vehicles.size()) {
+            vehicles.sort(byId);
+            return vehicles;
+        }
+        PriorityQueue<Vehicle> largestFirst = new PriorityQueue<>((int) keep + 1, byId.reversed());
+        for (Vehicle v : vehicles) {
+            largestFirst.add(v);
+            if (largestFirst.size() > keep) largestFirst.poll();
+        }
+        List<Vehicle> out = new ArrayList<>(largestFirst);
+        out.sort(byId);
+        return out;
+    }
+
+    // Union of postings in insertion order
+    private static Collection<Vehicle> merge(List<VehicleIndex.Posting> postings) {
+        if (postings.isEmpty()) return Collections.emptyList();
+        if (postings.size() == 1) return postings.get(0).vehicles();
+        TreeMap<Long, Vehicle> merged = new TreeMap<>();
+        for (VehicleIndex.Posting p : postings) merged.putAll(p.entries());
+        return merged.values();
     }
 
     /**
@@ -106,41 +336,112 @@ public class VehicleDatabase {
     }
     
     /**
-     * Get average max speed of all vehicles
+     * Get average max speed of all vehicles (maintained incrementally, O(1))
      */
     public double getAverageMaxSpeed() {
-        return vehicles.stream()
-                .mapToDouble(Vehicle::getMaxSpeed)
-                .average()
-                .orElse(0.0);
+        return aggregates.averageMaxSpeed();
     }
     
     /**
-     * Group vehicles by brand
+     * Group vehicles by brand, read from the per-brand index in insertion order
      */
     public Map<String, List<Vehicle>> groupByBrand() {
-        return vehicles.stream()
-                .collect(Collectors.groupingBy(Vehicle::getBrand));
+        Map<String, List<Vehicle>> out = new HashMap<>();
+        VehicleIndex<String> byBrand = aggregates.brands();
+        for (String brand : byBrand.keys()) {
+            VehicleIndex.Posting p = byBrand.get(brand);
+            if (p != null) out.put(brand, new ArrayList<>(p.vehicles()));
+        }
+        return out;
+    }
+
+    /**
+     * Number of vehicles per brand (exact spelling)
+     */
+    public Map<String, Integer> getCountsByBrand() {
+        Map<String, Integer> out = new TreeMap<>();
+        VehicleIndex<String> byBrand = aggregates.brands();
+        for (String brand : byBrand.keys()) {
+            VehicleIndex.Posting p = byBrand.get(brand);
+            if (p != null) out.put(brand, p.size());
+        }
+        return out;
+    }
+
+    /**
+     * Number of vehicles per type, keyed by lowercased class name (car, bike, ...)
+     */
+    public Map<String, Integer> getCountsByType() {
+        Map<String, Integer> out = new TreeMap<>();
+        for (String type : types.keys()) {
+            VehicleIndex.Posting p = types.get(type);
+            if (p != null) out.put(type, p.size());
+        }
+        return out;
     }
     
     /**
      * Count vehicles by type
      */
     public void countByType() {
-        long cars = vehicles.stream().filter(v -> v instanceof Car).count();
-        long bikes = vehicles.stream().filter(v -> v instanceof Bike).count();
-        long trucks = vehicles.stream().filter(v -> v instanceof Truck).count();
-        long motorcycles = vehicles.stream().filter(v -> v instanceof Motorcycle).count();
-        System.out.println("\nVehicle Count: Cars=" + cars + ", Bikes=" + bikes + ", Trucks=" + trucks + ", Motorcycles=" + motorcycles);
+        Map<String, Integer> counts = getCountsByType();
+        System.out.println("\nVehicle Count: Cars=" + counts.getOrDefault("car", 0)
+                + ", Bikes=" + counts.getOrDefault("bike", 0)
+                + ", Trucks=" + counts.getOrDefault("truck", 0)
+                + ", Motorcycles=" + counts.getOrDefault("motorcycle", 0));
     }
     
     /**
-     * Get fastest vehicle
+     * Get fastest vehicle (head of a speed-ordered index, first added wins ties)
      */
     public Vehicle getFastestVehicle() {
-        return vehicles.stream()
-                .max(Comparator.comparingDouble(Vehicle::getMaxSpeed))
-                .orElse(null);
+        return aggregates.fastest();
+    }
+
+    /**
+     * Fleet analytics: type, brand and year counts come straight from the index
+     * posting sizes; payload and engine figures make one pass over the truck and
+     * motorcycle postings only.
+     */
+    public FleetStatistics getFleetStatistics() {
+        FleetStatistics stats = new FleetStatistics();
+        for (String type : types.keys()) {
+            VehicleIndex.Posting p = types.get(type);
+            if (p != null) stats.addType(type, p.size());
+        }
+        VehicleIndex<String> byBrand = aggregates.brands();
+        for (String brand : byBrand.keys()) {
+            VehicleIndex.Posting p = byBrand.get(brand);
+            if (p != null) stats.addBrand(brand, p.size());
+        }
+        for (Integer year : years.keys()) {
+            VehicleIndex.Posting p = years.get(year);
+            if (p != null) stats.addYear(year, p.size());
+        }
+        VehicleIndex.Posting trucks = types.get("truck");
+        if (trucks != null) {
+            DoubleSummaryStatistics payload = new DoubleSummaryStatistics();
+            for (Vehicle v : trucks.vehicles()) payload.accept(((Truck) v).getPayloadCapacityKg());
+            if (payload.getCount() > 0) {
+                stats.setTruckPayload(new FleetStatistics.Payload(payload.getCount(),
+                        payload.getAverage(), payload.getMin(), payload.getMax()));
+            }
+        }
+        VehicleIndex.Posting motorcycles = types.get("motorcycle");
+        if (motorcycles != null) {
+            for (Vehicle v : motorcycles.vehicles()) {
+                stats.addCcBucket(FleetStatistics.ccBucket(((Motorcycle) v).getEngineCc()), 1);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * All maintained aggregates in one snapshot
+     */
+    public FleetSummary getSummary() {
+        return new FleetSummary(getTotalCount(), getAverageMaxSpeed(), getFastestVehicle(),
+                getCountsByType(), getCountsByBrand());
     }
     
     /**
@@ -154,116 +455,78 @@ public class VehicleDatabase {
      * Clear all vehicles
      */
     public void clear() {
-        vehicles.clear();
+        // remove id by id so every index stays consistent with concurrent writers
+        for (String id : vehicles.keySet()) {
+            removeVehicleById(id);
+        }
     }
 
 
+    /**
+     * Write all vehicles to a JSON file in insertion order. Vehicles are streamed to
+     * a temp file that replaces the target only once it is complete.
+     */
     public void saveToJson(String filename) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        boolean first = true;
-        for (Vehicle v : vehicles) {
-            if (!first) sb.append(",\n"); first = false;
-            sb.append("{");
-            sb.append("\"id\":\"").append(v.getId()).append("\"");
-            sb.append(",\"type\":\"").append(v.getClass().getSimpleName()).append("\"");
-            sb.append(",\"brand\":\"").append(escape(v.getBrand())).append("\"");
-            sb.append(",\"model\":\"").append(escape(v.getModel())).append("\"");
-            sb.append(",\"year\":").append(v.getYear());
-            if (v instanceof Car) {
-                Car c = (Car) v; sb.append(",\"doors\":").append(c.getNumDoors()); sb.append(",\"fuel\":\"").append(escape(c.getFuelType())).append("\"");
-            } else if (v instanceof Bike) {
-                Bike b = (Bike) v; sb.append(",\"sidecar\":").append(b.hasSidecar()); sb.append(",\"category\":\"").append(escape(b.getType())).append("\"");
-            } else if (v instanceof Truck) {
-                Truck t = (Truck) v; sb.append(",\"payload\":").append(t.getPayloadCapacityKg()); sb.append(",\"trailer\":").append(t.hasTrailer());
-            } else if (v instanceof Motorcycle) {
-                Motorcycle m = (Motorcycle) v; sb.append(",\"cc\":").append(m.getEngineCc()); sb.append(",\"category\":\"").append(escape(m.getCategory())).append("\"");
-            }
-            sb.append("}");
+        try {
+            VehicleJsonWriter.write(Paths.get(filename), ordered.values());
+            System.out.println("File written successfully: " + filename);
+        } catch (IOException e) {
+            System.err.println("Error writing file: " + e.getMessage());
         }
-        sb.append("\n]");
-        FileHandler.writeToFile(filename, Arrays.asList(sb.toString()));
     }
 
     // CSV methods removed — we now only persist in JSON format.
 
+    /**
+     * Replace the contents with the vehicles in a file written by saveToJson.
+     * The whole file is parsed first, so a missing, empty or malformed file - or one
+     * with an invalid record - leaves the database untouched. Records of an unknown
+     * type are skipped.
+     */
     public void loadFromJson(String filename) {
-        List<String> lines = FileHandler.readFromFile(filename);
-        if (lines.isEmpty()) return;
-        String json = String.join("\n", lines);
-        // naive parse: split objects
-        clear();
-        int idx = 0;
-        while (true) {
-            int start = json.indexOf('{', idx);
-            if (start < 0) break;
-            int end = json.indexOf('}', start);
-            if (end < 0) break;
-            String obj = json.substring(start+1, end);
-            Map<String, String> map = new HashMap<>();
-            List<String> pairs = new ArrayList<>();
-            StringBuilder cur = new StringBuilder();
-            boolean inQuotes = false;
-            for (char ch : obj.toCharArray()) {
-                if (ch == '"') inQuotes = !inQuotes;
-                if (ch == ',' && !inQuotes) {
-                    pairs.add(cur.toString()); cur.setLength(0);
-                } else {
-                    cur.append(ch);
-                }
-            }
-            if (cur.length() > 0) pairs.add(cur.toString());
-            for (String p : pairs) {
-                String[] kv = p.split(":",2);
-                if (kv.length < 2) continue;
-                String key = kv[0].trim().replaceAll("\"", "");
-                String val = kv[1].trim();
-                if (val.startsWith("\"")) val = val.replaceAll("\"", "");
-                map.put(key, val);
-            }
-            try {
-                String type = map.get("type");
-                String id = map.get("id");
-                String brand = map.get("brand");
-                String model = map.get("model");
-                int year = Integer.parseInt(map.getOrDefault("year", "0"));
-                switch (type.toLowerCase()) {
-                    case "car":
-                        int doors = Integer.parseInt(map.getOrDefault("doors", "4"));
-                        String fuel = map.getOrDefault("fuel", "Petrol");
-                        addVehicle(new Car(id, brand, model, year, doors, fuel));
-                        break;
-                    case "bike":
-                        boolean hasSide = Boolean.parseBoolean(map.getOrDefault("sidecar", "false"));
-                        String cat = map.getOrDefault("category", "Cruiser");
-                        addVehicle(new Bike(id, brand, model, year, hasSide, cat));
-                        break;
-                    case "truck":
-                        double payload = Double.parseDouble(map.getOrDefault("payload", "0"));
-                        boolean trailer = Boolean.parseBoolean(map.getOrDefault("trailer", "false"));
-                        addVehicle(new Truck(id, brand, model, year, payload, trailer));
-                        break;
-                    case "motorcycle":
-                        int cc = Integer.parseInt(map.getOrDefault("cc", "500"));
-                        String mcat = map.getOrDefault("category", "Sports");
-                        addVehicle(new Motorcycle(id, brand, model, year, cc, mcat));
-                        break;
-                }
-            } catch (Exception e) {
-                System.err.println("Error parsing JSON object: " + e.getMessage());
-            }
-            idx = end + 1;
+        Path path = Paths.get(filename);
+        List<Vehicle> loaded = new ArrayList<>();
+        int skipped;
+        try {
+            if (Files.size(path) == 0) return;
+            skipped = VehicleJsonReader.read(path, loaded::add);
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return;
         }
+        clear();
+        addVehicles(loaded);
+        System.out.println("File read successfully: " + filename
+                + (skipped > 0 ? " (skipped " + skipped + " records of unknown type)" : ""));
     }
 
-    private String escape(String s) {
-        return s.replace("\"", "\\\"");
+    /**
+     * Save all vehicles in the binary snapshot format (see VehicleSnapshot).
+     * Throws if the file cannot be written; an existing snapshot is then left as it was.
+     */
+    public void saveToSnapshot(String filename) throws IOException {
+        VehicleSnapshot.write(Paths.get(filename), ordered.values());
+        System.out.println("File written successfully: " + filename);
+    }
+
+    /**
+     * Replace the contents with the vehicles in a file written by saveToSnapshot.
+     * The whole file is decoded and checksummed first; a missing, truncated or
+     * corrupt snapshot throws and leaves the database untouched.
+     */
+    public void loadFromSnapshot(String filename) throws IOException {
+        List<Vehicle> loaded = VehicleSnapshot.read(Paths.get(filename));
+        clear();
+        addVehicles(loaded);
+        System.out.println("File read successfully: " + filename);
     }
 
     /**
      * Get vehicle by id
      */
     public Vehicle getVehicleById(String id) {
-        return vehicles.stream().filter(v -> v.getId().equals(id)).findFirst().orElse(null);
+        if (id == null) return null;
+        Slot slot = vehicles.get(id);
+        return slot == null ? null : slot.vehicle;
     }
 }
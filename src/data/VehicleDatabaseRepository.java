@@ -1,6 +1,9 @@
 package data;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import models.Vehicle;
 
 /**
@@ -47,6 +50,43 @@ public class VehicleDatabaseRepository implements VehicleRepository {
         return db.getVehicleById(id);
     }
 
+    @Override
+    public List<Vehicle> findVehicles(VehicleQuery query) {
+        return db.findVehicles(query);
+    }
+
+    @Override
+    public void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) {
+        db.forEachVehicle(query, sink);
+    }
+
+    @Override
+    public FleetStatistics getFleetStatistics() {
+        return db.getFleetStatistics();
+    }
+
+    @Override
+    public void addVehicles(List<Vehicle> vehicles) {
+        db.addVehicles(vehicles);
+    }
+
+    @Override
+    public int updateVehicles(List<Vehicle> vehicles) {
+        return db.updateVehicles(vehicles);
+    }
+
+    @Override
+    public int removeVehiclesByIds(Collection<String> ids) {
+        return db.removeVehiclesByIds(ids);
+    }
+
+    /**
+     * Aggregates maintained incrementally by the underlying VehicleDatabase
+     */
+    public FleetSummary getSummary() {
+        return db.getSummary();
+    }
+
     // Save/load methods used by Server for the in-memory repository only
     public void saveToJson(String filename) {
         db.saveToJson(filename);
@@ -55,4 +95,12 @@ public class VehicleDatabaseRepository implements VehicleRepository {
     public void loadFromJson(String filename) {
         db.loadFromJson(filename);
     }
+
+    public void saveToSnapshot(String filename) throws IOException {
+        db.saveToSnapshot(filename);
+    }
+
+    public void loadFromSnapshot(String filename) throws IOException {
+        db.loadFromSnapshot(filename);
+    }
 }
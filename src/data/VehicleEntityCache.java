@@ -0,0 +1,89 @@
+package data;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Opt-in Hibernate second-level entity cache and query cache for the Vehicle hierarchy,
+ * held on the heap by Ehcache 3 behind JCache with the regions in vehicle-ehcache.xml.
+ *
+ * em.find of a cached vehicle is answered from memory, as are repeated paged queries
+ * (their id lists are cached, the vehicles come from the entity region). Writes made
+ * through Hibernate keep both consistent: persist and merge update the entity region,
+ * a JPQL bulk DELETE evicts it, and any write to the vehicles table invalidates cached
+ * query results. Writes that bypass Hibernate (plain JDBC on the same database) are not
+ * seen until entries expire.
+ *
+ * Every instance owns its CacheManager, so two EntityManagerFactories over different
+ * databases never share cached vehicles; close it after the factory.
+ */
+public final class VehicleEntityCache implements AutoCloseable {
+    static final String CONFIG = "/vehicle-ehcache.xml";
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final CacheManager cacheManager;
+
+    public VehicleEntityCache() {
+        URL xml = VehicleEntityCache.class.getResource(CONFIG);
+        if (xml == null) throw new IllegalStateException(CONFIG + " is not on the classpath");
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        this.cacheManager = provider.getCacheManager(URI.create("urn:vehicles:entity-cache:" + INSTANCES.incrementAndGet()),
+                new XmlConfiguration(xml, VehicleEntityCache.class.getClassLoader()));
+    }
+
+    /**
+     * Hibernate settings that switch the caches (and their statistics) on; add them to
+     * the persistence unit's properties
+     */
+    public Map<String, Object> hibernateProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.cache.use_second_level_cache", "true");
+        props.put("hibernate.cache.use_query_cache", "true");
+        props.put("hibernate.cache.region.factory_class", "jcache");
+        props.put("hibernate.javax.cache.cache_manager", cacheManager);
+        // a region missing from vehicle-ehcache.xml is a configuration error, not an unbounded cache
+        props.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        props.put("hibernate.generate_statistics", "true");
+        return props;
+    }
+
+    /**
+     * Settings that keep the caches off. Hibernate would otherwise switch the entity
+     * cache on by itself as soon as it finds the JCache region factory on the classpath.
+     */
+    public static Map<String, Object> disabledProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.cache.use_second_level_cache", "false");
+        props.put("hibernate.cache.use_query_cache", "false");
+        return props;
+    }
+
+    @Override
+    public void close() {
+        cacheManager.close();
+    }
+
+    /**
+     * Counters of the factory's second-level and query caches
+     */
+    public static EntityCacheStats statistics(EntityManagerFactory emf) {
+        SessionFactory sf = emf.unwrap(SessionFactory.class);
+        if (!sf.getSessionFactoryOptions().isSecondLevelCacheEnabled()) return EntityCacheStats.disabled();
+        Statistics s = sf.getStatistics();
+        return new EntityCacheStats(true,
+                s.getSecondLevelCacheHitCount(), s.getSecondLevelCacheMissCount(), s.getSecondLevelCachePutCount(),
+                s.getQueryCacheHitCount(), s.getQueryCacheMissCount(), s.getQueryCachePutCount());
+    }
+}
@@ -0,0 +1,74 @@
+package data;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import models.Vehicle;
+
+/**
+ * Secondary index from a key (year, type, brand...) to the vehicles that carry it.
+ * Each posting is ordered by the vehicle's insertion sequence, so index results come
+ * back in the same order as a full scan. Mutations of a key run inside
+ * ConcurrentHashMap.compute, so an emptied posting is never dropped while another
+ * writer is adding to it.
+ */
+class VehicleIndex<K> {
+    private final ConcurrentHashMap<K, Posting> postings = new ConcurrentHashMap<>();
+
+    /**
+     * The vehicles indexed under one key
+     */
+    static final class Posting {
+        private final ConcurrentSkipListMap<Long, Vehicle> entries = new ConcurrentSkipListMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        int size() {
+            return size.get();
+        }
+
+        ConcurrentSkipListMap<Long, Vehicle> entries() {
+            return entries;
+        }
+
+        Collection<Vehicle> vehicles() {
+            return entries.values();
+        }
+    }
+
+    /**
+     * Index a vehicle under key; returns true if this created the key's posting
+     */
+    boolean add(K key, long seq, Vehicle vehicle) {
+        boolean[] created = { false };
+        postings.compute(key, (k, p) -> {
+            if (p == null) {
+                p = new Posting();
+                created[0] = true;
+            }
+            if (p.entries.put(seq, vehicle) == null) p.size.incrementAndGet();
+            return p;
+        });
+        return created[0];
+    }
+
+    /**
+     * Remove a vehicle from key's posting, dropping the posting once it is empty
+     */
+    void remove(K key, long seq, Vehicle vehicle) {
+        postings.computeIfPresent(key, (k, p) -> {
+            if (p.entries.remove(seq, vehicle)) p.size.decrementAndGet();
+            return p.size.get() == 0 ? null : p;
+        });
+    }
+
+    Posting get(K key) {
+        return postings.get(key);
+    }
+
+    Set<K> keys() {
+        return postings.keySet();
+    }
+}
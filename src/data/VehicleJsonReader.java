@@ -0,0 +1,261 @@
+package data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * Single-pass streaming reader for the vehicles.json format written by VehicleDatabase.
+ *
+ * Characters are pulled from a file channel through a fixed-size buffer and each array
+ * element is turned into a Car/Bike/Truck/Motorcycle as soon as its closing brace is
+ * read, so memory stays bounded by one record regardless of file size. Strings honour
+ * all JSON escapes, and unknown fields - including nested objects and arrays - are
+ * skipped structurally rather than by searching for braces.
+ */
+final class VehicleJsonReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // guards against unbounded memory on a corrupt file (e.g. a missing closing quote)
+    private static final int MAX_TOKEN = 1 << 20;
+
+    private final Reader in;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long offset; // characters consumed before buf[0], for error messages
+    private final StringBuilder token = new StringBuilder();
+    private final Fields fields = new Fields();
+
+    private VehicleJsonReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Stream every vehicle in the file to sink and return how many records of an unknown
+     * type were skipped. Malformed JSON, and records with a missing id or type or an
+     * unparseable field, throw IOException; the sink may already have seen earlier records.
+     */
+    static int read(Path file, Consumer<Vehicle> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE)) {
+            return new VehicleJsonReader(reader).readArray(sink);
+        }
+    }
+
+    private int readArray(Consumer<Vehicle> sink) throws IOException {
+        int skipped = 0;
+        int c = skipWhitespace();
+        if (c == -1) return skipped; // empty file
+        if (c != '[') throw error("expected '['");
+        pos++;
+        c = skipWhitespace();
+        if (c == ']') { pos++; return skipped; }
+        while (true) {
+            if (c != '{') throw error("expected '{'");
+            readObject();
+            Vehicle v;
+            try {
+                v = fields.build();
+            } catch (IllegalArgumentException e) {
+                throw error("invalid vehicle record: " + e.getMessage());
+            }
+            if (v != null) sink.accept(v);
+            else skipped++;
+            c = skipWhitespace();
+            pos++;
+            if (c == ']') return skipped;
+            if (c != ',') throw error("expected ',' or ']'");
+            c = skipWhitespace();
+        }
+    }
+
+    // Reads one flat vehicle object into fields; nested values are skipped
+    private void readObject() throws IOException {
+        fields.reset();
+        pos++; // '{'
+        int c = skipWhitespace();
+        if (c == '}') { pos++; return; }
+        while (true) {
+            if (c != '"') throw error("expected field name");
+            String key = readString();
+            if (skipWhitespace() != ':') throw error("expected ':'");
+            pos++;
+            c = skipWhitespace();
+            if (c == '{' || c == '[') {
+                skipNested();
+            } else {
+                String value = c == '"' ? readString() : readLiteral();
+                fields.set(key, value);
+            }
+            c = skipWhitespace();
+            pos++;
+            if (c == '}') return;
+            if (c != ',') throw error("expected ',' or '}'");
+            c = skipWhitespace();
+        }
+    }
+
+    // Skips an object or array, tracking depth and ignoring brackets inside strings
+    private void skipNested() throws IOException {
+        int depth = 0;
+        do {
+            int c = peek();
+            if (c == -1) throw error("unterminated object");
+            if (c == '"') {
+                readString();
+                continue;
+            }
+            pos++;
+            if (c == '{' || c == '[') depth++;
+            else if (c == '}' || c == ']') depth--;
+        } while (depth > 0);
+    }
+
+    private String readString() throws IOException {
+        pos++; // opening quote
+        token.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == -1) throw error("unterminated string");
+            if (c == '"') return token.toString();
+            if (c == '\\') {
+                int e = next();
+                switch (e) {
+                    case '"': case '\\': case '/': token.append((char) e); break;
+                    case 'b': token.append('\b'); break;
+                    case 'f': token.append('\f'); break;
+                    case 'n': token.append('\n'); break;
+                    case 'r': token.append('\r'); break;
+                    case 't': token.append('\t'); break;
+                    case 'u': token.append(readUnicodeEscape()); break;
+                    default: throw error("bad escape");
+                }
+            } else {
+                token.append((char) c);
+            }
+            if (token.length() > MAX_TOKEN) throw error("string too long");
+        }
+    }
+
+    private char readUnicodeEscape() throws IOException {
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+            int d = Character.digit(next(), 16);
+            if (d < 0) throw error("bad unicode escape");
+            code = (code << 4) | d;
+        }
+        return (char) code;
+    }
+
+    // number, true, false or null - returned as text, null for JSON null
+    private String readLiteral() throws IOException {
+        token.setLength(0);
+        while (true) {
+            int c = peek();
+            if (c == -1 || c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) break;
+            token.append((char) c);
+            pos++;
+            if (token.length() > MAX_TOKEN) throw error("value too long");
+        }
+        if (token.length() == 0) throw error("expected value");
+        String literal = token.toString();
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && Character.isWhitespace(c)) pos++;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos];
+    }
+
+    private int next() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        limit = n;
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Malformed vehicles JSON at character " + (offset + pos) + ": " + message);
+    }
+
+    /**
+     * Field values of the record being read, reused across records
+     */
+    private static final class Fields {
+        String id, type, brand, model, year, doors, fuel, sidecar, category, payload, trailer, cc;
+
+        void reset() {
+            id = type = brand = model = year = doors = fuel = sidecar = category = payload = trailer = cc = null;
+        }
+
+        void set(String key, String value) {
+            switch (key) {
+                case "id": id = value; break;
+                case "type": type = value; break;
+                case "brand": brand = value; break;
+                case "model": model = value; break;
+                case "year": year = value; break;
+                case "doors": doors = value; break;
+                case "fuel": fuel = value; break;
+                case "sidecar": sidecar = value; break;
+                case "category": category = value; break;
+                case "payload": payload = value; break;
+                case "trailer": trailer = value; break;
+                case "cc": cc = value; break;
+                default: break; // unknown fields are ignored
+            }
+        }
+
+        /**
+         * The vehicle these fields describe, or null for a type this reader does not know.
+         * Throws IllegalArgumentException (including NumberFormatException) for a missing
+         * id or type or an unparseable number.
+         */
+        Vehicle build() {
+            if (id == null || id.isEmpty()) throw new IllegalArgumentException("missing id");
+            if (type == null) throw new IllegalArgumentException("missing type for id " + id);
+            int y = Integer.parseInt(or(year, "0"));
+            switch (type.toLowerCase()) {
+                case "car":
+                    return new Car(id, brand, model, y, Integer.parseInt(or(doors, "4")), or(fuel, "Petrol"));
+                case "bike":
+                    return new Bike(id, brand, model, y, Boolean.parseBoolean(or(sidecar, "false")), or(category, "Cruiser"));
+                case "truck":
+                    return new Truck(id, brand, model, y, Double.parseDouble(or(payload, "0")), Boolean.parseBoolean(or(trailer, "false")));
+                case "motorcycle":
+                    return new Motorcycle(id, brand, model, y, Integer.parseInt(or(cc, "500")), or(category, "Sports"));
+                default:
+                    return null;
+            }
+        }
+
+        private static String or(String value, String fallback) {
+            return value == null ? fallback : value;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package data;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * Streaming writer for the vehicles.json format read by VehicleJsonReader.
+ *
+ * Vehicles are encoded one at a time into a buffered channel writer, so memory use does
+ * not grow with the fleet. Output goes to a temp file next to the target which is forced
+ * to disk and then renamed over it, so a crash mid-save leaves the previous file intact.
+ */
+final class VehicleJsonWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+
+    private VehicleJsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    static void write(Path file, Iterable<Vehicle> vehicles) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE)) {
+                new VehicleJsonWriter(writer).writeArray(vehicles);
+                writer.flush();
+                channel.force(false);
+            }
+            move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void move(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeArray(Iterable<Vehicle> vehicles) throws IOException {
+        out.write('[');
+        boolean first = true;
+        for (Vehicle v : vehicles) {
+            if (!first) out.write(",\n");
+            first = false;
+            writeVehicle(v);
+        }
+        out.write("\n]\n");
+    }
+
+    private void writeVehicle(Vehicle v) throws IOException {
+        out.write("{\"id\":");
+        string(v.getId());
+        out.write(",\"type\":");
+        string(v.getClass().getSimpleName());
+        out.write(",\"brand\":");
+        string(v.getBrand());
+        out.write(",\"model\":");
+        string(v.getModel());
+        out.write(",\"year\":");
+        out.write(Integer.toString(v.getYear()));
+        if (v instanceof Car) {
+            Car c = (Car) v;
+            out.write(",\"doors\":"); out.write(Integer.toString(c.getNumDoors()));
+            out.write(",\"fuel\":"); string(c.getFuelType());
+        } else if (v instanceof Bike) {
+            Bike b = (Bike) v;
+            out.write(",\"sidecar\":"); out.write(Boolean.toString(b.hasSidecar()));
+            out.write(",\"category\":"); string(b.getType());
+        } else if (v instanceof Truck) {
+            Truck t = (Truck) v;
+            out.write(",\"payload\":"); out.write(Double.toString(t.getPayloadCapacityKg()));
+            out.write(",\"trailer\":"); out.write(Boolean.toString(t.hasTrailer()));
+        } else if (v instanceof Motorcycle) {
+            Motorcycle m = (Motorcycle) v;
+            out.write(",\"cc\":"); out.write(Integer.toString(m.getEngineCc()));
+            out.write(",\"category\":"); string(m.getCategory());
+        }
+        out.write('}');
+    }
+
+    // JSON string literal with quotes, backslashes and control characters escaped
+    private void string(String s) throws IOException {
+        if (s == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (ch < 0x20) out.write(String.format("\\u%04x", (int) ch));
+                    else out.write(ch);
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,368 @@
+package data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import data.JournaledVehicleRepository.FsyncPolicy;
+
+/**
+ * Append-only mutation log behind JournaledVehicleRepository.
+ *
+ * Every record gets a log sequence number (LSN) and is framed as
+ * [int length][int CRC32][op][long lsn][body]. Appends only copy the record into a
+ * pending buffer; a single flusher thread writes whatever has accumulated with one
+ * write and (per FsyncPolicy) one fsync, then wakes every caller covered by it, so
+ * concurrent writers share fsyncs (group commit).
+ *
+ * The log is split into segments named after their first LSN. rotate() starts a new
+ * segment, which is how snapshot compaction marks the point replay has to start
+ * from. On replay a torn or corrupt tail of the newest segment - a crash mid-write -
+ * is truncated away; damage anywhere else is reported as an IOException.
+ */
+final class VehicleLog implements AutoCloseable {
+    /** Add or replace: the body is the full vehicle */
+    static final byte PUT = 1;
+    /** Remove: the body is the id */
+    static final byte REMOVE = 2;
+
+    private static final Pattern SEGMENT = Pattern.compile("wal-(\\d{16})\\.log");
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_RECORD = 1 << 20;
+    /** Largest body append accepts: MAX_RECORD less the op byte and the LSN */
+    private static final int MAX_BODY = MAX_RECORD - 9;
+
+    /**
+     * Receives replayed records in LSN order
+     */
+    interface Sink {
+        void apply(byte op, DataInputStream body) throws IOException;
+    }
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long intervalNanos;
+    private final Thread flusher;
+    private final Object lock = new Object();
+
+    // guarded by lock
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long nextLsn;
+    private long writtenLsn;
+    private long durableLsn;
+    private long rotateLsn = -1;
+    private int rotateOffset;
+    private long bytesSinceRotate;
+    private IOException failure;
+    private boolean closed;
+
+    // flusher thread only (and close() once the flusher has exited)
+    private FileChannel channel;
+
+    /**
+     * Start a new segment whose first record will get firstLsn
+     */
+    VehicleLog(Path directory, long firstLsn, FsyncPolicy policy, long intervalMillis) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.nextLsn = firstLsn;
+        this.writtenLsn = firstLsn - 1;
+        this.durableLsn = firstLsn - 1;
+        this.channel = openSegment(firstLsn);
+        this.flusher = new Thread(this::flushLoop, "vehicle-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    static Path segmentPath(Path directory, long firstLsn) {
+        return directory.resolve(String.format("wal-%016d.log", firstLsn));
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        // a segment named after the next LSN cannot hold any replayed record
+        return FileChannel.open(segmentPath(directory, firstLsn),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Queue a record and return its LSN; it is durable once awaitDurable(lsn) returns.
+     * Bodies that replay would read back as damage (over MAX_BODY) are rejected.
+     */
+    long append(byte op, byte[] body) throws IOException {
+        checkBody(body);
+        synchronized (lock) {
+            if (failure != null) throw new IOException("Vehicle log is unusable after a write failure", failure);
+            if (closed) throw new IllegalStateException("Vehicle log is closed");
+            long lsn = nextLsn++;
+            ByteBuffer payload = ByteBuffer.allocate(1 + 8 + body.length);
+            payload.put(op).putLong(lsn).put(body);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            DataOutputStream out = new DataOutputStream(pending);
+            out.writeInt(payload.capacity());
+            out.writeInt((int) crc.getValue());
+            out.write(payload.array());
+            lock.notifyAll();
+            return lsn;
+        }
+    }
+
+    /**
+     * Throw if append would refuse the body, so callers can check a batch up front
+     */
+    static void checkBody(byte[] body) throws IOException {
+        if (body.length > MAX_BODY) {
+            throw new IOException("Vehicle log record of " + body.length + " bytes exceeds the " + MAX_BODY + " byte limit");
+        }
+    }
+
+    /**
+     * Wait until the record is written (and forced, under FsyncPolicy.ALWAYS)
+     */
+    void awaitDurable(long lsn) throws IOException {
+        synchronized (lock) {
+            try {
+                while (acknowledged() < lsn && failure == null) lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the vehicle log");
+            }
+            if (acknowledged() < lsn) throw new IOException("Vehicle log write failed", failure);
+        }
+    }
+
+    private long acknowledged() {
+        return policy == FsyncPolicy.ALWAYS ? durableLsn : writtenLsn;
+    }
+
+    /**
+     * Close the current segment (forced) and start a new one at the next LSN, which is
+     * returned. The caller must keep appends out while this runs, so that every record
+     * below the returned LSN is in older segments.
+     */
+    long rotate() throws IOException {
+        synchronized (lock) {
+            try {
+                while (rotateLsn >= 0 && failure == null) lock.wait();
+                if (failure != null) throw new IOException("Vehicle log write failed", failure);
+                if (closed) throw new IllegalStateException("Vehicle log is closed");
+                long lsn = nextLsn;
+                rotateLsn = lsn;
+                rotateOffset = pending.size();
+                lock.notifyAll();
+                while (rotateLsn >= 0 && failure == null) lock.wait();
+                if (failure != null) throw new IOException("Vehicle log write failed", failure);
+                return lsn;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted rotating the vehicle log");
+            }
+        }
+    }
+
+    /** Bytes appended since the last rotation */
+    long bytesSinceRotate() {
+        synchronized (lock) {
+            return bytesSinceRotate + pending.size();
+        }
+    }
+
+    private void flushLoop() {
+        long lastForce = System.nanoTime();
+        while (true) {
+            byte[] batch;
+            long last;
+            long rotateAt;
+            int split;
+            boolean stop;
+            synchronized (lock) {
+                try {
+                    while (pending.size() == 0 && rotateLsn < 0 && !closed) {
+                        if (policy == FsyncPolicy.INTERVAL && durableLsn < writtenLsn) {
+                            long wait = intervalNanos - (System.nanoTime() - lastForce);
+                            if (wait <= 0) break;
+                            TimeUnit.NANOSECONDS.timedWait(lock, wait);
+                        } else {
+                            lock.wait();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    failure = new InterruptedIOException("Vehicle log flusher interrupted");
+                    lock.notifyAll();
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending.reset();
+                last = nextLsn - 1;
+                rotateAt = rotateLsn;
+                split = rotateAt >= 0 ? rotateOffset : batch.length;
+                stop = closed;
+            }
+            try {
+                write(batch, 0, split);
+                if (rotateAt >= 0) {
+                    channel.force(false);
+                    channel.close();
+                    channel = openSegment(rotateAt);
+                    write(batch, split, batch.length - split);
+                }
+                long now = System.nanoTime();
+                boolean force = policy == FsyncPolicy.ALWAYS || stop
+                        || (policy == FsyncPolicy.INTERVAL && now - lastForce >= intervalNanos);
+                if (force) {
+                    channel.force(false);
+                    lastForce = now;
+                }
+                synchronized (lock) {
+                    writtenLsn = last;
+                    if (force) durableLsn = last;
+                    if (rotateAt >= 0) {
+                        rotateLsn = -1;
+                        bytesSinceRotate = batch.length - split;
+                    } else {
+                        bytesSinceRotate += batch.length;
+                    }
+                    lock.notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            if (stop) return;
+        }
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes, offset, length);
+        while (buf.hasRemaining()) channel.write(buf);
+    }
+
+    /**
+     * Write out and force everything appended, stop the flusher and close the segment
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (lock) {
+            if (failure != null) throw new IOException("Vehicle log write failed", failure);
+        }
+    }
+
+    /**
+     * First LSNs of the segments in the directory, ascending
+     */
+    static List<Long> segments(Path directory) throws IOException {
+        List<Long> firsts = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(p -> {
+                Matcher m = SEGMENT.matcher(p.getFileName().toString());
+                if (m.matches()) firsts.add(Long.parseLong(m.group(1)));
+            });
+        }
+        Collections.sort(firsts);
+        return firsts;
+    }
+
+    /**
+     * Feed every record from fromLsn on to the sink and return the LSN after the last
+     * one. Segments that end before fromLsn are skipped.
+     */
+    static long replay(Path directory, long fromLsn, Sink sink) throws IOException {
+        List<Long> firsts = segments(directory);
+        long expected = fromLsn;
+        for (int i = 0; i < firsts.size(); i++) {
+            long first = firsts.get(i);
+            if (first < fromLsn) continue;
+            if (first != expected) {
+                throw new IOException("Vehicle log records " + expected + " to " + (first - 1) + " are missing");
+            }
+            expected = replaySegment(segmentPath(directory, first), first, i == firsts.size() - 1, sink);
+        }
+        return expected;
+    }
+
+    private static long replaySegment(Path path, long first, boolean newest, Sink sink) throws IOException {
+        long lsn = first;
+        long good = 0;
+        String damage = null;
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(path), 64 * 1024)) {
+            DataInputStream in = new DataInputStream(raw);
+            while (true) {
+                int b = in.read();
+                if (b < 0) break;
+                int length = 0;
+                try {
+                    length = b << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+                    int crc = in.readInt();
+                    if (length < 9 || length > MAX_RECORD) {
+                        damage = "bad record length " + length;
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    CRC32 check = new CRC32();
+                    check.update(payload);
+                    if ((int) check.getValue() != crc) {
+                        damage = "checksum mismatch";
+                        break;
+                    }
+                    DataInputStream body = new DataInputStream(new ByteArrayInputStream(payload));
+                    byte op = body.readByte();
+                    long recordLsn = body.readLong();
+                    if (recordLsn != lsn) {
+                        damage = "LSN " + recordLsn + " where " + lsn + " was expected";
+                        break;
+                    }
+                    sink.apply(op, body);
+                } catch (EOFException e) {
+                    damage = "truncated record";
+                    break;
+                }
+                good += FRAME_HEADER + length;
+                lsn++;
+            }
+        }
+        if (damage != null) {
+            if (!newest) throw new IOException("Corrupt vehicle log segment " + path + " at byte " + good + ": " + damage);
+            // a crash mid-append leaves a partial record at the end of the newest segment
+            System.err.println("Truncating vehicle log " + path + " at byte " + good + ": " + damage);
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.truncate(good);
+                ch.force(false);
+            }
+        }
+        return lsn;
+    }
+}
@@ -0,0 +1,36 @@
+package data;
+
+import java.util.List;
+
+/**
+ * One window of an id-ordered vehicle listing, of full vehicles or of VehicleSummary
+ * rows. nextCursor is the id to pass as the "after" parameter for the following page,
+ * or null on the last page.
+ */
+public class VehiclePage<T> {
+    private final List<T> items;
+    private final int limit;
+    private final String nextCursor;
+
+    public VehiclePage(List<T> items, int limit, String nextCursor) {
+        this.items = items;
+        this.limit = limit;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
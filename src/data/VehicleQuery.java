@@ -0,0 +1,136 @@
+package data;
+
+import java.util.Locale;
+
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * Filter and paging criteria understood by every VehicleRepository.
+ * Brand is a case-insensitive substring, type a vehicle class name
+ * (case-insensitive, e.g. "car") and year an exact manufacture year.
+ * Unset criteria match everything.
+ *
+ * Paged queries (any of limit, offset or afterId set) return vehicles ordered
+ * by id: afterId is a keyset cursor (only ids greater than it), offset skips
+ * rows after the cursor and limit caps the window.
+ */
+public class VehicleQuery {
+    private String brand;
+    private String type;
+    private Integer year;
+    private String afterId;
+    private int offset;
+    private Integer limit;
+
+    public VehicleQuery() {}
+
+    public static VehicleQuery of(String brand, String type) {
+        return new VehicleQuery().brand(brand).type(type);
+    }
+
+    public VehicleQuery brand(String brand) {
+        this.brand = normalize(brand);
+        return this;
+    }
+
+    public VehicleQuery type(String type) {
+        this.type = normalize(type);
+        return this;
+    }
+
+    public VehicleQuery year(Integer year) {
+        this.year = year;
+        return this;
+    }
+
+    public VehicleQuery afterId(String afterId) {
+        this.afterId = (afterId == null || afterId.isEmpty()) ? null : afterId;
+        return this;
+    }
+
+    public VehicleQuery offset(int offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset must be >= 0");
+        this.offset = offset;
+        return this;
+    }
+
+    public VehicleQuery limit(Integer limit) {
+        if (limit != null && limit < 0) throw new IllegalArgumentException("limit must be >= 0");
+        this.limit = limit;
+        return this;
+    }
+
+    /** Lowercased brand substring, or null when not filtering by brand */
+    public String getBrand() { return brand; }
+
+    /** Lowercased type name, or null when not filtering by type */
+    public String getType() { return type; }
+
+    public Integer getYear() { return year; }
+
+    public String getAfterId() { return afterId; }
+
+    public int getOffset() { return offset; }
+
+    /** Maximum number of rows, or null for no limit */
+    public Integer getLimit() { return limit; }
+
+    public boolean hasFilter() {
+        return brand != null || type != null || year != null;
+    }
+
+    /** True if the query asks for an id-ordered window rather than every match */
+    public boolean isPaged() {
+        return limit != null || offset > 0 || afterId != null;
+    }
+
+    /**
+     * Entity class for the type filter, or null if no type filter is set or the
+     * name does not denote a known vehicle type (such a query matches nothing)
+     */
+    public Class<? extends Vehicle> getVehicleClass() {
+        return vehicleClass(type);
+    }
+
+    /** True if the type filter names no known vehicle type */
+    public boolean hasUnknownType() {
+        return type != null && vehicleClass(type) == null;
+    }
+
+    /** Checks the filter criteria and the afterId cursor (not offset/limit) */
+    public boolean matches(Vehicle v) {
+        if (brand != null && (v.getBrand() == null || !v.getBrand().toLowerCase().contains(brand))) return false;
+        if (type != null && !v.getClass().getSimpleName().equalsIgnoreCase(type)) return false;
+        if (afterId != null && v.getId().compareTo(afterId) <= 0) return false;
+        return year == null || v.getYear() == year;
+    }
+
+    /**
+     * Brand filter as a LIKE pattern using '!' as the escape character
+     */
+    public String brandLikePattern() {
+        if (brand == null) return null;
+        String escaped = brand.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    static Class<? extends Vehicle> vehicleClass(String typeName) {
+        if (typeName == null) return null;
+        switch (typeName.toLowerCase(Locale.ROOT)) {
+            case "car": return Car.class;
+            case "bike": return Bike.class;
+            case "truck": return Truck.class;
+            case "motorcycle": return Motorcycle.class;
+            default: return null;
+        }
+    }
+
+    private static String normalize(String s) {
+        if (s == null || s.trim().isEmpty()) return null;
+        return s.trim().toLowerCase();
+    }
+}
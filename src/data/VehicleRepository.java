@@ -1,6 +1,9 @@
 package data;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import models.Vehicle;
 
 public interface VehicleRepository {
@@ -10,4 +13,19 @@ public interface VehicleRepository {
     boolean updateVehicle(Vehicle v) throws Exception;
     List<Vehicle> getAllVehicles() throws Exception;
     Vehicle getVehicleById(String id) throws Exception;
+    List<Vehicle> findVehicles(VehicleQuery query) throws Exception; // filtering done by the backend (SQL/indexes)
+    void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) throws Exception; // like findVehicles, but hands each vehicle to sink as it is read
+    // like findVehicles, but only the list-view columns; stores that already hold the
+    // vehicles in memory may keep this default, database-backed ones select fewer columns
+    default List<VehicleSummary> findVehicleSummaries(VehicleQuery query) throws Exception {
+        List<Vehicle> vehicles = findVehicles(query);
+        List<VehicleSummary> out = new ArrayList<>(vehicles.size());
+        for (Vehicle v : vehicles) out.add(VehicleSummary.of(v));
+        return out;
+    }
+    FleetStatistics getFleetStatistics() throws Exception; // aggregated by the backend (GROUP BY / indexes)
+    // batch operations: one round trip/transaction per batch instead of per vehicle
+    void addVehicles(List<Vehicle> vehicles) throws Exception;
+    int updateVehicles(List<Vehicle> vehicles) throws Exception; // returns number updated
+    int removeVehiclesByIds(Collection<String> ids) throws Exception; // returns number removed
 }
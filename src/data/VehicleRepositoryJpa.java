@@ -1,8 +1,12 @@
 package data;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -15,19 +19,44 @@ import org.slf4j.LoggerFactory;
 import tools.DbMigrations;
 
 /**
- * JPA-backed implementation of VehicleRepository
+ * JPA-backed implementation of VehicleRepository. Each write runs as its own unit of
+ * work (see inTransaction); callers with several related writes can run them in one.
  */
 public class VehicleRepositoryJpa implements VehicleRepository {
     private final String url;
     private final String user;
     private final String pass;
+    private final Map<String, Object> properties;
+    private final boolean secondLevelCache;
     private EntityManagerFactory emf;
+    private VehicleEntityCache cache;
     private static final Logger LOGGER = LoggerFactory.getLogger(VehicleRepositoryJpa.class);
 
     public VehicleRepositoryJpa(String url, String user, String pass) {
+        this(url, user, pass, Collections.emptyMap());
+    }
+
+    /**
+     * Extra JPA/Hibernate properties override persistence.xml (e.g. hibernate.show_sql=false)
+     */
+    public VehicleRepositoryJpa(String url, String user, String pass, Map<String, ?> properties) {
+        this(url, user, pass, properties, false);
+    }
+
+    private VehicleRepositoryJpa(String url, String user, String pass, Map<String, ?> properties, boolean secondLevelCache) {
         this.url = url;
         this.user = user;
         this.pass = pass;
+        this.properties = new HashMap<>(properties);
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    /**
+     * Repository whose vehicles and paged query results are cached in memory between
+     * EntityManagers (see VehicleEntityCache); getCacheStatistics() reports its hit rate
+     */
+    public static VehicleRepositoryJpa cached(String url, String user, String pass, Map<String, ?> properties) {
+        return new VehicleRepositoryJpa(url, user, pass, properties, true);
     }
 
     @Override
@@ -35,10 +64,15 @@ public class VehicleRepositoryJpa implements VehicleRepository {
         // Run Flyway migrations first
         DbMigrations.migrate(url, user, pass);
 
-        Map<String, Object> props = new HashMap<>();
+        Map<String, Object> props = new HashMap<>(VehicleEntityCache.disabledProperties());
+        props.putAll(properties);
         props.put("javax.persistence.jdbc.url", url);
         props.put("javax.persistence.jdbc.user", user);
         props.put("javax.persistence.jdbc.password", pass);
+        if (secondLevelCache) {
+            cache = new VehicleEntityCache();
+            props.putAll(cache.hibernateProperties());
+        }
         // Ensure Hibernate uses correct dialect implicitly from driver
         try {
             emf = Persistence.createEntityManagerFactory("vehiclesPU", props);
@@ -47,11 +81,13 @@ public class VehicleRepositoryJpa implements VehicleRepository {
             }
         } catch (Throwable t) {
             LOGGER.error("Error creating EntityManagerFactory: {}", t.getMessage(), t);
+            closeCache();
             throw new IllegalStateException("Failed to create EntityManagerFactory: " + t.getMessage(), t);
         }
         // If the provider isn't available (stubbed Persistence returns a non-open EMF), detect and fail
         if (emf == null || !emf.isOpen()) {
             emf = null;
+            closeCache();
             throw new IllegalStateException("No JPA provider found on classpath; ensure Hibernate/JPA provider is available (run with Maven or include provider jars)");
         }
     }
@@ -60,73 +96,157 @@ public class VehicleRepositoryJpa implements VehicleRepository {
         return emf.createEntityManager();
     }
 
-    @Override
-    public void addVehicle(Vehicle v) throws Exception {
+    /**
+     * Callback run by inTransaction
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(JpaUnitOfWork unit) throws Exception;
+    }
+
+    /**
+     * Run work with one EntityManager and one transaction: commit if it returns, roll
+     * back if it throws (the exception is rethrown), close the EntityManager either way.
+     * Use it to batch imports or multi-step edits that would otherwise each open their
+     * own EntityManager and transaction. Units do not nest.
+     */
+    public <T> T inTransaction(Work<T> work) throws Exception {
         EntityManager em = em();
         try {
             em.getTransaction().begin();
-            em.persist(v);
+            T result = work.run(new JpaUnitOfWork(em));
             em.getTransaction().commit();
+            return result;
+        } catch (Exception | Error e) {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+            throw e;
         } finally {
             em.close();
         }
     }
 
+    @Override
+    public void addVehicle(Vehicle v) throws Exception {
+        inTransaction(unit -> {
+            unit.add(v);
+            return null;
+        });
+    }
+
     @Override
     public boolean removeVehicleById(String id) throws Exception {
+        return inTransaction(unit -> unit.remove(id));
+    }
+
+    @Override
+    public boolean updateVehicle(Vehicle v) throws Exception {
+        return inTransaction(unit -> unit.update(v));
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() throws Exception {
         EntityManager em = em();
         try {
-            em.getTransaction().begin();
-            Vehicle v = em.find(Vehicle.class, id);
-            if (v == null) { em.getTransaction().commit(); return false; }
-            em.remove(v);
-            em.getTransaction().commit();
-            return true;
+            TypedQuery<Vehicle> q = em.createQuery("SELECT v FROM Vehicle v", Vehicle.class);
+            return q.getResultList();
         } finally {
             em.close();
         }
     }
 
     @Override
-    public boolean updateVehicle(Vehicle v) throws Exception {
+    public Vehicle getVehicleById(String id) throws Exception {
         EntityManager em = em();
         try {
-            em.getTransaction().begin();
-            em.merge(v);
-            em.getTransaction().commit();
-            return true;
+            return em.find(Vehicle.class, id);
         } finally {
             em.close();
         }
     }
 
     @Override
-    public List<Vehicle> getAllVehicles() throws Exception {
+    public List<Vehicle> findVehicles(VehicleQuery query) throws Exception {
+        if (query.hasUnknownType()) return new ArrayList<>();
         EntityManager em = em();
         try {
-            TypedQuery<Vehicle> q = em.createQuery("SELECT v FROM Vehicle v", Vehicle.class);
-            return q.getResultList();
+            return JpaVehicleQueries.findCacheable(em, query).getResultList();
         } finally {
             em.close();
         }
     }
 
     @Override
-    public Vehicle getVehicleById(String id) throws Exception {
+    public List<VehicleSummary> findVehicleSummaries(VehicleQuery query) throws Exception {
+        if (query.hasUnknownType()) return new ArrayList<>();
         EntityManager em = em();
         try {
-            return em.find(Vehicle.class, id);
+            return JpaVehicleQueries.findSummaries(em, query).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void streamVehicles(VehicleQuery query, Consumer<? super Vehicle> sink) throws Exception {
+        if (query.hasUnknownType()) return;
+        EntityManager em = em();
+        try {
+            JpaVehicleQueries.stream(em, query, sink);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public FleetStatistics getFleetStatistics() throws Exception {
+        EntityManager em = em();
+        try {
+            return JpaVehicleQueries.statistics(em);
         } finally {
             em.close();
         }
     }
 
+    @Override
+    public void addVehicles(List<Vehicle> vehicles) throws Exception {
+        inTransaction(unit -> {
+            unit.addAll(vehicles);
+            return null;
+        });
+    }
+
+    @Override
+    public int updateVehicles(List<Vehicle> vehicles) throws Exception {
+        return inTransaction(unit -> unit.updateAll(vehicles));
+    }
+
+    @Override
+    public int removeVehiclesByIds(Collection<String> ids) throws Exception {
+        return inTransaction(unit -> unit.removeAll(ids));
+    }
+
     /**
-     * Close the EntityManagerFactory when shutting down
+     * Hit/miss counters of the second-level and query caches (disabled unless created
+     * with cached())
+     */
+    public EntityCacheStats getCacheStatistics() {
+        return emf == null ? EntityCacheStats.disabled() : VehicleEntityCache.statistics(emf);
+    }
+
+    /**
+     * Close the EntityManagerFactory (and its cache) when shutting down
      */
     public void close() {
         if (emf != null && emf.isOpen()) {
             emf.close();
         }
+        closeCache();
+    }
+
+    private void closeCache() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
     }
 }
@@ -0,0 +1,312 @@
+package data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * Versioned binary snapshot of a fleet, a compact alternative to vehicles.json.
+ *
+ * Layout: the MAGIC bytes and a version byte, then one record per vehicle starting
+ * with a type tag, then END, the record count as a varint and a CRC32 of everything
+ * before it. A record holds the id, brand, model and year followed by the fields of
+ * its type (doors/fuel, sidecar/category, payload/trailer, cc/category).
+ *
+ * Brands, models, fuel types and categories go through a string table built while
+ * writing: a string is written once, as NEW_STRING plus its UTF-8 bytes, and every
+ * later occurrence is just its table index. Ints are zigzag varints, so a year or an
+ * engine size takes two bytes. The reader verifies the checksum and count before it
+ * returns anything, so a truncated or corrupted file is rejected as a whole.
+ */
+final class VehicleSnapshot {
+    private static final byte[] MAGIC = {'V', 'S', 'N', 'P'};
+    static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // record type tags
+    private static final int END = 0;
+    private static final int CAR = 1;
+    private static final int BIKE = 2;
+    private static final int TRUCK = 3;
+    private static final int MOTORCYCLE = 4;
+
+    // string references: NULL_STRING, NEW_STRING, or FIRST_INDEX + table index
+    private static final int NULL_STRING = 0;
+    private static final int NEW_STRING = 1;
+    private static final int FIRST_INDEX = 2;
+
+    private static final byte SIDECAR = 1;
+    private static final byte TRAILER = 2;
+
+    private VehicleSnapshot() {}
+
+    /**
+     * Write the vehicles to a temp file next to the target, force it to disk and
+     * rename it over the target, so a failed save leaves the previous snapshot intact
+     */
+    static void write(Path file, Iterable<Vehicle> vehicles) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream raw = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                CheckedOutputStream checked = new CheckedOutputStream(raw, new CRC32());
+                Encoder out = new Encoder(new DataOutputStream(checked));
+                out.data.write(MAGIC);
+                out.data.writeByte(VERSION);
+                long count = 0;
+                for (Vehicle v : vehicles) {
+                    out.vehicle(v);
+                    count++;
+                }
+                out.data.writeByte(END);
+                out.varint(count);
+                out.data.flush();
+                new DataOutputStream(raw).writeInt((int) checked.getChecksum().getValue());
+                raw.flush();
+                channel.force(false);
+            }
+            move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void move(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Read every vehicle in a snapshot; throws IOException if the file is not a
+     * snapshot, has an unsupported version, or fails the count or checksum check
+     */
+    static List<Vehicle> read(Path file) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            Decoder in = new Decoder(new DataInputStream(checked));
+            byte[] magic = new byte[MAGIC.length];
+            in.data.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a vehicle snapshot: " + file);
+            int version = in.data.readUnsignedByte();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            List<Vehicle> vehicles = new ArrayList<>();
+            Vehicle v;
+            while ((v = in.vehicle()) != null) vehicles.add(v);
+            long count = in.varint();
+            int expected = (int) checked.getChecksum().getValue();
+            int stored = new DataInputStream(raw).readInt();
+            if (stored != expected) throw new IOException("Snapshot checksum mismatch: " + file);
+            if (count != vehicles.size()) throw new IOException("Snapshot record count mismatch: " + file);
+            if (raw.read() != -1) throw new IOException("Trailing data after snapshot: " + file);
+            return vehicles;
+        } catch (EOFException e) {
+            throw new IOException("Truncated snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Encode one vehicle as a self-contained record (its own, empty string table),
+     * for logs that append vehicles one at a time
+     */
+    static void writeRecord(DataOutputStream out, Vehicle v) throws IOException {
+        new Encoder(out).vehicle(v);
+    }
+
+    /**
+     * Decode a record written by writeRecord
+     */
+    static Vehicle readRecord(DataInputStream in) throws IOException {
+        Vehicle v = new Decoder(in).vehicle();
+        if (v == null) throw new IOException("Empty vehicle record");
+        return v;
+    }
+
+    private static final class Encoder {
+        final DataOutputStream data;
+        final Map<String, Integer> table = new HashMap<>();
+
+        Encoder(DataOutputStream data) {
+            this.data = data;
+        }
+
+        void vehicle(Vehicle v) throws IOException {
+            if (v instanceof Car) {
+                Car c = (Car) v;
+                header(CAR, v);
+                varint(zigzag(c.getNumDoors()));
+                string(c.getFuelType());
+            } else if (v instanceof Bike) {
+                Bike b = (Bike) v;
+                header(BIKE, v);
+                data.writeByte(b.hasSidecar() ? SIDECAR : 0);
+                string(b.getType());
+            } else if (v instanceof Truck) {
+                Truck t = (Truck) v;
+                header(TRUCK, v);
+                data.writeDouble(t.getPayloadCapacityKg());
+                data.writeByte(t.hasTrailer() ? TRAILER : 0);
+            } else if (v instanceof Motorcycle) {
+                Motorcycle m = (Motorcycle) v;
+                header(MOTORCYCLE, v);
+                varint(zigzag(m.getEngineCc()));
+                string(m.getCategory());
+            } else {
+                throw new IllegalArgumentException("Unsupported vehicle type: " + v.getClass().getName());
+            }
+        }
+
+        private void header(int tag, Vehicle v) throws IOException {
+            data.writeByte(tag);
+            bytes(v.getId());
+            string(v.getBrand());
+            string(v.getModel());
+            varint(zigzag(v.getYear()));
+        }
+
+        // Ids are unique, so they are written inline rather than through the table
+        private void bytes(String s) throws IOException {
+            if (s == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1L);
+            data.write(utf8);
+        }
+
+        private void string(String s) throws IOException {
+            if (s == null) {
+                varint(NULL_STRING);
+                return;
+            }
+            Integer index = table.get(s);
+            if (index != null) {
+                varint(FIRST_INDEX + (long) index);
+                return;
+            }
+            table.put(s, table.size());
+            varint(NEW_STRING);
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            data.write(utf8);
+        }
+
+        void varint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                data.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data.writeByte((int) value);
+        }
+
+        private static long zigzag(int n) {
+            return ((long) n << 1) ^ (n >> 31);
+        }
+    }
+
+    private static final class Decoder {
+        final DataInputStream data;
+        final List<String> table = new ArrayList<>();
+
+        Decoder(DataInputStream data) {
+            this.data = data;
+        }
+
+        // Next vehicle, or null at the END tag
+        Vehicle vehicle() throws IOException {
+            int tag = data.readUnsignedByte();
+            if (tag == END) return null;
+            String id = bytes();
+            String brand = string();
+            String model = string();
+            int year = int32();
+            switch (tag) {
+                case CAR:
+                    return new Car(id, brand, model, year, int32(), string());
+                case BIKE: {
+                    boolean sidecar = (data.readByte() & SIDECAR) != 0;
+                    return new Bike(id, brand, model, year, sidecar, string());
+                }
+                case TRUCK: {
+                    double payload = data.readDouble();
+                    return new Truck(id, brand, model, year, payload, (data.readByte() & TRAILER) != 0);
+                }
+                case MOTORCYCLE:
+                    return new Motorcycle(id, brand, model, year, int32(), string());
+                default:
+                    throw new IOException("Unknown snapshot record type " + tag);
+            }
+        }
+
+        private String bytes() throws IOException {
+            long n = varint();
+            return n == 0 ? null : utf8(n - 1);
+        }
+
+        private String string() throws IOException {
+            long ref = varint();
+            if (ref == NULL_STRING) return null;
+            if (ref == NEW_STRING) {
+                String s = utf8(varint());
+                table.add(s);
+                return s;
+            }
+            long index = ref - FIRST_INDEX;
+            if (index >= table.size()) throw new IOException("Snapshot string reference out of range: " + index);
+            return table.get((int) index);
+        }
+
+        private String utf8(long length) throws IOException {
+            if (length > Integer.MAX_VALUE - 8) throw new IOException("Snapshot string too long: " + length);
+            byte[] buf = new byte[(int) length];
+            data.readFully(buf);
+            return new String(buf, StandardCharsets.UTF_8);
+        }
+
+        private int int32() throws IOException {
+            long n = varint();
+            return (int) (n >>> 1) ^ -(int) (n & 1);
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = data.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint in snapshot");
+        }
+    }
+}
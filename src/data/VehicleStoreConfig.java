@@ -0,0 +1,50 @@
+package data;
+
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the VehicleRepository backing the Spring server.
+ * vehicles.store=jpa (default) uses SpringDataVehicleRepository;
+ * vehicles.store=memory serves from the concurrent in-memory VehicleDatabase;
+ * vehicles.store=columnar serves from the primitive-array ColumnarVehicleRepository;
+ * vehicles.store=mapped keeps vehicles off-heap in the memory-mapped files under
+ * vehicles.mapped.dir (see MappedVehicleRepository);
+ * vehicles.store=journal serves from memory and persists every change to the
+ * write-ahead log and snapshots under vehicles.journal.dir (see JournaledVehicleRepository).
+ */
+@Configuration
+public class VehicleStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.store", havingValue = "memory")
+    public VehicleRepository inMemoryVehicleRepository() {
+        return new VehicleDatabaseRepository();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "vehicles.store", havingValue = "columnar")
+    public VehicleRepository columnarVehicleRepository() {
+        return new ColumnarVehicleRepository();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "vehicles.store", havingValue = "mapped")
+    public VehicleRepository mappedVehicleRepository(@Value("${vehicles.mapped.dir:vehicle-store}") String dir) {
+        return new MappedVehicleRepository(Paths.get(dir));
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "vehicles.store", havingValue = "journal")
+    public VehicleRepository journaledVehicleRepository(
+            @Value("${vehicles.journal.dir:vehicle-journal}") String dir,
+            @Value("${vehicles.journal.fsync:ALWAYS}") JournaledVehicleRepository.FsyncPolicy fsync,
+            @Value("${vehicles.journal.fsync-interval-ms:" + JournaledVehicleRepository.DEFAULT_FSYNC_INTERVAL_MILLIS + "}") long fsyncIntervalMillis,
+            @Value("${vehicles.journal.compact-after-bytes:" + JournaledVehicleRepository.DEFAULT_COMPACT_AFTER_BYTES + "}") long compactAfterBytes) {
+        return new JournaledVehicleRepository(Paths.get(dir), fsync, fsyncIntervalMillis, compactAfterBytes);
+    }
+}
@@ -0,0 +1,49 @@
+package data;
+
+import models.Vehicle;
+
+/**
+ * The columns list views show (id, type, brand, model, year), read without the
+ * type-specific columns or a full Vehicle. type is the simple class name, e.g. "Car".
+ */
+public class VehicleSummary {
+    private final String id;
+    private final String type;
+    private final String brand;
+    private final String model;
+    private final int year;
+
+    public VehicleSummary(String id, String type, String brand, String model, int year) {
+        this.id = id;
+        this.type = type;
+        this.brand = brand;
+        this.model = model;
+        this.year = year;
+    }
+
+    /**
+     * For the JPQL constructor expression SELECT NEW data.VehicleSummary(v.id, TYPE(v), ...);
+     * Hibernate only looks at public constructors
+     */
+    public VehicleSummary(String id, Class<?> type, String brand, String model, int year) {
+        this(id, type.getSimpleName(), brand, model, year);
+    }
+
+    /**
+     * Summary of a vehicle already in memory
+     */
+    public static VehicleSummary of(Vehicle v) {
+        return new VehicleSummary(v.getId(), v.getClass().getSimpleName(), v.getBrand(), v.getModel(), v.getYear());
+    }
+
+    public String getId() { return id; }
+    public String getType() { return type; }
+    public String getBrand() { return brand; }
+    public String getModel() { return model; }
+    public int getYear() { return year; }
+
+    @Override
+    public String toString() {
+        return type + " " + id + ": " + year + " " + brand + " " + model;
+    }
+}
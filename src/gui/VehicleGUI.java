@@ -1,10 +1,9 @@
 package gui;
 
+import services.AsyncVehicleService;
 import services.VehicleService;
 import data.VehicleDatabaseRepository;
 import java.awt.*;
-import java.util.List;
-import java.util.ArrayList;
 import javax.swing.*;
 import javax.swing.plaf.nimbus.NimbusLookAndFeel;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -17,6 +16,7 @@ import models.*;
  */
 public class VehicleGUI extends JFrame {
     private final VehicleService service;
+    private final AsyncVehicleService async;
     private final DefaultTableModel tableModel;
     private JTable table;
     private JLabel statusLabel;
@@ -28,6 +28,7 @@ public class VehicleGUI extends JFrame {
     public VehicleGUI(VehicleService service) {
         super("Vehicle Manager");
         this.service = service;
+        this.async = new AsyncVehicleService(service, 1, 16);
         try { this.service.loadFromJson("vehicles.json"); } catch (Exception ignored) {}
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -90,11 +91,13 @@ public class VehicleGUI extends JFrame {
         JComboBox<String> typeFilter = new JComboBox<>(new String[]{"","Car","Bike","Truck","Motorcycle"});
         JButton filterBtn = new JButton("Filter");
         JButton clearFilterBtn = new JButton("Clear");
-        // Use JSON-based persistence only
+        // JSON persistence, plus the compact binary snapshot (vehicles.snap)
         JButton loadJsonBtn = new JButton("📂 Load JSON");
         JButton saveJsonBtn = new JButton("🧾 Save JSON");
+        JButton loadSnapBtn = new JButton("📂 Load Snapshot");
+        JButton saveSnapBtn = new JButton("💾 Save Snapshot");
         toolbar.add(new JLabel("Brand:")); toolbar.add(brandFilterField); toolbar.add(new JLabel("Type:")); toolbar.add(typeFilter); toolbar.add(filterBtn); toolbar.add(clearFilterBtn);
-        toolbar.addSeparator(); toolbar.add(loadJsonBtn); toolbar.add(saveJsonBtn);
+        toolbar.addSeparator(); toolbar.add(loadJsonBtn); toolbar.add(saveJsonBtn); toolbar.add(loadSnapBtn); toolbar.add(saveSnapBtn);
         toolbar.add(Box.createHorizontalStrut(10));
         JButton quickAdd = new JButton("➕ Add"); quickAdd.setToolTipText("Open Add form"); quickAdd.setMnemonic('A');
         JCheckBox showIds = new JCheckBox("Show IDs"); showIds.setToolTipText("Toggle ID column visibility");
@@ -255,6 +258,24 @@ public class VehicleGUI extends JFrame {
             });
             loadJsonBtn.setMnemonic('L');
         loadJsonBtn.addActionListener(e -> { try { service.loadFromJson("vehicles.json"); refreshTable(); statusLabel.setText("Loaded JSON"); } catch (Exception ignored) {} }); loadJsonBtn.setMnemonic('O');
+            saveSnapBtn.addActionListener(e -> {
+                try {
+                    service.saveToSnapshot("vehicles.snap");
+                    statusLabel.setText("Saved snapshot");
+                    highlightStatus();
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(this, "Error saving snapshot: " + ex.getMessage());
+                }
+            });
+            loadSnapBtn.addActionListener(e -> {
+                try {
+                    service.loadFromSnapshot("vehicles.snap");
+                    refreshTable();
+                    statusLabel.setText("Loaded snapshot");
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(this, "Error loading snapshot: " + ex.getMessage());
+                }
+            });
 
         // Delete action
         deleteBtn.addActionListener(e -> {
@@ -412,27 +433,17 @@ public class VehicleGUI extends JFrame {
     }
 
     private void refreshTable() {
-        tableModel.setRowCount(0);
-        List<Vehicle> list = new ArrayList<>();
-        try { list = service.getAllVehicles(); } catch (Exception ignored) {}
-        for (Vehicle v : list) {
-            String type = v.getClass().getSimpleName();
-            String details = "";
-            if (v instanceof Car) {
-                Car c = (Car) v;
-                details = "Doors:" + c.getNumDoors() + ", Fuel:" + c.getFuelType();
-            } else if (v instanceof Bike) {
-                Bike b = (Bike) v;
-                details = "Sidecar:" + b.hasSidecar() + ", Category:" + b.getType();
-            } else if (v instanceof Truck) {
-                Truck t = (Truck) v;
-                details = "Payload:" + t.getPayloadCapacityKg() + ", Trailer:" + t.hasTrailer();
-            } else if (v instanceof Motorcycle) {
-                Motorcycle m = (Motorcycle) v;
-                details = "CC:" + m.getEngineCc() + ", Cat:" + m.getCategory();
-            }
-            tableModel.addRow(new Object[]{v.getId(), type, v.getBrand(), v.getModel(), v.getYear(), details});
-        }
+        showVehicles(null, null);
+    }
+
+    // load off the event thread; the single async worker keeps refreshes in request order.
+    // Full vehicles are loaded because the Details column shows the type-specific fields
+    private void showVehicles(String brand, String type) {
+        async.filterVehicles(brand, type).whenComplete((list, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) { statusLabel.setText("Could not load vehicles: " + error.getMessage()); return; }
+            tableModel.setRowCount(0);
+            for (Vehicle v : list) addVehicleToTable(v);
+        }));
         // note: mouse listener for double-click is added once in the constructor
     }
 
@@ -446,18 +457,9 @@ public class VehicleGUI extends JFrame {
         tableModel.addRow(new Object[]{v.getId(), type, v.getBrand(), v.getModel(), v.getYear(), details});
     }
 
+    // brand is a case-insensitive substring and type an exact type name, both matched by the repository
     private void filterTable(String brandFilter, String typeFilter) {
-        brandFilter = brandFilter == null ? "" : brandFilter.trim();
-        typeFilter = typeFilter == null ? "" : typeFilter.trim();
-        if (brandFilter.isEmpty() && typeFilter.isEmpty()) { refreshTable(); return; }
-        tableModel.setRowCount(0);
-        List<Vehicle> list = new ArrayList<>();
-        try { list = service.getAllVehicles(); } catch (Exception ignored) {}
-        for (Vehicle v : list) {
-                boolean okBrand = brandFilter.isEmpty() || (v.getBrand() != null && v.getBrand().toLowerCase().contains(brandFilter.toLowerCase()));
-            boolean okType = (typeFilter == null || typeFilter.isEmpty()) || v.getClass().getSimpleName().equalsIgnoreCase(typeFilter);
-            if (okBrand && okType) { addVehicleToTable(v); }
-        }
+        showVehicles(brandFilter == null ? null : brandFilter.trim(), typeFilter == null ? null : typeFilter.trim());
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,221 @@
+package benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ch.qos.logback.classic.Logger;
+import data.ColumnarVehicleRepository;
+import data.MappedVehicleRepository;
+import data.VehicleDaoJdbc;
+import data.VehicleDatabaseRepository;
+import data.VehicleQuery;
+import data.VehicleRepository;
+import data.VehicleRepositoryJpa;
+import main.SpringBootApp;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * CRUD and query costs of the VehicleRepository implementations against a
+ * pre-seeded fleet. The database-backed stores use a private in-memory H2 database
+ * per trial, so each fork starts from the same state.
+ *
+ * Run with: mvn -Pjmh -DskipTests verify   (results in target/jmh-result.json)
+ * Narrow the matrix with e.g. -Djmh.args="VehicleRepositoryBenchmark -p store=jdbc -p fleetSize=1000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class VehicleRepositoryBenchmark {
+    private static final int SEED_CHUNK = 10_000;
+    private static final int BRANDS = 50;
+
+    @Param({"memory", "columnar", "mapped", "jdbc", "jpa", "spring"})
+    public String store;
+
+    @Param({"1000", "100000", "1000000"})
+    public int fleetSize;
+
+    VehicleRepository repo;
+    private String[] ids;
+    private final List<String> added = new ArrayList<>();
+    private ConfigurableApplicationContext spring;
+    private VehicleDaoJdbc jdbc;
+    private VehicleRepositoryJpa jpa;
+    private MappedVehicleRepository mapped;
+    private Path mappedDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        quietLogging();
+        String db = "jdbc:h2:mem:bench-" + store + "-" + fleetSize + ";DB_CLOSE_DELAY=-1";
+        switch (store) {
+            case "memory":
+                repo = new VehicleDatabaseRepository();
+                break;
+            case "columnar":
+                repo = new ColumnarVehicleRepository();
+                break;
+            case "mapped":
+                mappedDir = Files.createTempDirectory("bench-mapped");
+                repo = mapped = new MappedVehicleRepository(mappedDir);
+                break;
+            case "jdbc":
+                repo = jdbc = new VehicleDaoJdbc(db, "sa", "");
+                break;
+            case "jpa":
+                repo = jpa = new VehicleRepositoryJpa(db, "sa", "", Map.of("hibernate.show_sql", "false"));
+                break;
+            case "spring":
+                spring = new SpringApplicationBuilder(SpringBootApp.class)
+                        .web(WebApplicationType.NONE)
+                        .properties("spring.datasource.url=" + db, "vehicles.store=jpa",
+                                "spring.jpa.show-sql=false", "logging.level.root=WARN")
+                        .run();
+                repo = spring.getBean(VehicleRepository.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown store: " + store);
+        }
+        repo.init();
+        // start from exactly fleetSize rows regardless of any seed data from init()
+        List<String> existing = new ArrayList<>();
+        for (Vehicle v : repo.getAllVehicles()) existing.add(v.getId());
+        if (!existing.isEmpty()) repo.removeVehiclesByIds(existing);
+
+        ids = new String[fleetSize];
+        List<Vehicle> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < fleetSize; i++) {
+            Vehicle v = vehicle(i);
+            ids[i] = v.getId();
+            chunk.add(v);
+            if (chunk.size() == SEED_CHUNK) {
+                repo.addVehicles(chunk);
+                chunk = new ArrayList<>(SEED_CHUNK);
+            }
+        }
+        if (!chunk.isEmpty()) repo.addVehicles(chunk);
+    }
+
+    // drop what add() inserted so every iteration sees the same fleet size
+    @TearDown(Level.Iteration)
+    public void removeAdded() throws Exception {
+        synchronized (added) {
+            if (!added.isEmpty()) repo.removeVehiclesByIds(new ArrayList<>(added));
+            added.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (spring != null) spring.close();
+        if (jdbc != null) jdbc.close();
+        if (jpa != null) jpa.close();
+        if (mapped != null) {
+            mapped.close();
+            for (File f : mappedDir.toFile().listFiles()) f.delete();
+            mappedDir.toFile().delete();
+        }
+    }
+
+    /**
+     * A vehicle inserted just before each remove() invocation
+     */
+    @State(Scope.Thread)
+    public static class Victim {
+        String id;
+
+        @Setup(Level.Invocation)
+        public void insert(VehicleRepositoryBenchmark bench) throws Exception {
+            Car c = new Car("Victim", "V", 2020, 4, "Petrol");
+            bench.repo.addVehicle(c);
+            id = c.getId();
+        }
+    }
+
+    @Benchmark
+    public String add() throws Exception {
+        Car c = new Car("Added", "A", 2024, 4, "Electric");
+        repo.addVehicle(c);
+        synchronized (added) {
+            added.add(c.getId());
+        }
+        return c.getId();
+    }
+
+    @Benchmark
+    public Vehicle getById() throws Exception {
+        return repo.getVehicleById(randomId());
+    }
+
+    // rewrites a random car (every third seeded vehicle) as a car, so JPA never sees a type change
+    @Benchmark
+    public boolean update() throws Exception {
+        String id = ids[3 * ThreadLocalRandom.current().nextInt((ids.length + 2) / 3)];
+        return repo.updateVehicle(new Car(id, "Updated", "U", 2023, 2, "Diesel"));
+    }
+
+    @Benchmark
+    public boolean remove(Victim victim) throws Exception {
+        return repo.removeVehicleById(victim.id);
+    }
+
+    @Benchmark
+    public List<Vehicle> getAll() throws Exception {
+        return repo.getAllVehicles();
+    }
+
+    // selective filter: one brand out of BRANDS, one type out of three
+    @Benchmark
+    public List<Vehicle> filter() throws Exception {
+        return repo.findVehicles(VehicleQuery.of("brand" + ThreadLocalRandom.current().nextInt(BRANDS), "truck"));
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static Vehicle vehicle(int i) {
+        String brand = "Brand" + (i % BRANDS);
+        switch (i % 3) {
+            case 0: return new Car(brand, "C" + i, 2000 + i % 25, 4, "Petrol");
+            case 1: return new Truck(brand, "T" + i, 2000 + i % 25, 1000 + i % 5000, i % 2 == 0);
+            default: return new Motorcycle(brand, "M" + i, 2000 + i % 25, 125 + i % 1000, "Sports");
+        }
+    }
+
+    // Hibernate and H2 log every statement at DEBUG without a Spring logging config
+    private static void quietLogging() {
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.WARN);
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.VehicleDatabase;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+/**
+ * Save and load time of the in-memory database in JSON versus the binary snapshot
+ * format. The size of each file is printed once per trial.
+ *
+ * Run with: mvn -Pjmh -DskipTests verify -Djmh.args=VehicleSnapshotBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class VehicleSnapshotBenchmark {
+    private static final int BRANDS = 50;
+
+    @Param({"json", "snapshot"})
+    public String format;
+
+    @Param({"10000", "100000", "1000000"})
+    public int fleetSize;
+
+    private VehicleDatabase source;
+    private VehicleDatabase target;
+    private Path file;
+    private Path scratch;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        source = new VehicleDatabase();
+        for (int i = 0; i < fleetSize; i++) source.addVehicle(vehicle(i));
+        file = Files.createTempFile("bench-vehicles", "." + format);
+        scratch = Files.createTempFile("bench-vehicles-save", "." + format);
+        save(file);
+        System.out.println(format + " file for " + fleetSize + " vehicles: " + Files.size(file) + " bytes");
+        // the database reports every save and load on stdout
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    // load into an empty database so clearing the previous load is not measured
+    @Setup(Level.Invocation)
+    public void emptyTarget() {
+        target = new VehicleDatabase();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(scratch);
+    }
+
+    @Benchmark
+    public long save() throws Exception {
+        save(scratch);
+        return Files.size(scratch);
+    }
+
+    @Benchmark
+    public int load() throws Exception {
+        if (format.equals("json")) target.loadFromJson(file.toString());
+        else target.loadFromSnapshot(file.toString());
+        return target.getTotalCount();
+    }
+
+    private void save(Path path) throws Exception {
+        if (format.equals("json")) source.saveToJson(path.toString());
+        else source.saveToSnapshot(path.toString());
+    }
+
+    private static Vehicle vehicle(int i) {
+        String brand = "Brand" + (i % BRANDS);
+        int year = 2000 + i % 25;
+        switch (i % 4) {
+            case 0: return new Car(brand, "C" + i % 200, year, 4, "Petrol");
+            case 1: return new Bike(brand, "B" + i % 200, year, false, "Road");
+            case 2: return new Truck(brand, "T" + i % 200, year, 1000 + i % 5000, i % 2 == 0);
+            default: return new Motorcycle(brand, "M" + i % 200, year, 125 + i % 1000, "Sports");
+        }
+    }
+}
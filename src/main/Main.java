@@ -36,6 +36,7 @@ public class Main {
         String dbPass = "";
         boolean createDb = false;
         String adminToken = System.getenv("ADMIN_TOKEN");
+        String journalDir = null;
         for (String a : args) {
             if (a.equalsIgnoreCase("--server")) startServer = true;
             if (a.equalsIgnoreCase("--gui")) startGui = true;
@@ -50,6 +51,7 @@ public class Main {
             if (a.equalsIgnoreCase("--create-db")) createDb = true;
             if (a.startsWith("--admin-token=")) adminToken = a.substring("--admin-token=".length());
             if (a.equalsIgnoreCase("--start-h2")) startH2Console = true;
+            if (a.startsWith("--journal=")) journalDir = a.substring("--journal=".length());
         }
 
         // Optional: start server and/or GUI with service-backed repository
@@ -94,6 +96,9 @@ public class Main {
             repo = new data.VehicleRepositoryJpa(jdbcUrl, dbUser, dbPass);
         } else if (startServer && useJdbc) {
             repo = new data.VehicleDaoJdbc(jdbcUrl, dbUser, dbPass);
+        } else if (journalDir != null) {
+            // in-memory store made durable by a write-ahead log; replaces the JSON rewrite on every change
+            repo = new data.JournaledVehicleRepository(java.nio.file.Paths.get(journalDir));
         } else {
             repo = new data.VehicleDatabaseRepository();
         }
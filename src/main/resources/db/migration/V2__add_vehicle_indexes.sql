@@ -0,0 +1,4 @@
+-- Flyway migration: indexes backing the filtered vehicle queries
+CREATE INDEX IF NOT EXISTS idx_vehicles_brand ON vehicles(brand);
+CREATE INDEX IF NOT EXISTS idx_vehicles_type ON vehicles(vehicle_type);
+CREATE INDEX IF NOT EXISTS idx_vehicles_year ON vehicles(manufacture_year);
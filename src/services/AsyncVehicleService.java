@@ -0,0 +1,153 @@
+package services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import data.FleetStatistics;
+import data.FleetSummary;
+import data.VehiclePage;
+import data.VehicleSummary;
+import models.Vehicle;
+
+/**
+ * CompletableFuture-based front of VehicleService for callers that must not block on
+ * repository I/O (async controller endpoints, the Swing event thread).
+ *
+ * Calls run on a dedicated pool of a fixed number of threads fed by a bounded queue.
+ * When the queue is full a call is not queued and not run on the caller's thread: the
+ * returned future fails at once with RejectedExecutionException, so a caller can shed
+ * load (the REST API answers 503) instead of piling up work it cannot finish.
+ * Results and failures of VehicleService are passed through unchanged.
+ */
+@Service
+public class AsyncVehicleService implements AutoCloseable {
+    static final int DEFAULT_THREADS = 10;
+    static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private final VehicleService service;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param threads workers making VehicleService calls; for a database store there is
+     *                little point in more than the connection pool holds
+     * @param queueCapacity calls that may wait for a worker before new ones are rejected
+     */
+    @Autowired
+    public AsyncVehicleService(VehicleService service,
+                               @Value("${vehicles.async.threads:" + DEFAULT_THREADS + "}") int threads,
+                               @Value("${vehicles.async.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}") int queueCapacity) {
+        this.service = service;
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "vehicle-async-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<Vehicle> getVehicleById(String id) { return submit(() -> service.getVehicleById(id)); }
+    public CompletableFuture<List<Vehicle>> getAllVehicles() { return submit(service::getAllVehicles); }
+    public CompletableFuture<List<Vehicle>> filterVehicles(String brand, String type) { return submit(() -> service.filterVehicles(brand, type)); }
+    public CompletableFuture<List<VehicleSummary>> filterVehicleSummaries(String brand, String type) { return submit(() -> service.filterVehicleSummaries(brand, type)); }
+    public CompletableFuture<VehiclePage<Vehicle>> getVehiclePage(String brand, String type, int page, int limit, String afterId) {
+        return submit(() -> service.getVehiclePage(brand, type, page, limit, afterId));
+    }
+    public CompletableFuture<VehiclePage<VehicleSummary>> getVehicleSummaryPage(String brand, String type, int page, int limit, String afterId) {
+        return submit(() -> service.getVehicleSummaryPage(brand, type, page, limit, afterId));
+    }
+    public CompletableFuture<FleetStatistics> getFleetStatistics() { return submit(service::getFleetStatistics); }
+    public CompletableFuture<FleetSummary> getFleetSummary() { return submit(service::getFleetSummary); }
+
+    public CompletableFuture<Void> addVehicle(Vehicle v) { return submit(() -> { service.addVehicle(v); return null; }); }
+    public CompletableFuture<Boolean> updateVehicle(Vehicle v) { return submit(() -> service.updateVehicle(v)); }
+    public CompletableFuture<Boolean> removeVehicleById(String id) { return submit(() -> service.removeVehicleById(id)); }
+    public CompletableFuture<Void> addVehicles(List<Vehicle> vs) { return submit(() -> { service.addVehicles(vs); return null; }); }
+    public CompletableFuture<Integer> updateVehicles(List<Vehicle> vs) { return submit(() -> service.updateVehicles(vs)); }
+    public CompletableFuture<Integer> removeVehiclesByIds(Collection<String> ids) { return submit(() -> service.removeVehiclesByIds(ids)); }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) return; // cancelled while queued
+                try {
+                    result.complete(call.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Point-in-time executor counters
+     */
+    public static class Stats {
+        private final int threads;
+        private final int active;
+        private final int queued;
+        private final int queueCapacity;
+        private final long completed;
+        private final long rejected;
+
+        Stats(int threads, int active, int queued, int queueCapacity, long completed, long rejected) {
+            this.threads = threads;
+            this.active = active;
+            this.queued = queued;
+            this.queueCapacity = queueCapacity;
+            this.completed = completed;
+            this.rejected = rejected;
+        }
+
+        public int getThreads() { return threads; }
+        /** Calls running right now */
+        public int getActive() { return active; }
+        /** Calls waiting for a worker */
+        public int getQueued() { return queued; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public long getCompleted() { return completed; }
+        /** Calls turned away because the queue was full */
+        public long getRejected() { return rejected; }
+
+        @Override
+        public String toString() {
+            return String.format("threads=%d active=%d queued=%d/%d completed=%d rejected=%d",
+                    threads, active, queued, queueCapacity, completed, rejected);
+        }
+    }
+
+    public Stats getStats() {
+        int queued = executor.getQueue().size();
+        return new Stats(executor.getMaximumPoolSize(), executor.getActiveCount(), queued,
+                queued + executor.getQueue().remainingCapacity(), executor.getCompletedTaskCount(), rejected.sum());
+    }
+
+    /**
+     * Stop accepting calls and let queued ones finish
+     */
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
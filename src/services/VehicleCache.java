@@ -0,0 +1,242 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import models.Vehicle;
+
+/**
+ * Read-through cache used by VehicleService in front of its repository.
+ *
+ * Vehicles are kept by id in an access-ordered LinkedHashMap, so the least recently
+ * used entry is evicted once maxSize is reached, and every entry expires ttl after it
+ * was loaded. The full list from getAllVehicles() is cached as a single entry with the
+ * same TTL; its vehicles count against maxSize too, so a list larger than maxSize is
+ * not cached and caching a smaller one evicts vehicles by id to make room. Writes
+ * invalidate the affected ids plus the list; a load that overlaps an invalidation is
+ * returned to its caller but not stored, so a stale read can never outlive the write
+ * that replaced it.
+ *
+ * A cached vehicle is the same instance for every caller, so callers must not change
+ * it; an update builds a new Vehicle and hands that to the service.
+ */
+public class VehicleCache {
+
+    /**
+     * Repository call made on a miss
+     */
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    /**
+     * Point-in-time cache counters
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+        private final int size;
+        private final int maxSize;
+
+        Stats(long hits, long misses, long evictions, long expirations, long invalidations, int size, int maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        /** Entries dropped because the cache was full */
+        public long getEvictions() { return evictions; }
+        /** Entries dropped because their TTL ran out */
+        public long getExpirations() { return expirations; }
+        /** Entries dropped by writes */
+        public long getInvalidations() { return invalidations; }
+        /** Vehicles currently cached, by id plus those in the cached list */
+        public int getSize() { return size; }
+        public int getMaxSize() { return maxSize; }
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : hits / (double) total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d expirations=%d invalidations=%d size=%d/%d",
+                    hits, misses, getHitRate(), evictions, expirations, invalidations, size, maxSize);
+        }
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        final long expiresAt;
+
+        Entry(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    // guarded by this: access order makes get() a structural change
+    private final LinkedHashMap<String, Entry<Vehicle>> byId;
+    private Entry<List<Vehicle>> all;
+    // bumped by every invalidation; loads only store their result if it has not moved
+    private long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxSize vehicles kept, by id and in the full list; 0 disables caching
+     * @param ttl time an entry stays valid after it was loaded
+     */
+    public VehicleCache(int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize < 0) throw new IllegalArgumentException("maxSize must be >= 0");
+        if (ttl <= 0) throw new IllegalArgumentException("ttl must be > 0");
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.byId = new LinkedHashMap<String, Entry<Vehicle>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<Vehicle>> eldest) {
+                if (size() + allSize() <= VehicleCache.this.maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Cached vehicle for id, loading it on a miss. Absent vehicles are not cached.
+     */
+    public Vehicle get(String id, Loader<Vehicle> loader) throws Exception {
+        if (!isEnabled() || id == null) return loader.load();
+        long seen;
+        synchronized (this) {
+            Entry<Vehicle> e = byId.get(id);
+            if (e != null) {
+                if (e.expiresAt - System.nanoTime() > 0) {
+                    hits.increment();
+                    return e.value;
+                }
+                byId.remove(id);
+                expirations.increment();
+            }
+            seen = version;
+        }
+        misses.increment();
+        Vehicle v = loader.load();
+        if (v != null) {
+            synchronized (this) {
+                if (version == seen) byId.put(id, new Entry<>(v, System.nanoTime() + ttlNanos));
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Cached copy of the full vehicle list, loading it on a miss. A list with more than
+     * maxSize vehicles is returned but not cached.
+     */
+    public List<Vehicle> getAll(Loader<List<Vehicle>> loader) throws Exception {
+        if (!isEnabled()) return loader.load();
+        long seen;
+        synchronized (this) {
+            if (all != null) {
+                if (all.expiresAt - System.nanoTime() > 0) {
+                    hits.increment();
+                    return new ArrayList<>(all.value);
+                }
+                all = null;
+                expirations.increment();
+            }
+            seen = version;
+        }
+        misses.increment();
+        List<Vehicle> list = loader.load();
+        if (list.size() > maxSize) return list;
+        synchronized (this) {
+            if (version == seen) {
+                all = new Entry<>(new ArrayList<>(list), System.nanoTime() + ttlNanos);
+                evictFor(list.size());
+            }
+        }
+        return list;
+    }
+
+    // guarded by this: drop least recently used vehicles until listSize more fit
+    private void evictFor(int listSize) {
+        Iterator<String> eldest = byId.keySet().iterator();
+        while (byId.size() + listSize > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // guarded by this
+    private int allSize() {
+        return all == null ? 0 : all.value.size();
+    }
+
+    /**
+     * Drop one vehicle and the cached list after a write to id
+     */
+    public synchronized void invalidate(String id) {
+        version++;
+        if (id != null && byId.remove(id) != null) invalidations.increment();
+        dropAll();
+    }
+
+    public synchronized void invalidate(Collection<String> ids) {
+        version++;
+        for (String id : ids) {
+            if (id != null && byId.remove(id) != null) invalidations.increment();
+        }
+        dropAll();
+    }
+
+    public synchronized void invalidateAll() {
+        version++;
+        invalidations.add(byId.size());
+        byId.clear();
+        dropAll();
+    }
+
+    // guarded by this
+    private void dropAll() {
+        if (all != null) {
+            all = null;
+            invalidations.increment();
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (this) {
+            size = byId.size() + allSize();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size, maxSize);
+    }
+}
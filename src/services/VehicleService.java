@@ -1,42 +1,158 @@
 package services;
 
+import data.FleetStatistics;
+import data.FleetSummary;
+import data.VehiclePage;
+import data.VehicleQuery;
 import data.VehicleRepository;
+import data.VehicleSummary;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import models.Vehicle;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 /**
  * Service layer to abstract business logic from controllers and UI.
  */
 @Service
 public class VehicleService {
+    static final int DEFAULT_CACHE_SIZE = 10_000;
+    static final long DEFAULT_CACHE_TTL_SECONDS = 60;
+
     private final VehicleRepository repo;
+    private final VehicleCache cache;
 
-    @Autowired
     public VehicleService(VehicleRepository repo) {
+        this(repo, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_SECONDS);
+    }
+
+    /**
+     * @param cacheSize vehicles cached in front of the repository, by id and in the full list; 0 turns the cache off
+     * @param cacheTtlSeconds how long a cached read stays valid
+     */
+    @Autowired
+    public VehicleService(VehicleRepository repo,
+                          @Value("${vehicles.cache.size:" + DEFAULT_CACHE_SIZE + "}") int cacheSize,
+                          @Value("${vehicles.cache.ttl-seconds:" + DEFAULT_CACHE_TTL_SECONDS + "}") long cacheTtlSeconds) {
         this.repo = repo;
+        this.cache = new VehicleCache(cacheSize, cacheTtlSeconds, TimeUnit.SECONDS);
         try { this.repo.init(); } catch (Exception ignored) {}
     }
 
-    public void addVehicle(Vehicle v) throws Exception { repo.addVehicle(v); }
-    public boolean removeVehicleById(String id) throws Exception { return repo.removeVehicleById(id); }
-    public boolean updateVehicle(Vehicle v) throws Exception { return repo.updateVehicle(v); }
-    public List<Vehicle> getAllVehicles() throws Exception { return repo.getAllVehicles(); }
-    public Vehicle getVehicleById(String id) throws Exception { return repo.getVehicleById(id); }
+    // writes go straight to the repository and then invalidate what they touched
+    public void addVehicle(Vehicle v) throws Exception {
+        try { repo.addVehicle(v); } finally { cache.invalidate(v.getId()); }
+    }
+    public boolean removeVehicleById(String id) throws Exception {
+        try { return repo.removeVehicleById(id); } finally { cache.invalidate(id); }
+    }
+    public boolean updateVehicle(Vehicle v) throws Exception {
+        try { return repo.updateVehicle(v); } finally { cache.invalidate(v.getId()); }
+    }
+    public List<Vehicle> getAllVehicles() throws Exception { return cache.getAll(repo::getAllVehicles); }
+    public Vehicle getVehicleById(String id) throws Exception { return cache.get(id, () -> repo.getVehicleById(id)); }
+    public void addVehicles(List<Vehicle> vs) throws Exception {
+        try { repo.addVehicles(vs); } finally { cache.invalidate(ids(vs)); }
+    }
+    public int updateVehicles(List<Vehicle> vs) throws Exception {
+        try { return repo.updateVehicles(vs); } finally { cache.invalidate(ids(vs)); }
+    }
+    public int removeVehiclesByIds(Collection<String> ids) throws Exception {
+        try { return repo.removeVehiclesByIds(ids); } finally { cache.invalidate(ids); }
+    }
+
+    /**
+     * Fleet size, speed figures and per-type/per-brand counts. The in-memory store keeps
+     * these up to date on every write; other stores are summarized in one pass over
+     * the (cached) full list.
+     */
+    public FleetSummary getFleetSummary() throws Exception {
+        if (repo instanceof data.VehicleDatabaseRepository) return ((data.VehicleDatabaseRepository) repo).getSummary();
+        if (repo instanceof data.JournaledVehicleRepository) return ((data.JournaledVehicleRepository) repo).getSummary();
+        return FleetSummary.of(getAllVehicles());
+    }
+
+    /**
+     * Counts by type, brand and year, truck payload and motorcycle engine sizes,
+     * aggregated by the repository rather than from the full vehicle list
+     */
+    public FleetStatistics getFleetStatistics() throws Exception { return repo.getFleetStatistics(); }
+
+    /**
+     * Hit/miss/eviction counters of the read-through cache
+     */
+    public VehicleCache.Stats getCacheStats() { return cache.getStats(); }
+
+    /**
+     * Counters of the JPA second-level and query caches; disabled for non-JPA stores
+     */
+    public data.EntityCacheStats getEntityCacheStats() {
+        if (repo instanceof data.SpringDataVehicleRepository) return ((data.SpringDataVehicleRepository) repo).getCacheStatistics();
+        if (repo instanceof data.VehicleRepositoryJpa) return ((data.VehicleRepositoryJpa) repo).getCacheStatistics();
+        return data.EntityCacheStats.disabled();
+    }
+
+    private static List<String> ids(List<Vehicle> vs) {
+        List<String> ids = new ArrayList<>(vs.size());
+        for (Vehicle v : vs) ids.add(v.getId());
+        return ids;
+    }
 
-    // search with case-insensitive substring for brand and exact type match
+    // search with case-insensitive substring for brand and exact type match;
+    // the repository filters in SQL or via its indexes
     public List<Vehicle> filterVehicles(String brandFilter, String typeFilter) throws Exception {
-        String b = brandFilter == null ? "" : brandFilter.trim().toLowerCase();
-        String t = typeFilter == null ? "" : typeFilter.trim();
-        List<Vehicle> list = getAllVehicles();
-        List<Vehicle> out = new ArrayList<>();
-        for (Vehicle v : list) {
-            boolean okBrand = b.isEmpty() || (v.getBrand() != null && v.getBrand().toLowerCase().contains(b));
-            boolean okType = t.isEmpty() || v.getClass().getSimpleName().equalsIgnoreCase(t);
-            if (okBrand && okType) out.add(v);
+        return repo.findVehicles(VehicleQuery.of(brandFilter, typeFilter));
+    }
+
+    /**
+     * Same selection as filterVehicles, but only the columns list views show; the
+     * repository reads them without loading full vehicles, and the cache is bypassed
+     */
+    public List<VehicleSummary> filterVehicleSummaries(String brandFilter, String typeFilter) throws Exception {
+        return repo.findVehicleSummaries(VehicleQuery.of(brandFilter, typeFilter));
+    }
+
+    /**
+     * Same selection as filterVehicles, handed to sink one vehicle at a time
+     */
+    public void streamVehicles(String brandFilter, String typeFilter, Consumer<? super Vehicle> sink) throws Exception {
+        repo.streamVehicles(VehicleQuery.of(brandFilter, typeFilter), sink);
+    }
+
+    /**
+     * Fetch one id-ordered page. Asks the repository for limit + 1 rows so the
+     * presence of a further page is known without counting the whole fleet.
+     */
+    public VehiclePage<Vehicle> getVehiclePage(String brandFilter, String typeFilter, int page, int limit, String afterId) throws Exception {
+        return window(repo.findVehicles(pageQuery(brandFilter, typeFilter, page, limit, afterId)), limit, Vehicle::getId);
+    }
+
+    /**
+     * getVehiclePage with VehicleSummary rows
+     */
+    public VehiclePage<VehicleSummary> getVehicleSummaryPage(String brandFilter, String typeFilter, int page, int limit, String afterId) throws Exception {
+        return window(repo.findVehicleSummaries(pageQuery(brandFilter, typeFilter, page, limit, afterId)), limit, VehicleSummary::getId);
+    }
+
+    // rows holds up to limit + 1 entries; the extra one only signals a further page
+    private static <T> VehiclePage<T> window(List<T> rows, int limit, Function<T, String> idOf) {
+        String next = null;
+        if (rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            next = idOf.apply(rows.get(limit - 1));
         }
-        return out;
+        return new VehiclePage<>(rows, limit, next);
+    }
+
+    private static VehicleQuery pageQuery(String brandFilter, String typeFilter, int page, int limit, String afterId) {
+        return VehicleQuery.of(brandFilter, typeFilter)
+                .afterId(afterId)
+                .offset(Math.multiplyExact(page, limit))
+                .limit(limit + 1);
     }
 
     // convenience save/load if repository supports in-memory JSON
@@ -47,5 +163,15 @@ public class VehicleService {
     public void loadFromJson(String filename) throws Exception {
         try { if (repo instanceof data.VehicleDatabaseRepository) { ((data.VehicleDatabaseRepository) repo).loadFromJson(filename); } }
         catch (Exception e) { throw e; }
+        finally { cache.invalidateAll(); }
+    }
+
+    // binary snapshot counterparts of the JSON methods (see data.VehicleSnapshot)
+    public void saveToSnapshot(String filename) throws Exception {
+        if (repo instanceof data.VehicleDatabaseRepository) { ((data.VehicleDatabaseRepository) repo).saveToSnapshot(filename); }
+    }
+    public void loadFromSnapshot(String filename) throws Exception {
+        try { if (repo instanceof data.VehicleDatabaseRepository) { ((data.VehicleDatabaseRepository) repo).loadFromSnapshot(filename); } }
+        finally { cache.invalidateAll(); }
     }
 }
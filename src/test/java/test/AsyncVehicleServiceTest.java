@@ -0,0 +1,85 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import data.VehicleDatabaseRepository;
+import models.Car;
+import models.Vehicle;
+import services.AsyncVehicleService;
+import services.VehicleService;
+
+public class AsyncVehicleServiceTest {
+
+    // holds every read until released, so calls pile up in the executor
+    static class GatedRepository extends VehicleDatabaseRepository {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Vehicle getVehicleById(String id) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getVehicleById(id);
+        }
+    }
+
+    @Test
+    public void resultsAndFailuresArePassedThrough() throws Exception {
+        try (AsyncVehicleService async = new AsyncVehicleService(new VehicleService(new VehicleDatabaseRepository(), 0, 60), 2, 10)) {
+            async.addVehicles(Arrays.asList(
+                    new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"),
+                    new Car("c2", "Honda", "Civic", 2020, 4, "Petrol"))).get(5, TimeUnit.SECONDS);
+            assertEquals("Honda", async.getVehicleById("c2").get(5, TimeUnit.SECONDS).getBrand());
+            assertEquals(1, async.filterVehicles("toy", null).get(5, TimeUnit.SECONDS).size());
+            assertTrue(async.removeVehicleById("c1").get(5, TimeUnit.SECONDS));
+            assertEquals(1, async.getAllVehicles().get(5, TimeUnit.SECONDS).size());
+
+            try {
+                async.getVehiclePage(null, null, Integer.MAX_VALUE, 10, null).get(5, TimeUnit.SECONDS);
+                fail("expected the page offset to overflow");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof ArithmeticException);
+            }
+        }
+    }
+
+    @Test
+    public void fullQueueRejectsInsteadOfBlocking() throws Exception {
+        GatedRepository repo = new GatedRepository();
+        repo.addVehicle(new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"));
+        try (AsyncVehicleService async = new AsyncVehicleService(new VehicleService(repo, 0, 60), 1, 1)) {
+            CompletableFuture<Vehicle> running = async.getVehicleById("c1");
+            assertTrue(repo.entered.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Vehicle> queued = async.getVehicleById("c1");
+            CompletableFuture<Vehicle> rejected = async.getVehicleById("c1");
+
+            assertTrue(rejected.isCompletedExceptionally());
+            try {
+                rejected.get();
+                fail("expected a rejection");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof RejectedExecutionException);
+            }
+            AsyncVehicleService.Stats stats = async.getStats();
+            assertEquals(1, stats.getQueued());
+            assertEquals(1, stats.getRejected());
+
+            repo.release.countDown();
+            assertEquals("c1", running.get(5, TimeUnit.SECONDS).getId());
+            assertEquals("c1", queued.get(5, TimeUnit.SECONDS).getId());
+        }
+    }
+}
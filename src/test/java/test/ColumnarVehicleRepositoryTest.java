@@ -0,0 +1,198 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import data.ColumnarVehicleRepository;
+import data.FleetStatistics;
+import data.VehicleDatabaseRepository;
+import data.VehicleQuery;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+public class ColumnarVehicleRepositoryTest {
+
+    @Test
+    public void roundTripsEveryType() {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        repo.addVehicle(new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"));
+        repo.addVehicle(new Bike("b1", "Giant", "Talon", 2021, true, "Mountain"));
+        repo.addVehicle(new Truck("t1", "Volvo", "FH16", 2018, 25000.5, true));
+        repo.addVehicle(new Motorcycle("m1", null, "Monster", 2020, 937, "Naked"));
+
+        Car car = (Car) repo.getVehicleById("c1");
+        assertEquals("Toyota", car.getBrand());
+        assertEquals(4, car.getNumDoors());
+        assertEquals("Hybrid", car.getFuelType());
+        Bike bike = (Bike) repo.getVehicleById("b1");
+        assertTrue(bike.hasSidecar());
+        assertEquals("Mountain", bike.getType());
+        Truck truck = (Truck) repo.getVehicleById("t1");
+        assertEquals(25000.5, truck.getPayloadCapacityKg(), 0.0);
+        assertTrue(truck.hasTrailer());
+        Motorcycle moto = (Motorcycle) repo.getVehicleById("m1");
+        assertNull(moto.getBrand());
+        assertEquals(937, moto.getEngineCc());
+        assertEquals("Naked", moto.getCategory());
+        assertNull(repo.getVehicleById("missing"));
+    }
+
+    @Test
+    public void updateCanChangeTypeAndClearsOldColumns() {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        repo.addVehicle(new Truck("x", "MAN", "TGX", 2015, 18000, true));
+        assertTrue(repo.updateVehicle(new Car("x", "MAN", "Van", 2016, 2, "Diesel")));
+        assertFalse(repo.updateVehicle(new Car("y", "MAN", "Van", 2016, 2, "Diesel")));
+
+        assertEquals(1, repo.size());
+        Car car = (Car) repo.getVehicleById("x");
+        assertEquals(2016, car.getYear());
+        assertEquals(0L, (long) repo.getFleetStatistics().getTruckPayload().getCount());
+    }
+
+    @Test
+    public void statisticsHandleOutlierYearsAndEngineSizes() {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        repo.addVehicle(new Car("c1", "Fiat", "500", Integer.MAX_VALUE, 3, "Petrol"));
+        repo.addVehicle(new Car("c2", "Fiat", "500", -5, 3, "Petrol"));
+        repo.addVehicle(new Car("c3", "Fiat", "500", 2020, 3, "Petrol"));
+        repo.addVehicle(new Motorcycle("m1", "Honda", "Big", 2020, Integer.MAX_VALUE, "Sports"));
+        repo.addVehicle(new Motorcycle("m2", "Honda", "Odd", 2020, Integer.MIN_VALUE, "Sports"));
+
+        FleetStatistics stats = repo.getFleetStatistics();
+        assertEquals(5, stats.getTotalCount());
+        assertEquals(1L, (long) stats.getCountsByYear().get(Integer.MAX_VALUE));
+        assertEquals(1L, (long) stats.getCountsByYear().get(-5));
+        assertEquals(3L, (long) stats.getCountsByYear().get(2020));
+        assertEquals(2, stats.getEngineCcDistribution().size());
+    }
+
+    @Test
+    public void matchesInMemoryStoreUnderRandomChurn() {
+        ColumnarVehicleRepository columnar = new ColumnarVehicleRepository();
+        VehicleDatabaseRepository reference = new VehicleDatabaseRepository();
+        Random rnd = new Random(42);
+        List<String> live = new ArrayList<>();
+        // enough rows to grow the columns and rehash the id table several times
+        for (int i = 0; i < 6000; i++) {
+            if (!live.isEmpty() && rnd.nextInt(4) == 0) {
+                String id = live.remove(rnd.nextInt(live.size()));
+                assertTrue(columnar.removeVehicleById(id));
+                reference.removeVehicleById(id);
+            } else {
+                Vehicle v = vehicle("v" + i, i);
+                columnar.addVehicle(v);
+                reference.addVehicle(v);
+                live.add(v.getId());
+            }
+        }
+        assertFalse(columnar.removeVehicleById("v-missing"));
+        assertEquals(live.size(), columnar.size());
+        for (String id : live) assertEquals(id, columnar.getVehicleById(id).getId());
+
+        assertEquals(ids(reference.getAllVehicles(), true), ids(columnar.getAllVehicles(), true));
+        VehicleQuery[] queries = {
+            VehicleQuery.of("brand1", null),
+            VehicleQuery.of(null, "truck").year(2003),
+            VehicleQuery.of("BRAND", "motorcycle"),
+            new VehicleQuery().limit(25).offset(40),
+            VehicleQuery.of("brand2", "car").afterId("v3").limit(10),
+            VehicleQuery.of(null, "boat"),
+        };
+        for (VehicleQuery q : queries) {
+            boolean sort = !q.isPaged();
+            assertEquals(ids(reference.findVehicles(q), sort), ids(columnar.findVehicles(q), sort));
+        }
+    }
+
+    @Test
+    public void unsupportedTypeLeavesNoRow() {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        repo.addVehicle(new Car("c1", "Opel", "Astra", 2016, 5, "Petrol"));
+        Vehicle odd = new Vehicle("c1", "B", "M", 2000) {
+            @Override public void start() {}
+            @Override public void stop() {}
+            @Override public double getMaxSpeed() { return 0; }
+        };
+        Vehicle oddNew = new Vehicle("odd", "B", "M", 2000) {
+            @Override public void start() {}
+            @Override public void stop() {}
+            @Override public double getMaxSpeed() { return 0; }
+        };
+        for (Vehicle v : new Vehicle[]{odd, oddNew}) {
+            try {
+                repo.addVehicles(Arrays.asList(new Car("c2", "Fiat", "Panda", 2014, 5, "Petrol"), v));
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                // nothing of the batch is stored
+            }
+        }
+        assertEquals(1, repo.size());
+        assertEquals(1, repo.getAllVehicles().size());
+        assertNull(repo.getVehicleById("c2"));
+        assertEquals("Astra", repo.getVehicleById("c1").getModel());
+    }
+
+    @Test
+    public void slowStreamSinkDoesNotBlockWriters() throws Exception {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        for (int i = 0; i < 1000; i++) repo.addVehicle(vehicle("v" + i, i));
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            List<Vehicle> seen = new ArrayList<>();
+            repo.streamVehicles(new VehicleQuery(), v -> {
+                if (seen.isEmpty()) {
+                    // a writer must get through while the sink is still busy with the stream
+                    Future<?> write = writer.submit(() -> {
+                        repo.removeVehicleById("v999");
+                        repo.addVehicle(vehicle("late", 1));
+                    });
+                    try {
+                        write.get(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new AssertionError("writer blocked by the stream", e);
+                    }
+                }
+                seen.add(v);
+            });
+            // the removal lands before v999's chunk is built, so it is skipped
+            assertEquals(999, seen.size());
+            assertFalse(ids(seen, false).contains("v999"));
+            assertEquals(1000, repo.size());
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    private static Vehicle vehicle(String id, int i) {
+        String brand = "Brand" + (i % 7);
+        int year = 2000 + i % 6;
+        switch (i % 4) {
+            case 0: return new Car(id, brand, "C", year, 4, "Petrol");
+            case 1: return new Bike(id, brand, "B", year, i % 2 == 0, "Road");
+            case 2: return new Truck(id, brand, "T", year, 1000 + i, false);
+            default: return new Motorcycle(id, brand, "M", year, 125 + i % 1000, "Sport");
+        }
+    }
+
+    private static List<String> ids(List<Vehicle> vehicles, boolean sort) {
+        List<String> ids = vehicles.stream().map(Vehicle::getId).collect(Collectors.toList());
+        if (sort) ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+}
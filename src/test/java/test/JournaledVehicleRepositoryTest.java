@@ -0,0 +1,220 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.JournaledVehicleRepository;
+import data.JournaledVehicleRepository.FsyncPolicy;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+public class JournaledVehicleRepositoryTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private JournaledVehicleRepository open(Path dir, long compactAfterBytes) throws Exception {
+        JournaledVehicleRepository repo = new JournaledVehicleRepository(dir, FsyncPolicy.ALWAYS, 1000, compactAfterBytes);
+        repo.init();
+        return repo;
+    }
+
+    @Test
+    public void recoversEveryChangeFromTheLog() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            repo.addVehicle(new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"));
+            repo.addVehicles(Arrays.asList(
+                    new Bike("b1", "Giant", "Talon", 2021, true, "Mountain"),
+                    new Truck("t1", "Volvo", "FH16", 2018, 25000.5, true),
+                    new Motorcycle("m1", "Ducati", "Monster", 2020, 937, "Naked")));
+            assertTrue(repo.updateVehicle(new Car("c1", "Toyota", "Corolla", 2020, 5, "Electric")));
+            assertFalse(repo.updateVehicle(new Car("nope", "X", "Y", 2000, 4, "Petrol")));
+            assertTrue(repo.removeVehicleById("b1"));
+            assertFalse(repo.removeVehicleById("b1"));
+        }
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            assertEquals(3, repo.getAllVehicles().size());
+            assertNull(repo.getVehicleById("b1"));
+            assertNull(repo.getVehicleById("nope"));
+            Car car = (Car) repo.getVehicleById("c1");
+            assertEquals(2020, car.getYear());
+            assertEquals(5, car.getNumDoors());
+            assertEquals("Electric", car.getFuelType());
+            assertEquals(25000.5, ((Truck) repo.getVehicleById("t1")).getPayloadCapacityKg(), 0.0);
+            assertEquals(937, ((Motorcycle) repo.getVehicleById("m1")).getEngineCc());
+        }
+    }
+
+    @Test
+    public void compactionWritesSnapshotAndDropsOldSegments() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            for (int i = 0; i < 200; i++) repo.addVehicle(new Car("c" + i, "Brand" + i % 5, "M", 2000 + i % 20, 4, "Petrol"));
+            repo.compact();
+            for (int i = 0; i < 50; i++) repo.removeVehicleById("c" + i);
+            repo.addVehicle(new Car("after", "Late", "L", 2024, 4, "Electric"));
+            repo.compact();
+            repo.updateVehicle(new Car("after", "Late", "L", 2025, 4, "Electric"));
+        }
+        List<String> files = files(dir);
+        assertEquals(1, files.stream().filter(f -> f.endsWith(".snap")).count());
+        assertEquals(1, files.stream().filter(f -> f.endsWith(".log")).count());
+
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            assertEquals(151, repo.getAllVehicles().size());
+            assertNull(repo.getVehicleById("c0"));
+            assertNotNull(repo.getVehicleById("c199"));
+            assertEquals(2025, repo.getVehicleById("after").getYear());
+        }
+    }
+
+    @Test
+    public void backgroundCompactionKeepsLogBounded() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (JournaledVehicleRepository repo = open(dir, 4096)) {
+            for (int i = 0; i < 2000; i++) {
+                repo.addVehicle(new Truck("t" + i % 100, "Brand", "T", 2010, i, false));
+            }
+        }
+        assertTrue(files(dir).stream().anyMatch(f -> f.endsWith(".snap")));
+        try (JournaledVehicleRepository repo = open(dir, 4096)) {
+            assertEquals(100, repo.getAllVehicles().size());
+            assertEquals(1999.0, ((Truck) repo.getVehicleById("t99")).getPayloadCapacityKg(), 0.0);
+        }
+    }
+
+    @Test
+    public void truncatesTornTailAndKeepsWriting() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            repo.addVehicle(new Car("c1", "Skoda", "Octavia", 2017, 5, "Diesel"));
+            repo.addVehicle(new Car("c2", "Seat", "Leon", 2018, 5, "Petrol"));
+        }
+        Path segment = dir.resolve(files(dir).get(0));
+        // half of a record header, as left by a crash mid-append
+        Files.write(segment, new byte[]{0, 0, 0}, StandardOpenOption.APPEND);
+
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            assertEquals(2, repo.getAllVehicles().size());
+            repo.addVehicle(new Car("c3", "Kia", "Rio", 2015, 5, "Petrol"));
+        }
+        // the torn segment is no longer the newest one, so it must have been repaired
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            assertEquals(3, repo.getAllVehicles().size());
+        }
+    }
+
+    @Test
+    public void concurrentWritersAreAllDurable() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        int threads = 8, perThread = 150;
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        repo.addVehicle(new Car("w" + id + "-" + i, "B", "M", 2020, 4, "Petrol"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            pool.shutdown();
+        }
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            assertEquals(threads * perThread, repo.getAllVehicles().size());
+        }
+    }
+
+    @Test
+    public void unknownVehicleTypeIsRejectedBeforeLogging() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            Vehicle odd = new Vehicle("odd", "B", "M", 2000) {
+                @Override public void start() {}
+                @Override public void stop() {}
+                @Override public double getMaxSpeed() { return 0; }
+            };
+            try {
+                repo.addVehicle(odd);
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                assertNull(repo.getVehicleById("odd"));
+            }
+        }
+    }
+
+    @Test
+    public void vehicleWithoutIdIsRejectedBeforeLogging() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            repo.addVehicle(new Car("c1", "Opel", "Astra", 2016, 5, "Petrol"));
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try {
+                    List<Vehicle> batch = Arrays.asList(
+                            new Car("c2", "Fiat", "Panda", 2014, 5, "Petrol"),
+                            new Car(null, "Seat", "Ibiza", 2018, 5, "Petrol"));
+                    if (attempt == 0) repo.addVehicles(batch); else repo.updateVehicles(batch);
+                    fail("expected IllegalArgumentException");
+                } catch (IllegalArgumentException expected) {
+                    assertNull(repo.getVehicleById("c2"));
+                }
+            }
+        }
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            assertEquals(1, repo.getAllVehicles().size());
+            assertNotNull(repo.getVehicleById("c1"));
+        }
+    }
+
+    @Test
+    public void oversizedRecordIsRejectedBeforeLogging() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        char[] big = new char[2 * 1024 * 1024];
+        Arrays.fill(big, 'x');
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            repo.addVehicle(new Car("c1", "Opel", "Astra", 2016, 5, "Petrol"));
+            try {
+                repo.addVehicles(Arrays.asList(
+                        new Car("c2", "Fiat", "Panda", 2014, 5, "Petrol"),
+                        new Car("c3", new String(big), "Huge", 2020, 5, "Petrol")));
+                fail("expected IOException");
+            } catch (IOException expected) {
+                assertNull(repo.getVehicleById("c2"));
+                assertNull(repo.getVehicleById("c3"));
+            }
+            repo.addVehicle(new Car("c4", "Kia", "Ceed", 2019, 5, "Diesel"));
+        }
+        try (JournaledVehicleRepository repo = open(dir, 0)) {
+            assertEquals(2, repo.getAllVehicles().size());
+            assertNotNull(repo.getVehicleById("c4"));
+        }
+    }
+
+    private static List<String> files(Path dir) throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
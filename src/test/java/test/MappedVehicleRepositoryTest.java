@@ -0,0 +1,242 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.FleetStatistics;
+import data.MappedVehicleRepository;
+import data.VehicleQuery;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+public class MappedVehicleRepositoryTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void reopensWithEveryField() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            repo.addVehicle(new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"));
+            repo.addVehicle(new Bike("b1", "Giant", "Talon", 2021, true, "Mountain"));
+            repo.addVehicle(new Truck("t1", "Volvo", "FH16", 2018, 25000.5, true));
+            repo.addVehicle(new Motorcycle("m1", null, "Monster", 2020, 937, "Naked"));
+            repo.addVehicle(new Car("gone", "Fiat", "Panda", 2010, 5, "Petrol"));
+            assertTrue(repo.removeVehicleById("gone"));
+            assertTrue(repo.updateVehicle(new Car("c1", "Toyota", "Corolla", 2020, 4, "Electric")));
+        }
+
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            assertEquals(4, repo.size());
+            assertNull(repo.getVehicleById("gone"));
+            Car car = (Car) repo.getVehicleById("c1");
+            assertEquals("Toyota", car.getBrand());
+            assertEquals("Corolla", car.getModel());
+            assertEquals(2020, car.getYear());
+            assertEquals(4, car.getNumDoors());
+            assertEquals("Electric", car.getFuelType());
+            Bike bike = (Bike) repo.getVehicleById("b1");
+            assertTrue(bike.hasSidecar());
+            assertEquals("Mountain", bike.getType());
+            Truck truck = (Truck) repo.getVehicleById("t1");
+            assertEquals(25000.5, truck.getPayloadCapacityKg(), 0.0);
+            assertTrue(truck.hasTrailer());
+            Motorcycle moto = (Motorcycle) repo.getVehicleById("m1");
+            assertNull(moto.getBrand());
+            assertEquals(937, moto.getEngineCc());
+            assertEquals("Naked", moto.getCategory());
+
+            // writes after reopening extend the same files
+            repo.addVehicle(new Car("c2", "Toyota", "Yaris", 2022, 5, "Petrol"));
+            assertEquals(2, repo.findVehicles(VehicleQuery.of("toyota", "car")).size());
+        }
+    }
+
+    @Test
+    public void growsAndKeepsIdsAfterChurn() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        List<String> kept = new ArrayList<>();
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            List<Vehicle> batch = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                batch.add(new Truck("t" + i, "Brand" + (i % 9), "T", 2000 + i % 10, i, false));
+            }
+            repo.addVehicles(batch);
+            List<String> drop = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) (i % 3 == 0 ? drop : kept).add("t" + i);
+            assertEquals(drop.size(), repo.removeVehiclesByIds(drop));
+        }
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            assertEquals(kept.size(), repo.size());
+            for (String id : kept) assertEquals(id, repo.getVehicleById(id).getId());
+            assertNull(repo.getVehicleById("t0"));
+            FleetStatistics stats = repo.getFleetStatistics();
+            assertEquals(kept.size(), stats.getTruckPayload().getCount());
+            assertEquals(Long.valueOf(kept.size()), stats.getCountsByType().get("truck"));
+            List<Vehicle> page = repo.findVehicles(new VehicleQuery().afterId("t10").limit(3));
+            assertEquals("t100", page.get(0).getId());
+            assertEquals(3, page.size());
+        }
+    }
+
+    @Test
+    public void ignoresTornDictionaryEntry() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            repo.addVehicle(new Car("c1", "Skoda", "Octavia", 2017, 5, "Diesel"));
+        }
+        // a length prefix whose bytes never made it to disk
+        Files.write(dir.resolve("vehicles.dict"), new byte[]{0, 0, 0, 9, 'x'}, StandardOpenOption.APPEND);
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            repo.addVehicle(new Car("c2", "Seat", "Leon", 2018, 5, "Petrol"));
+        }
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            assertEquals("Skoda", repo.getVehicleById("c1").getBrand());
+            assertEquals("Seat", repo.getVehicleById("c2").getBrand());
+            assertEquals("Leon", repo.getVehicleById("c2").getModel());
+        }
+    }
+
+    @Test
+    public void rejectsForeignFilesAndLongIds() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        Files.write(dir.resolve("vehicles.dat"), new byte[128]);
+        try {
+            new MappedVehicleRepository(dir).init();
+            fail("expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("vehicles.dat"));
+        }
+
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(tmp.newFolder().toPath())) {
+            repo.init();
+            String id = new String(new char[49]).replace('\0', 'x');
+            try {
+                repo.addVehicle(new Car(id, "B", "M", 2000, 4, "Petrol"));
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                assertEquals(0, repo.size());
+            }
+            assertNull(repo.getVehicleById(id));
+        }
+    }
+
+    @Test
+    public void slowStreamSinkDoesNotBlockWriters() throws Exception {
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(tmp.getRoot().toPath())) {
+            repo.init();
+            for (int i = 0; i < 1000; i++) repo.addVehicle(new Car("v" + i, "Brand" + (i % 7), "C", 2000 + i % 6, 4, "Petrol"));
+            ExecutorService writer = Executors.newSingleThreadExecutor();
+            try {
+                List<String> seen = new ArrayList<>();
+                repo.streamVehicles(new VehicleQuery(), v -> {
+                    if (seen.isEmpty()) {
+                        // a writer must get through while the sink is still busy with the stream
+                        Future<?> write = writer.submit(() -> {
+                            repo.removeVehicleById("v999");
+                            repo.addVehicle(new Car("late", "Late", "L", 2001, 4, "Petrol"));
+                            return null;
+                        });
+                        try {
+                            write.get(5, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw new AssertionError("writer blocked by the stream", e);
+                        }
+                    }
+                    seen.add(v.getId());
+                });
+                // the removal lands before v999's chunk is decoded, so it is skipped
+                assertEquals(999, seen.size());
+                assertFalse(seen.contains("v999"));
+                assertFalse(seen.contains("late"));
+                assertEquals(1000, repo.size());
+            } finally {
+                writer.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void reopenFinishesARemovalCutShortByACrash() throws Exception {
+        Path dir = tmp.getRoot().toPath();
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            repo.addVehicle(new Car("a", "Audi", "A4", 2015, 4, "Diesel"));
+            repo.addVehicle(new Car("b", "BMW", "320", 2016, 4, "Petrol"));
+            repo.addVehicle(new Car("c", "Citroen", "C3", 2017, 5, "Petrol"));
+        }
+        // the state a crash leaves while removing "a": the header notes that record 0 is
+        // being refilled from record 2, half of that record has been copied and the
+        // count is still 3 (header of 64 bytes, records of 96)
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve("vehicles.dat").toFile(), "rw")) {
+            byte[] last = new byte[96];
+            file.seek(64 + 2 * 96);
+            file.readFully(last);
+            file.seek(64);
+            file.write(last, 0, 48);
+            file.seek(16);
+            file.writeInt(1);
+            file.writeInt(3);
+        }
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(dir)) {
+            repo.init();
+            assertEquals(2, repo.size());
+            assertNull(repo.getVehicleById("a"));
+            assertEquals("Citroen", repo.getVehicleById("c").getBrand());
+            List<String> ids = new ArrayList<>();
+            for (Vehicle v : repo.getAllVehicles()) ids.add(v.getId());
+            ids.sort(null);
+            assertEquals(Arrays.asList("b", "c"), ids);
+            assertEquals(1, repo.findVehicles(VehicleQuery.of("citroen", null)).size());
+        }
+    }
+
+    @Test
+    public void invalidVehicleRejectsTheWholeBatch() throws Exception {
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(tmp.getRoot().toPath())) {
+            repo.init();
+            String longId = new String(new char[49]).replace('\0', 'x');
+            List<Vehicle> batch = Arrays.asList(new Car("c1", "B", "M", 2000, 4, "Petrol"),
+                    new Car(longId, "B", "M", 2000, 4, "Petrol"));
+            try {
+                repo.addVehicles(batch);
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                assertEquals(0, repo.size());
+            }
+            repo.addVehicle(new Car("c1", "B", "M", 2000, 4, "Petrol"));
+            try {
+                repo.updateVehicles(Arrays.asList(new Car("c1", "B", "M", 2024, 4, "Petrol"), new Car(null, "B", "M", 2000, 4, "Petrol")));
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                assertEquals(2000, repo.getVehicleById("c1").getYear());
+            }
+        }
+    }
+}
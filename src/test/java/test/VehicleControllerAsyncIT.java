@@ -0,0 +1,67 @@
+package test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(classes = main.SpringBootApp.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class VehicleControllerAsyncIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void asyncEndpoints_addReadAndDelete() throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        body.put("type", "car");
+        body.put("brand", "AsyncCo");
+        body.put("model", "A1");
+        body.put("year", 2021);
+        ResponseEntity<Map> created = rest.postForEntity("/api/async/vehicles/add", body, Map.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        String id = (String) created.getBody().get("id");
+
+        ResponseEntity<Map> read = rest.getForEntity("/api/async/vehicles/" + id, Map.class);
+        assertThat(read.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(read.getBody()).containsEntry("brand", "AsyncCo");
+
+        ResponseEntity<Map> page = rest.getForEntity("/api/async/vehicles?brand=asyncco&limit=10", Map.class);
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((java.util.List<Object>) page.getBody().get("items")).hasSize(1);
+
+        ResponseEntity<Map> summaries = rest.getForEntity("/api/async/vehicles?view=summary&brand=asyncco&limit=10", Map.class);
+        assertThat(summaries.getStatusCode()).isEqualTo(HttpStatus.OK);
+        for (Map<String, Object> row : (java.util.List<Map<String, Object>>) summaries.getBody().get("items")) {
+            assertThat(row).containsOnlyKeys("id", "type", "brand", "model", "year");
+        }
+        ResponseEntity<Map[]> unpaged = rest.getForEntity("/api/async/vehicles?view=summary&brand=asyncco", Map[].class);
+        assertThat(unpaged.getBody()).hasSize(1);
+        assertThat(unpaged.getBody()[0]).containsOnlyKeys("id", "type", "brand", "model", "year");
+        assertThat(rest.getForEntity("/api/async/vehicles?view=compact", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        rest.delete("/api/async/vehicles/" + id);
+        assertThat(rest.getForEntity("/api/async/vehicles/" + id, Map.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        ResponseEntity<Map> stats = rest.getForEntity("/api/async/vehicles/executor/stats", Map.class);
+        assertThat(stats.getBody()).containsKeys("active", "queued", "rejected");
+    }
+
+    @Test
+    public void asyncAdd_rejectsInvalidBody() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("type", "car");
+        ResponseEntity<Map> response = rest.postForEntity("/api/async/vehicles/add", body, Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,43 @@
+package test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(classes = main.SpringBootApp.class, webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = {"vehicles.jpa.second-level-cache=true", "vehicles.cache.size=0",
+                "spring.datasource.url=jdbc:h2:mem:entitycacheit;DB_CLOSE_DELAY=-1"})
+public class VehicleControllerEntityCacheIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    public void repeatedReads_hitTheSecondLevelCache() throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        body.put("type", "car");
+        body.put("brand", "CacheCo");
+        body.put("model", "C1");
+        body.put("year", 2022);
+        String id = (String) rest.postForEntity("/api/vehicles/add", body, Map.class).getBody().get("id");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rest.getForEntity("/api/vehicles/" + id, Map.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        ResponseEntity<Map> stats = rest.getForEntity("/api/vehicles/cache/entity-stats", Map.class);
+        assertThat(stats.getBody()).containsEntry("enabled", true);
+        assertThat(((Number) stats.getBody().get("entityHits")).longValue()).isGreaterThanOrEqualTo(3);
+
+        rest.delete("/api/vehicles/" + id);
+        assertThat(rest.getForEntity("/api/vehicles/" + id, Map.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -30,4 +30,14 @@ public class VehicleControllerErrorIT {
         assertThat(post.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(post.getBody()).containsKey("error");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void list_pageOutOfRange_returnsBadRequest() throws Exception {
+        for (String url : new String[]{"/api/vehicles?page=2147483647&limit=1000", "/api/vehicles?page=-1",
+                "/api/async/vehicles?page=2147483647"}) {
+            ResponseEntity<Map> get = rest.getForEntity(url, Map.class);
+            assertThat(get.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(get.getBody()).containsKey("error");
+        }
+    }
+}
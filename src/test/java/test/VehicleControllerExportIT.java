@@ -0,0 +1,44 @@
+package test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(classes = main.SpringBootApp.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class VehicleControllerExportIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    public void export_jsonAndNdjson() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("type", "car");
+            body.put("brand", "ExportCo");
+            body.put("model", "E" + i);
+            body.put("year", 2021);
+            rest.postForEntity("/api/vehicles/add", body, Map.class);
+        }
+
+        ResponseEntity<Object[]> json = rest.getForEntity("/api/vehicles/export?brand=exportco", Object[].class);
+        assertThat(json.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(json.getBody()).hasSize(3);
+
+        ResponseEntity<String> ndjson = rest.getForEntity("/api/vehicles/export?brand=exportco&format=ndjson", String.class);
+        assertThat(ndjson.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ndjson.getBody().trim().split("\n")).hasSize(3);
+
+        ResponseEntity<String> bad = rest.getForEntity("/api/vehicles/export?format=xml", String.class);
+        assertThat(bad.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
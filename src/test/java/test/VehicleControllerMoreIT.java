@@ -50,6 +50,16 @@ public class VehicleControllerMoreIT {
         ResponseEntity<String> get = rest.getForEntity("/api/vehicles/" + id, String.class);
         assertThat(get.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(get.getBody()).contains("UpdBrand2");
+
+        // model and year change too; fields the body leaves out keep their values
+        update.clear();
+        update.put("model", "UpdModel2");
+        update.put("year", 2025);
+        assertThat(rest.exchange("/api/vehicles/"+id, org.springframework.http.HttpMethod.PUT, entity, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        ResponseEntity<Map> updated = rest.getForEntity("/api/vehicles/" + id, Map.class);
+        assertThat(updated.getBody()).containsEntry("brand", "UpdBrand2").containsEntry("model", "UpdModel2")
+                .containsEntry("year", 2025).containsEntry("numDoors", 4).containsEntry("fuelType", "Petrol");
     }
 
     @Test
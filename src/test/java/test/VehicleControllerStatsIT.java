@@ -0,0 +1,42 @@
+package test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(classes = main.SpringBootApp.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class VehicleControllerStatsIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void stats_areAggregatedByTheStore() throws Exception {
+        Map<String, Object> body = new HashMap<>();
+        body.put("type", "truck");
+        body.put("brand", "StatsCo");
+        body.put("model", "S1");
+        body.put("year", 2020);
+        body.put("payload", 1500);
+        rest.postForEntity("/api/vehicles/add", body, Map.class);
+
+        ResponseEntity<Map> stats = rest.getForEntity("/api/vehicles/stats", Map.class);
+        assertThat(stats.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((Map<String, Object>) stats.getBody().get("countsByBrand")).containsEntry("StatsCo", 1);
+        assertThat((Map<String, Object>) stats.getBody().get("truckPayload")).containsKey("max");
+
+        ResponseEntity<Map> summary = rest.getForEntity("/api/vehicles/stats/summary", Map.class);
+        assertThat(summary.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(summary.getBody()).containsKey("averageMaxSpeed");
+    }
+}
@@ -0,0 +1,52 @@
+package test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(classes = main.SpringBootApp.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+public class VehicleControllerSummaryIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void summaryView_listsOnlyTableColumns() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("type", "truck");
+            body.put("brand", "SummaryCo");
+            body.put("model", "S" + i);
+            body.put("year", 2020 + i);
+            body.put("payload", 1200);
+            rest.postForEntity("/api/vehicles/add", body, Map.class);
+        }
+
+        ResponseEntity<Map[]> list = rest.getForEntity("/api/vehicles?view=summary&brand=summaryco", Map[].class);
+        assertThat(list.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(list.getBody()).hasSize(3);
+        for (Map<String, Object> row : list.getBody()) {
+            assertThat(row).containsOnlyKeys("id", "type", "brand", "model", "year");
+            assertThat(row.get("type")).isEqualTo("Truck");
+        }
+
+        ResponseEntity<Map> page = rest.getForEntity("/api/vehicles?view=summary&brand=summaryco&limit=2", Map.class);
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((List<Object>) page.getBody().get("items")).hasSize(2);
+        assertThat(page.getBody().get("hasMore")).isEqualTo(true);
+
+        ResponseEntity<String> bad = rest.getForEntity("/api/vehicles?view=compact", String.class);
+        assertThat(bad.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,30 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import data.JdbcPool;
+import data.VehicleDaoJdbc;
+import models.Car;
+
+public class VehicleDaoJdbcPoolTest {
+
+    @Test
+    public void pooledDaoReusesConnections() throws Exception {
+        JdbcPool.Settings settings = new JdbcPool.Settings().maximumPoolSize(1).minimumIdle(1);
+        try (VehicleDaoJdbc dao = VehicleDaoJdbc.pooled("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", "", settings)) {
+            dao.init(); // seeds while the pool holds a single connection
+            Car car = new Car("Pool", "P1", 2021, 4, "Petrol");
+            dao.addVehicle(car);
+            assertNotNull(dao.getVehicleById(car.getId()));
+            assertTrue(dao.removeVehicleById(car.getId()));
+
+            JdbcPool.Stats stats = dao.getPoolStats();
+            assertEquals(1, stats.getTotal());
+            assertEquals(0, stats.getActive());
+            assertTrue(stats.getAcquired() >= 3);
+            assertEquals(0, stats.getTimeouts());
+        }
+    }
+}
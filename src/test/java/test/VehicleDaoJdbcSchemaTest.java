@@ -0,0 +1,102 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import data.FleetStatistics;
+import data.VehicleDaoJdbc;
+import data.VehicleQuery;
+import data.VehicleRepositoryJpa;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+
+public class VehicleDaoJdbcSchemaTest {
+
+    // the table VehicleDaoJdbc used to create for itself
+    private static void createLegacyTable(String url) throws Exception {
+        try (Connection c = DriverManager.getConnection(url, "sa", ""); Statement s = c.createStatement()) {
+            s.execute("CREATE TABLE vehicles(id VARCHAR(255) PRIMARY KEY, type VARCHAR(50), brand VARCHAR(100), model VARCHAR(100), "
+                    + "manufacture_year INT, doors INT, fuel VARCHAR(50), sidecar BOOLEAN, category VARCHAR(100), "
+                    + "payload DOUBLE, trailer BOOLEAN, cc INT)");
+            s.execute("CREATE INDEX idx_vehicles_brand ON vehicles(brand)");
+            s.execute("CREATE INDEX idx_vehicles_type ON vehicles(type)");
+            s.execute("CREATE INDEX idx_vehicles_year ON vehicles(manufacture_year)");
+            s.execute("INSERT INTO vehicles VALUES('c1', 'Car', 'Toyota', 'Corolla', 2019, 4, 'Hybrid', NULL, NULL, NULL, NULL, NULL)");
+            s.execute("INSERT INTO vehicles VALUES('d1', 'DrivableCar', 'Tesla', 'Model 3', 2021, 4, 'Electric', NULL, NULL, NULL, NULL, NULL)");
+            s.execute("INSERT INTO vehicles VALUES('b1', 'Bike', 'Trek', 'FX3', 2020, NULL, NULL, TRUE, 'Hybrid', NULL, NULL, NULL)");
+            s.execute("INSERT INTO vehicles VALUES('t1', 'Truck', 'Volvo', 'FH16', 2018, NULL, NULL, NULL, NULL, 25000.5, TRUE, NULL)");
+            s.execute("INSERT INTO vehicles VALUES('m1', 'Motorcycle', 'Yamaha', 'R1', 2022, NULL, NULL, NULL, 'Sport', NULL, NULL, 998)");
+        }
+    }
+
+    private static long count(String url, String sql) throws Exception {
+        try (Connection c = DriverManager.getConnection(url, "sa", ""); Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    public void legacyTableIsMovedOntoTheFlywaySchema() throws Exception {
+        String url = "jdbc:h2:mem:legacyjdbc;DB_CLOSE_DELAY=-1";
+        createLegacyTable(url);
+        VehicleDaoJdbc dao = new VehicleDaoJdbc(url, "sa", "");
+        dao.init();
+
+        assertEquals(5, dao.getAllVehicles().size());
+        assertEquals("Hybrid", ((Car) dao.getVehicleById("c1")).getFuelType());
+        assertEquals("Electric", ((Car) dao.getVehicleById("d1")).getFuelType());
+        Bike bike = (Bike) dao.getVehicleById("b1");
+        assertTrue(bike.hasSidecar());
+        assertEquals("Hybrid", bike.getType());
+        assertEquals(25000.5, ((Truck) dao.getVehicleById("t1")).getPayloadCapacityKg(), 0.0);
+        Motorcycle moto = (Motorcycle) dao.getVehicleById("m1");
+        assertEquals(998, moto.getEngineCc());
+        assertEquals("Sport", moto.getCategory());
+        assertEquals(2, dao.findVehicles(VehicleQuery.of(null, "car")).size());
+
+        assertEquals(0, count(url, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'VEHICLES_JDBC_LEGACY'"));
+        assertEquals(1, count(url, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+                + "WHERE INDEX_NAME = 'IDX_VEHICLES_TYPE' AND COLUMN_NAME = 'VEHICLE_TYPE'"));
+        assertEquals(1, count(url, "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"version\" = '2' AND \"success\""));
+
+        dao.init(); // a second start finds nothing left to convert
+        assertEquals(5, dao.getAllVehicles().size());
+    }
+
+    @Test
+    public void jdbcAndJpaShareOneDatabase() throws Exception {
+        String url = "jdbc:h2:mem:sharedschema;DB_CLOSE_DELAY=-1";
+        VehicleDaoJdbc dao = new VehicleDaoJdbc(url, "sa", "");
+        dao.init(); // seeds four sample vehicles
+        dao.addVehicle(new Bike("b1", "Trek", "FX3", 2020, true, "Hybrid"));
+        dao.addVehicle(new Motorcycle("m1", "Yamaha", "R1", 2022, 998, "Sport"));
+
+        VehicleRepositoryJpa jpa = new VehicleRepositoryJpa(url, "sa", "", Collections.singletonMap("hibernate.show_sql", "false"));
+        try {
+            jpa.init();
+            assertEquals(6, jpa.getAllVehicles().size());
+            assertEquals("Hybrid", ((Bike) jpa.getVehicleById("b1")).getType());
+            assertEquals("Sport", ((Motorcycle) jpa.getVehicleById("m1")).getCategory());
+
+            jpa.addVehicle(new Truck("t1", "Volvo", "FH16", 2018, 18000, false));
+            assertEquals(18000, ((Truck) dao.getVehicleById("t1")).getPayloadCapacityKg(), 0.0);
+
+            FleetStatistics viaJdbc = dao.getFleetStatistics();
+            FleetStatistics viaJpa = jpa.getFleetStatistics();
+            assertEquals(viaJpa.getCountsByType(), viaJdbc.getCountsByType());
+            assertEquals(viaJpa.getEngineCcDistribution(), viaJdbc.getEngineCcDistribution());
+        } finally {
+            jpa.close();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import data.JdbcPool;
+import data.StatementCache;
+import data.VehicleDaoJdbc;
+import data.VehicleQuery;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+public class VehicleDaoJdbcStatementCacheTest {
+    private static final String URL = "jdbc:h2:mem:stmtcache;DB_CLOSE_DELAY=-1";
+    private VehicleDaoJdbc dao;
+
+    @Before
+    public void setUp() throws Exception {
+        JdbcPool.Settings settings = new JdbcPool.Settings().maximumPoolSize(1).minimumIdle(1);
+        dao = VehicleDaoJdbc.pooled(URL, "sa", "", settings);
+        dao.init();
+        java.util.List<String> ids = new java.util.ArrayList<>();
+        for (Vehicle v : dao.getAllVehicles()) ids.add(v.getId());
+        dao.removeVehiclesByIds(ids);
+    }
+
+    @After
+    public void tearDown() {
+        dao.close();
+    }
+
+    @Test
+    public void repeatedCallsReuseTheConnectionsStatements() throws Exception {
+        StatementCache.Stats before = dao.getStatementCacheStats();
+        for (int i = 0; i < 10; i++) {
+            Car car = new Car("c" + i, "Toyota", "Corolla", 2019, 4, "Hybrid");
+            dao.addVehicle(car);
+            assertNotNull(dao.getVehicleById(car.getId()));
+        }
+        StatementCache.Stats after = dao.getStatementCacheStats();
+        assertTrue(after.getHits() - before.getHits() >= 18);
+        assertEquals(1, after.getConnections());
+    }
+
+    @Test
+    public void everyTypeRoundTripsThroughTheBinders() throws Exception {
+        dao.addVehicles(Arrays.asList(
+                new Car("car", "Toyota", "Corolla", 2019, 4, "Hybrid"),
+                new Bike("bike", "Trek", "FX3", 2021, true, "Hybrid"),
+                new Truck("truck", "Volvo", "FH16", 2018, 25000.5, true),
+                new Motorcycle("moto", "Yamaha", "R1", 2022, 998, "Sport")));
+
+        Car car = (Car) dao.getVehicleById("car");
+        assertEquals(4, car.getNumDoors());
+        assertEquals("Hybrid", car.getFuelType());
+        Bike bike = (Bike) dao.getVehicleById("bike");
+        assertTrue(bike.hasSidecar());
+        assertEquals("Hybrid", bike.getType());
+        Truck truck = (Truck) dao.getVehicleById("truck");
+        assertEquals(25000.5, truck.getPayloadCapacityKg(), 0.0);
+        assertTrue(truck.hasTrailer());
+        Motorcycle moto = (Motorcycle) dao.getVehicleById("moto");
+        assertEquals(998, moto.getEngineCc());
+        assertEquals("Sport", moto.getCategory());
+
+        assertTrue(dao.updateVehicle(new Truck("truck", "Volvo", "FH16", 2020, 18000, false)));
+        truck = (Truck) dao.getVehicleById("truck");
+        assertEquals(2020, truck.getYear());
+        assertFalse(truck.hasTrailer());
+        assertEquals(1, dao.findVehicles(VehicleQuery.of(null, "motorcycle")).size());
+    }
+
+    @Test
+    public void failedBatchLeavesNoRowsBehindInTheCachedStatement() throws Exception {
+        dao.addVehicle(new Car("dup", "Fiat", "Panda", 2012, 5, "Petrol"));
+        try {
+            dao.addVehicles(Arrays.asList(
+                    new Car("fresh", "Kia", "Rio", 2015, 5, "Petrol"),
+                    new Car("dup", "Fiat", "Panda", 2012, 5, "Petrol")));
+            fail("expected a duplicate key");
+        } catch (SQLException expected) {
+            // rolled back
+        }
+        dao.addVehicles(Arrays.asList(new Car("next", "Seat", "Ibiza", 2018, 5, "Petrol")));
+        assertNull(dao.getVehicleById("fresh"));
+        assertNotNull(dao.getVehicleById("next"));
+        assertEquals(2, dao.getAllVehicles().size());
+    }
+
+    @Test
+    public void killedConnectionIsNotLentOutAgain() throws Exception {
+        dao.addVehicles(Arrays.asList(new Car("k1", "Kia", "Rio", 2015, 5, "Petrol"), new Car("k2", "Kia", "Ceed", 2016, 5, "Diesel")));
+        try {
+            // the pool's only connection is held by the stream while its session is killed
+            dao.streamVehicles(new VehicleQuery(), v -> {
+                try (Connection admin = DriverManager.getConnection(URL, "sa", ""); Statement s = admin.createStatement()) {
+                    s.execute("SELECT ABORT_SESSION(SESSION_ID) FROM INFORMATION_SCHEMA.SESSIONS WHERE SESSION_ID <> SESSION_ID()");
+                } catch (SQLException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            fail("expected the killed session to fail the stream");
+        } catch (SQLException expected) {
+            // the session is gone
+        }
+        assertEquals(1, dao.getStatementCacheStats().getBrokenConnections());
+        // served by a new connection rather than the dead one
+        assertEquals("Rio", dao.getVehicleById("k1").getModel());
+        assertEquals(2, dao.getAllVehicles().size());
+    }
+
+    @Test
+    public void driverManagerDaoHasNoStatementCache() throws Exception {
+        VehicleDaoJdbc plain = new VehicleDaoJdbc(URL, "sa", "");
+        assertNull(plain.getStatementCacheStats());
+        plain.addVehicle(new Car("plain", "Opel", "Astra", 2016, 5, "Diesel"));
+        assertNotNull(dao.getVehicleById("plain"));
+    }
+}
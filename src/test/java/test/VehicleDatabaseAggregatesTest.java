@@ -0,0 +1,99 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import data.FleetSummary;
+import data.VehicleDatabase;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+public class VehicleDatabaseAggregatesTest {
+
+    @Test
+    public void aggregatesMatchAFullRecomputeAfterRandomWrites() {
+        VehicleDatabase db = new VehicleDatabase();
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(10);
+            if (op < 6 || ids.isEmpty()) {
+                Vehicle v = randomVehicle(random, null);
+                db.addVehicle(v);
+                ids.add(v.getId());
+            } else if (op < 8) {
+                String id = ids.get(random.nextInt(ids.size()));
+                db.updateVehicle(randomVehicle(random, id));
+            } else {
+                db.removeVehicleById(ids.remove(random.nextInt(ids.size())));
+            }
+        }
+
+        FleetSummary expected = FleetSummary.of(db.getAllVehicles());
+        FleetSummary actual = db.getSummary();
+        assertEquals(expected.getTotalCount(), actual.getTotalCount());
+        assertEquals(expected.getAverageMaxSpeed(), actual.getAverageMaxSpeed(), 1e-6);
+        assertEquals(expected.getFastest().getMaxSpeed(), actual.getFastest().getMaxSpeed(), 0.0);
+        assertEquals(expected.getCountsByType(), actual.getCountsByType());
+        assertEquals(expected.getCountsByBrand(), actual.getCountsByBrand());
+
+        Map<String, List<Vehicle>> groups = db.groupByBrand();
+        for (Map.Entry<String, Integer> e : expected.getCountsByBrand().entrySet()) {
+            assertEquals((int) e.getValue(), groups.get(e.getKey()).size());
+        }
+
+        for (String id : ids) db.removeVehicleById(id);
+        assertEquals(0.0, db.getAverageMaxSpeed(), 0.0);
+        assertNull(db.getFastestVehicle());
+        assertTrue(db.getCountsByType().isEmpty());
+    }
+
+    @Test
+    public void fastestTieGoesToFirstAddedAndFollowsRemoval() {
+        VehicleDatabase db = new VehicleDatabase();
+        Bike first = new Bike("Harley-Davidson", "Street 750", 2022, false, "Cruiser");
+        Bike second = new Bike("Honda", "Rebel", 2022, false, "Cruiser");
+        db.addVehicle(new Car("Toyota", "Camry", 2023, 4, "Hybrid"));
+        db.addVehicle(first);
+        db.addVehicle(second);
+        assertSame(first, db.getFastestVehicle());
+        db.removeVehicleById(first.getId());
+        assertSame(second, db.getFastestVehicle());
+        db.updateVehicle(new Motorcycle(second.getId(), "Honda", "CB125", 2022, 125, "Commuter"));
+        assertEquals("Toyota", db.getFastestVehicle().getBrand());
+    }
+
+    @Test
+    public void updatingWithTheStoredInstanceKeepsItIndexed() {
+        VehicleDatabase db = new VehicleDatabase();
+        Car car = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        db.addVehicle(car);
+        assertTrue(db.updateVehicle(car));
+        assertEquals(1, db.getAllVehicles().size());
+        assertEquals(1, db.getVehiclesByBrand("toyota").size());
+        assertEquals(1, db.getSummary().getTotalCount());
+        assertEquals(250.0, db.getAverageMaxSpeed(), 0.0);
+    }
+
+    private static Vehicle randomVehicle(Random random, String id) {
+        String brand = "Brand" + random.nextInt(7);
+        int year = 2000 + random.nextInt(20);
+        switch (random.nextInt(4)) {
+            case 0: return id == null ? new Car(brand, "C", year, 4, "Petrol") : new Car(id, brand, "C", year, 4, "Petrol");
+            case 1: return id == null ? new Bike(brand, "B", year, false, "Cruiser") : new Bike(id, brand, "B", year, false, "Cruiser");
+            case 2: return id == null ? new Truck(brand, "T", year, 1000, true) : new Truck(id, brand, "T", year, 1000, true);
+            default:
+                int cc = 50 + random.nextInt(1500);
+                return id == null ? new Motorcycle(brand, "M", year, cc, "Sports") : new Motorcycle(id, brand, "M", year, cc, "Sports");
+        }
+    }
+}
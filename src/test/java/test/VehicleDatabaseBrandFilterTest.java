@@ -3,6 +3,9 @@ package test;
 import org.junit.*;
 import static org.junit.Assert.*;
 import data.VehicleDatabase;
+import models.Bike;
+import models.Car;
+import models.Truck;
 
 public class VehicleDatabaseBrandFilterTest {
     @Test
@@ -12,4 +15,51 @@ public class VehicleDatabaseBrandFilterTest {
         db.addVehicle(new models.Car("Toyota", "Corolla", 2021, 4, "Petrol"));
         assertEquals(2, db.filterByBrand("Toyota").size());
     }
+
+    @Test
+    public void indexesFollowUpdatesAndRemovals() {
+        VehicleDatabase db = new VehicleDatabase();
+        Car camry = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        Bike cbr = new Bike("Honda", "CBR", 2020, false, "Sports");
+        Truck f150 = new Truck("Ford", "F-150", 2020, 1500.0, false);
+        db.addVehicle(camry);
+        db.addVehicle(cbr);
+        db.addVehicle(f150);
+
+        assertEquals(1, db.getVehiclesByBrand("hon").size());
+        assertEquals(3, db.getVehiclesByBrand("o").size());
+        assertEquals(2, db.getVehiclesByYear(2020).size());
+        assertEquals(1, db.getVehiclesByType("TRUCK").size());
+        assertEquals(1, db.findVehicles("o", "bike", 2020).size());
+        assertEquals(0, db.findVehicles("toy", "car", 2020).size());
+
+        // brand and year move with the update
+        db.updateVehicle(new Car(camry.getId(), "Tesla", "Model 3", 2020, 4, "Electric"));
+        assertEquals(0, db.getVehiclesByBrand("toyota").size());
+        assertEquals(1, db.getVehiclesByBrand("esl").size());
+        assertEquals(3, db.getVehiclesByYear(2020).size());
+        assertEquals(0, db.getVehiclesByYear(2023).size());
+
+        db.removeVehicleById(cbr.getId());
+        assertEquals(0, db.getVehiclesByBrand("hon").size());
+        assertEquals(0, db.getVehiclesByType("bike").size());
+        assertEquals(2, db.findVehicles(null, null, 2020).size());
+    }
+
+    @Test
+    public void indexesKeepAVehicleReStoredAsTheSameInstance() {
+        VehicleDatabase db = new VehicleDatabase();
+        Car camry = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        Truck f150 = new Truck("Ford", "F-150", 2020, 1500.0, false);
+        db.addVehicle(camry);
+        db.addVehicle(f150);
+
+        assertTrue(db.updateVehicle(camry));
+        db.addVehicle(camry);
+        assertEquals(1, db.getVehiclesByBrand("toy").size());
+        assertEquals(1, db.getVehiclesByType("car").size());
+        assertEquals(1, db.getVehiclesByYear(2023).size());
+        assertEquals(1, db.findVehicles("toy", "car", 2023).size());
+        assertEquals(2, db.findVehicles("o", null, null).size());
+    }
 }
@@ -0,0 +1,111 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import data.VehicleDatabase;
+import models.Car;
+import models.Vehicle;
+
+public class VehicleDatabaseConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 5000;
+
+    @Test
+    public void concurrentWritersLoseNoUpdates() throws Exception {
+        VehicleDatabase db = new VehicleDatabase();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            // writers: add PER_THREAD vehicles, bump every one of them once, then delete every other one
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    List<Car> mine = new ArrayList<>();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        Car c = new Car("T" + thread + "-" + i, "Brand" + thread, "M", 2000, 4, "Petrol");
+                        db.addVehicle(c);
+                        mine.add(c);
+                    }
+                    for (Car c : mine) {
+                        assertTrue(db.updateVehicle(new Car(c.getId(), c.getBrand(), c.getModel(), 2001, 4, "Petrol")));
+                    }
+                    for (int i = 0; i < mine.size(); i += 2) {
+                        assertTrue(db.removeVehicleById(mine.get(i).getId()));
+                    }
+                    return null;
+                }));
+            }
+            // readers: iterate and look up while the writers run; must never throw
+            for (int r = 0; r < 2; r++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        for (Vehicle v : db.getAllVehicles()) {
+                            db.getVehicleById(v.getId());
+                        }
+                        db.getAverageMaxSpeed();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int expected = THREADS * (PER_THREAD / 2);
+        assertEquals(expected, db.getTotalCount());
+        List<Vehicle> all = db.getAllVehicles();
+        assertEquals(expected, all.size());
+        for (Vehicle v : all) {
+            assertEquals(2001, v.getYear());
+            assertSame(v, db.getVehicleById(v.getId()));
+        }
+    }
+
+    @Test
+    public void concurrentUpdatesToSameIdKeepOneEntry() throws Exception {
+        VehicleDatabase db = new VehicleDatabase();
+        Car base = new Car("shared", "Brand", "M", 2000, 4, "Petrol");
+        db.addVehicle(base);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                final int year = 2001 + t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        db.updateVehicle(new Car("shared", "Brand", "M", year, 4, "Petrol"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, db.getTotalCount());
+        assertEquals(1, db.getAllVehicles().size());
+        assertSame(db.getAllVehicles().get(0), db.getVehicleById("shared"));
+    }
+}
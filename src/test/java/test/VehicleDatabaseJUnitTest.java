@@ -31,4 +31,42 @@ public class VehicleDatabaseJUnitTest {
         db2.loadFromJson("test_junit.json");
         assertEquals(2, db2.getTotalCount());
     }
+
+    @Test
+    public void testLookupFollowsUpdateAndRemove() {
+        VehicleDatabase db = new VehicleDatabase();
+        Car car = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        Truck truck = new Truck("Ford", "F-150", 2021, 1500.0, false);
+        db.addVehicle(car);
+        db.addVehicle(truck);
+        assertSame(car, db.getVehicleById(car.getId()));
+
+        Car updated = new Car(car.getId(), "Toyota", "Camry", 2024, 4, "Hybrid");
+        assertTrue(db.updateVehicle(updated));
+        assertEquals(2024, db.getVehicleById(car.getId()).getYear());
+        assertEquals(car.getId(), db.getAllVehicles().get(0).getId());
+
+        assertTrue(db.removeVehicleById(truck.getId()));
+        assertNull(db.getVehicleById(truck.getId()));
+        assertFalse(db.removeVehicleById(truck.getId()));
+        assertFalse(db.updateVehicle(truck));
+        assertEquals(1, db.getTotalCount());
+    }
+
+    @Test
+    public void testReStoringSameInstanceKeepsIt() {
+        VehicleDatabase db = new VehicleDatabase();
+        Car car = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        Truck truck = new Truck("Ford", "F-150", 2021, 1500.0, false);
+        db.addVehicle(car);
+        db.addVehicle(truck);
+
+        // an update or add with the identical object must not unlink what it just linked
+        assertTrue(db.updateVehicle(car));
+        db.addVehicle(car);
+        assertSame(car, db.getVehicleById(car.getId()));
+        assertEquals(2, db.getAllVehicles().size());
+        assertSame(car, db.getAllVehicles().get(0));
+        assertSame(truck, db.getAllVehicles().get(1));
+    }
 }
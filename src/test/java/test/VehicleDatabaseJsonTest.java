@@ -0,0 +1,116 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import data.VehicleDatabase;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+
+public class VehicleDatabaseJsonTest {
+
+    @Test
+    public void loadHandlesEscapesAndNestedValues() throws Exception {
+        String json = "[\n"
+                + "  {\"id\":\"c1\",\"type\":\"Car\",\"brand\":\"Acme \\\"Fast\\\" Motors\",\"model\":\"A{1}\","
+                + "\"year\":2020,\"doors\":2,\"fuel\":\"Di\\u0065sel\",\"extra\":{\"tags\":[\"}\",{\"x\":1}]}},\n"
+                + "  {\"id\":\"b1\",\"type\":\"Bike\",\"brand\":\"Back\\\\Slash\",\"model\":\"B,1\",\"year\":2019,"
+                + "\"sidecar\":true,\"category\":\"Touring\"},\n"
+                + "  {\"id\":\"t1\",\"type\":\"Truck\",\"brand\":\"Volvo\",\"model\":\"FH\",\"year\":2018,\"payload\":12000.5,"
+                + "\"trailer\":false,\"notes\":null},\n"
+                + "  {\"id\":\"x1\",\"type\":\"Boat\",\"brand\":\"Skipped\",\"model\":\"S\",\"year\":2000},\n"
+                + "  {\"id\":\"m1\",\"type\":\"Motorcycle\",\"brand\":\"Ducati\",\"model\":\"V4\",\"year\":2022,\"cc\":1100}\n"
+                + "]";
+        Path file = Files.createTempFile("vehicles", ".json");
+        try {
+            Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+            VehicleDatabase db = new VehicleDatabase();
+            db.loadFromJson(file.toString());
+
+            assertEquals(4, db.getTotalCount());
+            Car car = (Car) db.getVehicleById("c1");
+            assertEquals("Acme \"Fast\" Motors", car.getBrand());
+            assertEquals("A{1}", car.getModel());
+            assertEquals("Diesel", car.getFuelType());
+            Bike bike = (Bike) db.getVehicleById("b1");
+            assertEquals("Back\\Slash", bike.getBrand());
+            assertEquals("B,1", bike.getModel());
+            assertEquals(12000.5, ((Truck) db.getVehicleById("t1")).getPayloadCapacityKg(), 0.0);
+            assertEquals(1100, ((Motorcycle) db.getVehicleById("m1")).getEngineCc());
+            assertNull(db.getVehicleById("x1"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void missingFileKeepsExistingVehicles() {
+        VehicleDatabase db = new VehicleDatabase();
+        db.addVehicle(new Car("Toyota", "Camry", 2023, 4, "Hybrid"));
+        db.loadFromJson("does-not-exist.json");
+        assertEquals(1, db.getTotalCount());
+    }
+
+    @Test
+    public void malformedFileKeepsExistingVehicles() throws Exception {
+        String[] bad = {
+            // broken JSON after a valid record
+            "[{\"id\":\"c1\",\"type\":\"Car\",\"brand\":\"A\",\"model\":\"B\",\"year\":2020},\n{\"id\":\"c2\",",
+            // a record without an id
+            "[{\"id\":\"c1\",\"type\":\"Car\",\"brand\":\"A\",\"model\":\"B\",\"year\":2020},"
+                    + "{\"type\":\"Car\",\"brand\":\"A\",\"model\":\"C\",\"year\":2021}]",
+            // a field that is not a number
+            "[{\"id\":\"c1\",\"type\":\"Car\",\"brand\":\"A\",\"model\":\"B\",\"year\":\"soon\"}]"
+        };
+        Path file = Files.createTempFile("vehicles", ".json");
+        try {
+            for (String json : bad) {
+                Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+                VehicleDatabase db = new VehicleDatabase();
+                db.addVehicle(new Car("keep", "Toyota", "Camry", 2023, 4, "Hybrid"));
+                db.loadFromJson(file.toString());
+                assertEquals(1, db.getTotalCount());
+                assertNotNull(db.getVehicleById("keep"));
+                assertNull(db.getVehicleById("c1"));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void saveRoundTripsSpecialCharactersAndReplacesFile() throws Exception {
+        Path file = Files.createTempFile("vehicles", ".json");
+        try {
+            Files.write(file, "stale".getBytes(StandardCharsets.UTF_8));
+            VehicleDatabase db = new VehicleDatabase();
+            db.addVehicle(new Car("c1", "Back\\Slash \"Q\"", "Tab\tNew\nLine", 2020, 2, "Petrol"));
+            db.addVehicle(new Motorcycle("m1", "Ducati", "V4", 2022, 1100, "Sports"));
+            db.saveToJson(file.toString());
+
+            VehicleDatabase loaded = new VehicleDatabase();
+            loaded.loadFromJson(file.toString());
+            assertEquals(2, loaded.getTotalCount());
+            Car car = (Car) loaded.getVehicleById("c1");
+            assertEquals("Back\\Slash \"Q\"", car.getBrand());
+            assertEquals("Tab\tNew\nLine", car.getModel());
+            assertEquals(1100, ((Motorcycle) loaded.getVehicleById("m1")).getEngineCc());
+            // no temp files are left behind next to the target
+            String prefix = file.getFileName().toString();
+            try (Stream<Path> siblings = Files.list(file.getParent())) {
+                assertEquals(0, siblings.map(p -> p.getFileName().toString())
+                        .filter(n -> n.startsWith(prefix) && n.endsWith(".tmp")).count());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import data.VehicleDatabase;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+
+public class VehicleDatabaseSnapshotTest {
+
+    @Test
+    public void roundTripsEveryField() throws Exception {
+        VehicleDatabase db = new VehicleDatabase();
+        db.addVehicle(new Car("c1", "Acme \"Fast\" Motors", "Ünïcode", 2020, 2, "Diesel"));
+        db.addVehicle(new Car("c2", "Acme \"Fast\" Motors", null, -5, 4, null));
+        db.addVehicle(new Bike("b1", null, "B,1", 2019, true, "Touring"));
+        db.addVehicle(new Truck("t1", "Volvo", "FH", 2018, 12000.5, true));
+        db.addVehicle(new Motorcycle("m1", "Ducati", "V4", 2022, 1100, "Touring"));
+        Path file = Files.createTempFile("vehicles", ".snap");
+        try {
+            db.saveToSnapshot(file.toString());
+            VehicleDatabase loaded = new VehicleDatabase();
+            loaded.addVehicle(new Car("stale", "Old", "O", 2000, 4, "Petrol"));
+            loaded.loadFromSnapshot(file.toString());
+
+            assertEquals(5, loaded.getTotalCount());
+            assertNull(loaded.getVehicleById("stale"));
+            Car c1 = (Car) loaded.getVehicleById("c1");
+            assertEquals("Acme \"Fast\" Motors", c1.getBrand());
+            assertEquals("Ünïcode", c1.getModel());
+            assertEquals(2, c1.getNumDoors());
+            assertEquals("Diesel", c1.getFuelType());
+            Car c2 = (Car) loaded.getVehicleById("c2");
+            assertNull(c2.getModel());
+            assertNull(c2.getFuelType());
+            assertEquals(-5, c2.getYear());
+            Bike bike = (Bike) loaded.getVehicleById("b1");
+            assertNull(bike.getBrand());
+            assertTrue(bike.hasSidecar());
+            assertEquals("Touring", bike.getType());
+            Truck truck = (Truck) loaded.getVehicleById("t1");
+            assertEquals(12000.5, truck.getPayloadCapacityKg(), 0.0);
+            assertTrue(truck.hasTrailer());
+            Motorcycle moto = (Motorcycle) loaded.getVehicleById("m1");
+            assertEquals(1100, moto.getEngineCc());
+            assertEquals("Touring", moto.getCategory());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void corruptSnapshotKeepsExistingVehicles() throws Exception {
+        VehicleDatabase db = new VehicleDatabase();
+        for (int i = 0; i < 50; i++) db.addVehicle(new Car("c" + i, "Toyota", "Camry", 2023, 4, "Hybrid"));
+        Path file = Files.createTempFile("vehicles", ".snap");
+        try {
+            db.saveToSnapshot(file.toString());
+            byte[] bytes = Files.readAllBytes(file);
+
+            VehicleDatabase target = new VehicleDatabase();
+            target.addVehicle(new Car("keep", "Kia", "Rio", 2015, 5, "Petrol"));
+            bytes[bytes.length / 2] ^= 0x10;
+            Files.write(file, bytes);
+            // depending on the byte hit, decoding or the checksum rejects it
+            assertLoadFails(target, file.toString(), "");
+
+            bytes[bytes.length / 2] ^= 0x10;
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+            assertLoadFails(target, file.toString(), "Truncated");
+
+            Files.write(file, new byte[0]);
+            assertLoadFails(target, file.toString(), "Truncated");
+
+            assertLoadFails(target, "does-not-exist.snap", "does-not-exist.snap");
+            assertEquals("Kia", target.getVehicleById("keep").getBrand());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void failedSaveIsReported() throws Exception {
+        VehicleDatabase db = new VehicleDatabase();
+        db.addVehicle(new Car("c1", "Kia", "Rio", 2015, 5, "Petrol"));
+        Path dir = Files.createTempDirectory("vehicles");
+        try {
+            db.saveToSnapshot(dir.resolve("missing").resolve("vehicles.snap").toString());
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // the parent directory does not exist
+        } finally {
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void assertLoadFails(VehicleDatabase target, String file, String reason) {
+        try {
+            target.loadFromSnapshot(file);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(reason));
+        }
+        assertEquals(1, target.getTotalCount());
+    }
+
+    @Test
+    public void snapshotIsSmallerThanJson() throws Exception {
+        VehicleDatabase db = new VehicleDatabase();
+        for (int i = 0; i < 1000; i++) {
+            db.addVehicle(new Motorcycle("Brand" + (i % 10), "Model" + (i % 20), 2000 + i % 20, 125 + i, "Sport"));
+        }
+        Path json = Files.createTempFile("vehicles", ".json");
+        Path snap = Files.createTempFile("vehicles", ".snap");
+        try {
+            db.saveToJson(json.toString());
+            db.saveToSnapshot(snap.toString());
+            assertTrue(Files.size(snap) * 2 < Files.size(json));
+        } finally {
+            Files.deleteIfExists(json);
+            Files.deleteIfExists(snap);
+        }
+    }
+}
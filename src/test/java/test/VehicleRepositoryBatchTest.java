@@ -0,0 +1,103 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import data.ColumnarVehicleRepository;
+import data.VehicleDaoJdbc;
+import data.VehicleDatabaseRepository;
+import data.VehicleRepository;
+import data.VehicleRepositoryJpa;
+import models.Car;
+import models.Motorcycle;
+import models.Vehicle;
+
+public class VehicleRepositoryBatchTest {
+
+    @Test
+    public void inMemoryBatch() throws Exception {
+        VehicleDatabaseRepository repo = new VehicleDatabaseRepository();
+        repo.init();
+        exercise(repo, 0);
+    }
+
+    @Test
+    public void columnarBatch() throws Exception {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        repo.init();
+        exercise(repo, 0);
+    }
+
+    @Test
+    public void jdbcBatch() throws Exception {
+        VehicleDaoJdbc repo = new VehicleDaoJdbc("jdbc:h2:mem:batchjdbc;DB_CLOSE_DELAY=-1", "sa", "");
+        repo.init();
+        exercise(repo, repo.getAllVehicles().size());
+    }
+
+    @Test
+    public void jpaBatch() throws Exception {
+        VehicleRepositoryJpa repo = new VehicleRepositoryJpa("jdbc:h2:mem:batchjpa;DB_CLOSE_DELAY=-1", "sa", "");
+        try {
+            repo.init();
+            exercise(repo, repo.getAllVehicles().size());
+        } finally {
+            repo.close();
+        }
+    }
+
+    @Test
+    public void jdbcBatchFailingMidwayRollsBack() throws Exception {
+        VehicleDaoJdbc repo = new VehicleDaoJdbc("jdbc:h2:mem:batchjdbcfail;DB_CLOSE_DELAY=-1", "sa", "");
+        repo.init();
+        int existing = repo.getAllVehicles().size();
+        // the first 500 rows are sent in their own executeBatch before the null fails to bind
+        List<Vehicle> batch = new ArrayList<>();
+        for (int i = 0; i < 600; i++) batch.add(new Car("Batch", "C" + i, 2020, 4, "Petrol"));
+        batch.add(null);
+        try {
+            repo.addVehicles(batch);
+            fail("expected NullPointerException");
+        } catch (NullPointerException expected) {
+            // the binder failed after part of the batch reached the database
+        }
+        assertEquals(existing, repo.getAllVehicles().size());
+        assertNull(repo.getVehicleById(batch.get(0).getId()));
+
+        // the connection and its cached statement are still usable
+        repo.addVehicles(batch.subList(0, 10));
+        assertEquals(existing + 10, repo.getAllVehicles().size());
+    }
+
+    // 1200 rows spans several JDBC/JPA batches
+    private void exercise(VehicleRepository repo, int existing) throws Exception {
+        List<Vehicle> batch = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            batch.add(i % 2 == 0 ? new Car("Batch", "C" + i, 2020, 4, "Petrol")
+                                 : new Motorcycle("Batch", "M" + i, 2020, 600, "Sports"));
+        }
+        repo.addVehicles(batch);
+        assertEquals(existing + 1200, repo.getAllVehicles().size());
+
+        List<Vehicle> updates = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Vehicle v = batch.get(i * 2);
+            updates.add(new Car(v.getId(), "Batch", "Updated", 2024, 2, "Electric"));
+        }
+        updates.add(new Car("missing-id", "Batch", "Nope", 2024, 2, "Electric"));
+        assertEquals(300, repo.updateVehicles(updates));
+        assertEquals(2024, repo.getVehicleById(batch.get(0).getId()).getYear());
+        assertNull(repo.getVehicleById("missing-id"));
+        assertEquals("Sports", ((Motorcycle) repo.getVehicleById(batch.get(1).getId())).getCategory());
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) ids.add(batch.get(i).getId());
+        ids.add("missing-id");
+        assertEquals(1000, repo.removeVehiclesByIds(ids));
+        assertEquals(existing + 200, repo.getAllVehicles().size());
+    }
+}
@@ -0,0 +1,92 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import data.EntityCacheStats;
+import data.VehicleQuery;
+import data.VehicleRepositoryJpa;
+import models.Car;
+import models.Truck;
+import models.Vehicle;
+
+public class VehicleRepositoryJpaCacheTest {
+    private static final Map<String, Object> QUIET = Collections.singletonMap("hibernate.show_sql", "false");
+
+    private VehicleRepositoryJpa repo;
+
+    @Before
+    public void setUp() throws Exception {
+        repo = VehicleRepositoryJpa.cached("jdbc:h2:mem:l2cache;DB_CLOSE_DELAY=-1", "sa", "", QUIET);
+        repo.init();
+        List<String> ids = new java.util.ArrayList<>();
+        for (Vehicle v : repo.getAllVehicles()) ids.add(v.getId());
+        repo.removeVehiclesByIds(ids);
+    }
+
+    @After
+    public void tearDown() {
+        repo.close();
+    }
+
+    @Test
+    public void repeatedFindIsServedFromTheEntityCache() throws Exception {
+        repo.addVehicle(new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"));
+        EntityCacheStats before = repo.getCacheStatistics();
+        assertTrue(before.isEnabled());
+        for (int i = 0; i < 3; i++) assertEquals("Toyota", repo.getVehicleById("c1").getBrand());
+        assertEquals(3, repo.getCacheStatistics().getEntityHits() - before.getEntityHits());
+    }
+
+    @Test
+    public void writesKeepTheCacheConsistent() throws Exception {
+        repo.addVehicles(Arrays.asList(
+                new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"),
+                new Truck("t1", "Volvo", "FH16", 2018, 25000, true)));
+        repo.getVehicleById("c1");
+
+        assertTrue(repo.updateVehicle(new Car("c1", "Toyota", "Corolla", 2022, 5, "Electric")));
+        assertEquals(2022, repo.getVehicleById("c1").getYear());
+
+        assertTrue(repo.removeVehicleById("c1"));
+        assertNull(repo.getVehicleById("c1"));
+        assertNotNull(repo.getVehicleById("t1"));
+
+        assertTrue(repo.inTransaction(unit -> unit.remove("t1") && unit.find("t1") == null));
+        assertNull(repo.getVehicleById("t1"));
+    }
+
+    @Test
+    public void pagedQueriesUseTheQueryCacheUntilTheTableChanges() throws Exception {
+        repo.addVehicles(Arrays.asList(
+                new Car("a", "Audi", "A4", 2019, 4, "Diesel"),
+                new Car("b", "BMW", "320", 2020, 4, "Petrol")));
+        VehicleQuery page = VehicleQuery.of(null, null).limit(10);
+        assertEquals(2, repo.findVehicles(page).size());
+        long hits = repo.getCacheStatistics().getQueryHits();
+        assertEquals(2, repo.findVehicles(page).size());
+        assertEquals(hits + 1, repo.getCacheStatistics().getQueryHits());
+
+        repo.addVehicle(new Car("c", "Citroen", "C4", 2021, 5, "Petrol"));
+        assertEquals(3, repo.findVehicles(page).size());
+    }
+
+    @Test
+    public void plainRepositoryReportsTheCacheAsDisabled() throws Exception {
+        VehicleRepositoryJpa plain = new VehicleRepositoryJpa("jdbc:h2:mem:l2plain;DB_CLOSE_DELAY=-1", "sa", "", QUIET);
+        try {
+            plain.init();
+            assertFalse(plain.getCacheStatistics().isEnabled());
+        } finally {
+            plain.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import data.VehicleRepositoryJpa;
+import models.Car;
+import models.Truck;
+import models.Vehicle;
+
+public class VehicleRepositoryJpaUnitOfWorkTest {
+    private VehicleRepositoryJpa repo;
+
+    @Before
+    public void setUp() throws Exception {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.show_sql", "false");
+        props.put("hibernate.generate_statistics", "true");
+        repo = new VehicleRepositoryJpa("jdbc:h2:mem:unitofwork;DB_CLOSE_DELAY=-1", "sa", "", props);
+        repo.init();
+        repo.removeVehiclesByIds(ids(repo));
+    }
+
+    @After
+    public void tearDown() {
+        repo.close();
+    }
+
+    private static java.util.List<String> ids(VehicleRepositoryJpa repo) throws Exception {
+        java.util.List<String> ids = new java.util.ArrayList<>();
+        for (Vehicle v : repo.getAllVehicles()) ids.add(v.getId());
+        return ids;
+    }
+
+    private Statistics statistics() throws Exception {
+        return repo.inTransaction(unit -> unit.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics());
+    }
+
+    @Test
+    public void stepsShareOnePersistenceContextAndCommitTogether() throws Exception {
+        repo.inTransaction(unit -> {
+            unit.add(new Car("c1", "Toyota", "Corolla", 2019, 4, "Hybrid"));
+            unit.add(new Car("c2", "Honda", "Civic", 2020, 4, "Petrol"));
+            unit.add(new Truck("t1", "Volvo", "FH16", 2018, 25000, true));
+            return null;
+        });
+        boolean[] results = repo.inTransaction(unit -> {
+            Vehicle first = unit.find("c1");
+            assertSame(first, unit.find("c1"));
+            return new boolean[]{
+                    unit.update(new Car("c1", "Toyota", "Corolla", 2021, 5, "Electric")),
+                    unit.update(new Car("missing", "X", "Y", 2000, 4, "Petrol")),
+                    unit.remove("c2"),
+                    unit.find("c2") == null};
+        });
+        assertArrayEquals(new boolean[]{true, false, true, true}, results);
+        assertEquals(2021, repo.getVehicleById("c1").getYear());
+        assertNull(repo.getVehicleById("c2"));
+        assertEquals(2, repo.getAllVehicles().size());
+    }
+
+    @Test
+    public void failingWorkRollsBackEverything() throws Exception {
+        repo.addVehicle(new Car("keep", "Skoda", "Octavia", 2017, 5, "Diesel"));
+        try {
+            repo.inTransaction(unit -> {
+                unit.add(new Car("new", "Kia", "Rio", 2015, 5, "Petrol"));
+                unit.remove("keep");
+                throw new IllegalStateException("abort");
+            });
+            fail("expected the work's exception");
+        } catch (IllegalStateException expected) {
+            assertEquals("abort", expected.getMessage());
+        }
+        assertNotNull(repo.getVehicleById("keep"));
+        assertNull(repo.getVehicleById("new"));
+    }
+
+    @Test
+    public void removeByIdDeletesWithoutLoading() throws Exception {
+        repo.addVehicle(new Car("gone", "Fiat", "Panda", 2012, 5, "Petrol"));
+        Statistics stats = statistics();
+        stats.clear();
+        assertTrue(repo.removeVehicleById("gone"));
+        assertFalse(repo.removeVehicleById("gone"));
+        assertEquals(0, stats.getEntityLoadCount());
+        assertNull(repo.getVehicleById("gone"));
+    }
+
+    @Test
+    public void updateOfMissingVehicleReportsFalse() throws Exception {
+        assertFalse(repo.updateVehicle(new Car("nope", "X", "Y", 2000, 4, "Petrol")));
+        assertNull(repo.getVehicleById("nope"));
+    }
+
+    @Test
+    public void vehicleAddedEarlierInTheUnitCanBeRemoved() throws Exception {
+        assertTrue(repo.inTransaction(unit -> {
+            unit.add(new Car("brief", "Mini", "Cooper", 2022, 3, "Petrol"));
+            return unit.remove("brief");
+        }));
+        assertNull(repo.getVehicleById("brief"));
+    }
+}
@@ -0,0 +1,106 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import data.ColumnarVehicleRepository;
+import data.FleetStatistics;
+import data.VehicleDaoJdbc;
+import data.VehicleDatabaseRepository;
+import data.VehicleRepository;
+import data.VehicleRepositoryJpa;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+
+public class VehicleRepositoryStatisticsTest {
+
+    @Test
+    public void inMemoryStatistics() throws Exception {
+        VehicleDatabaseRepository repo = new VehicleDatabaseRepository();
+        repo.init();
+        exercise(repo);
+    }
+
+    @Test
+    public void columnarStatistics() throws Exception {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        repo.init();
+        exercise(repo);
+    }
+
+    @Test
+    public void jdbcStatistics() throws Exception {
+        VehicleDaoJdbc repo = new VehicleDaoJdbc("jdbc:h2:mem:statsjdbc;DB_CLOSE_DELAY=-1", "sa", "");
+        repo.init();
+        exercise(repo);
+    }
+
+    @Test
+    public void jpaStatistics() throws Exception {
+        VehicleRepositoryJpa repo = new VehicleRepositoryJpa("jdbc:h2:mem:statsjpa;DB_CLOSE_DELAY=-1", "sa", "");
+        try {
+            repo.init();
+            exercise(repo);
+        } finally {
+            repo.close();
+        }
+    }
+
+    private void exercise(VehicleRepository repo) throws Exception {
+        List<Vehicle> batch = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String brand = "Stat" + (i % 4);
+            int year = 2010 + i % 5;
+            switch (i % 4) {
+                case 0: batch.add(new Car(brand, "C", year, 4, "Petrol")); break;
+                case 1: batch.add(new Bike(brand, "B", year, false, "Cruiser")); break;
+                case 2: batch.add(new Truck(brand, "T", year, 500 + i * 10, false)); break;
+                default: batch.add(new Motorcycle(brand, "M", year, 100 + i * 3, "Sports"));
+            }
+        }
+        repo.addVehicles(batch);
+
+        // expected figures computed from the full list (including any seed data)
+        Map<String, Long> types = new TreeMap<>();
+        Map<String, Long> brands = new TreeMap<>();
+        Map<Integer, Long> years = new TreeMap<>();
+        Map<Integer, Long> cc = new TreeMap<>();
+        double payloadSum = 0, payloadMin = Double.MAX_VALUE, payloadMax = -Double.MAX_VALUE;
+        long trucks = 0;
+        for (Vehicle v : repo.getAllVehicles()) {
+            types.merge(v.getClass().getSimpleName().toLowerCase(), 1L, Long::sum);
+            brands.merge(v.getBrand(), 1L, Long::sum);
+            years.merge(v.getYear(), 1L, Long::sum);
+            if (v instanceof Truck) {
+                double p = ((Truck) v).getPayloadCapacityKg();
+                trucks++;
+                payloadSum += p;
+                payloadMin = Math.min(payloadMin, p);
+                payloadMax = Math.max(payloadMax, p);
+            }
+            if (v instanceof Motorcycle) {
+                int engine = ((Motorcycle) v).getEngineCc();
+                cc.merge(engine / FleetStatistics.CC_BUCKET * FleetStatistics.CC_BUCKET, 1L, Long::sum);
+            }
+        }
+
+        FleetStatistics stats = repo.getFleetStatistics();
+        assertEquals(types, stats.getCountsByType());
+        assertEquals(brands, stats.getCountsByBrand());
+        assertEquals(years, stats.getCountsByYear());
+        assertEquals(cc, stats.getEngineCcDistribution());
+        assertEquals(trucks, stats.getTruckPayload().getCount());
+        assertEquals(payloadSum / trucks, stats.getTruckPayload().getAverage(), 1e-6);
+        assertEquals(payloadMin, stats.getTruckPayload().getMin(), 0.0);
+        assertEquals(payloadMax, stats.getTruckPayload().getMax(), 0.0);
+    }
+}
@@ -0,0 +1,76 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import data.ColumnarVehicleRepository;
+import data.VehicleDaoJdbc;
+import data.VehicleDatabaseRepository;
+import data.VehicleQuery;
+import data.VehicleRepository;
+import data.VehicleRepositoryJpa;
+import models.Car;
+import models.Motorcycle;
+import models.Vehicle;
+
+public class VehicleRepositoryStreamTest {
+
+    @Test
+    public void inMemoryStream() throws Exception {
+        VehicleDatabaseRepository repo = new VehicleDatabaseRepository();
+        repo.init();
+        exercise(repo);
+    }
+
+    @Test
+    public void columnarStream() throws Exception {
+        ColumnarVehicleRepository repo = new ColumnarVehicleRepository();
+        repo.init();
+        exercise(repo);
+    }
+
+    @Test
+    public void jdbcStream() throws Exception {
+        VehicleDaoJdbc repo = new VehicleDaoJdbc("jdbc:h2:mem:streamjdbc;DB_CLOSE_DELAY=-1", "sa", "");
+        repo.init();
+        exercise(repo);
+    }
+
+    @Test
+    public void jpaStream() throws Exception {
+        VehicleRepositoryJpa repo = new VehicleRepositoryJpa("jdbc:h2:mem:streamjpa;DB_CLOSE_DELAY=-1", "sa", "");
+        try {
+            repo.init();
+            exercise(repo);
+        } finally {
+            repo.close();
+        }
+    }
+
+    // 1500 rows spans several fetch round trips
+    private void exercise(VehicleRepository repo) throws Exception {
+        List<Vehicle> batch = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            batch.add(i % 3 == 0 ? new Motorcycle("Streamer", "M" + i, 2021, 600, "Sports")
+                                 : new Car("Streamer", "C" + i, 2021, 4, "Petrol"));
+        }
+        repo.addVehicles(batch);
+
+        List<Vehicle> all = new ArrayList<>();
+        repo.streamVehicles(new VehicleQuery(), all::add);
+        assertEquals(repo.getAllVehicles().size(), all.size());
+
+        List<Vehicle> bikes = new ArrayList<>();
+        repo.streamVehicles(VehicleQuery.of("streamer", "motorcycle"), bikes::add);
+        assertEquals(500, bikes.size());
+        for (Vehicle v : bikes) assertTrue(v instanceof Motorcycle);
+
+        List<Vehicle> none = new ArrayList<>();
+        repo.streamVehicles(VehicleQuery.of(null, "spaceship"), none::add);
+        assertTrue(none.isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import data.VehicleDatabaseRepository;
+import models.Car;
+import models.Vehicle;
+import services.VehicleCache;
+import services.VehicleService;
+
+public class VehicleServiceCacheTest {
+
+    // counts the reads that reach the repository
+    static class CountingRepository extends VehicleDatabaseRepository {
+        int byId;
+        int all;
+
+        @Override
+        public Vehicle getVehicleById(String id) {
+            byId++;
+            return super.getVehicleById(id);
+        }
+
+        @Override
+        public List<Vehicle> getAllVehicles() {
+            all++;
+            return super.getAllVehicles();
+        }
+    }
+
+    @Test
+    public void readsAreServedFromCacheUntilAWrite() throws Exception {
+        CountingRepository repo = new CountingRepository();
+        VehicleService service = new VehicleService(repo, 100, 60);
+        Car car = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        service.addVehicle(car);
+
+        service.getVehicleById(car.getId());
+        service.getVehicleById(car.getId());
+        service.getAllVehicles();
+        service.getAllVehicles();
+        assertEquals(1, repo.byId);
+        assertEquals(1, repo.all);
+
+        service.updateVehicle(new Car(car.getId(), "Toyota", "Corolla", 2024, 4, "Hybrid"));
+        assertEquals("Corolla", service.getVehicleById(car.getId()).getModel());
+        assertEquals(1, service.getAllVehicles().size());
+        assertEquals(2, repo.byId);
+        assertEquals(2, repo.all);
+
+        service.removeVehiclesByIds(Arrays.asList(car.getId()));
+        assertNull(service.getVehicleById(car.getId()));
+        assertTrue(service.getAllVehicles().isEmpty());
+
+        VehicleCache.Stats stats = service.getCacheStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(6, stats.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() throws Exception {
+        CountingRepository repo = new CountingRepository();
+        VehicleService service = new VehicleService(repo, 2, 60);
+        Car a = new Car("A", "A", 2020, 4, "Petrol");
+        Car b = new Car("B", "B", 2020, 4, "Petrol");
+        Car c = new Car("C", "C", 2020, 4, "Petrol");
+        service.addVehicles(Arrays.asList(a, b, c));
+
+        service.getVehicleById(a.getId());
+        service.getVehicleById(b.getId());
+        service.getVehicleById(a.getId()); // a is now more recent than b
+        service.getVehicleById(c.getId()); // evicts b
+        assertEquals(3, repo.byId);
+        service.getVehicleById(a.getId());
+        assertEquals(3, repo.byId);
+        service.getVehicleById(b.getId());
+        assertEquals(4, repo.byId);
+        assertEquals(2, service.getCacheStats().getEvictions());
+        assertEquals(2, service.getCacheStats().getSize());
+    }
+
+    @Test
+    public void fullListCountsAgainstMaxSize() throws Exception {
+        CountingRepository repo = new CountingRepository();
+        VehicleService service = new VehicleService(repo, 3, 60);
+        Car a = new Car("A", "A", 2020, 4, "Petrol");
+        Car b = new Car("B", "B", 2020, 4, "Petrol");
+        service.addVehicles(Arrays.asList(a, b));
+
+        service.getVehicleById(a.getId());
+        service.getVehicleById(b.getId());
+        // two vehicles by id plus a list of two is over 3, so the oldest by-id entry goes
+        service.getAllVehicles();
+        service.getAllVehicles();
+        assertEquals(1, repo.all);
+        assertEquals(3, service.getCacheStats().getSize());
+        assertEquals(1, service.getCacheStats().getEvictions());
+        service.getVehicleById(b.getId());
+        assertEquals(2, repo.byId);
+        service.getVehicleById(a.getId());
+        assertEquals(3, repo.byId);
+
+        // a list that does not fit at all is served but never cached
+        service.addVehicles(Arrays.asList(new Car("C", "C", 2020, 4, "Petrol"), new Car("D", "D", 2020, 4, "Petrol")));
+        assertEquals(4, service.getAllVehicles().size());
+        assertEquals(4, service.getAllVehicles().size());
+        assertEquals(3, repo.all);
+        assertTrue(service.getCacheStats().getSize() <= 3);
+    }
+
+    @Test
+    public void entriesExpireAfterTtl() throws Exception {
+        VehicleCache cache = new VehicleCache(10, 30, TimeUnit.MILLISECONDS);
+        Car car = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        int[] loads = {0};
+        VehicleCache.Loader<Vehicle> loader = () -> { loads[0]++; return car; };
+        cache.get(car.getId(), loader);
+        cache.get(car.getId(), loader);
+        assertEquals(1, loads[0]);
+        Thread.sleep(50);
+        cache.get(car.getId(), loader);
+        assertEquals(2, loads[0]);
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    public void zeroSizeDisablesCaching() throws Exception {
+        CountingRepository repo = new CountingRepository();
+        VehicleService service = new VehicleService(repo, 0, 60);
+        Car car = new Car("Toyota", "Camry", 2023, 4, "Hybrid");
+        service.addVehicle(car);
+        service.getVehicleById(car.getId());
+        service.getVehicleById(car.getId());
+        assertEquals(2, repo.byId);
+    }
+}
@@ -0,0 +1,79 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import data.VehicleDatabaseRepository;
+import data.VehiclePage;
+import models.Bike;
+import models.Car;
+import models.Vehicle;
+import services.VehicleService;
+
+public class VehicleServicePagingTest {
+
+    @Test
+    public void cursorWalksWholeFleetOnce() throws Exception {
+        VehicleService service = new VehicleService(new VehicleDatabaseRepository());
+        for (int i = 0; i < 125; i++) {
+            service.addVehicle(new Car("Brand" + (i % 7), "M" + i, 2000 + (i % 20), 4, "Petrol"));
+        }
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        String previous = "";
+        int pages = 0;
+        do {
+            VehiclePage<Vehicle> page = service.getVehiclePage(null, null, 0, 50, cursor);
+            for (Vehicle v : page.getItems()) {
+                assertTrue("ids must ascend", v.getId().compareTo(previous) > 0);
+                previous = v.getId();
+                assertTrue(seen.add(v.getId()));
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(3, pages);
+        assertEquals(125, seen.size());
+    }
+
+    @Test
+    public void filteredPagesUseOffsetAndCursor() throws Exception {
+        VehicleService service = new VehicleService(new VehicleDatabaseRepository());
+        for (int i = 0; i < 30; i++) {
+            service.addVehicle(new Car("Toyota", "C" + i, 2020, 4, "Petrol"));
+            service.addVehicle(new Bike("Honda", "B" + i, 2020, false, "Sports"));
+        }
+        VehiclePage<Vehicle> first = service.getVehiclePage("toy", null, 0, 20, null);
+        assertEquals(20, first.getItems().size());
+        assertTrue(first.isHasMore());
+        VehiclePage<Vehicle> second = service.getVehiclePage("toy", null, 1, 20, null);
+        assertEquals(10, second.getItems().size());
+        assertNull(second.getNextCursor());
+        VehiclePage<Vehicle> viaCursor = service.getVehiclePage("toy", "car", 0, 20, first.getNextCursor());
+        assertEquals(second.getItems().get(0).getId(), viaCursor.getItems().get(0).getId());
+    }
+
+    @Test
+    public void filteredPagesMatchAFullSort() throws Exception {
+        VehicleService service = new VehicleService(new VehicleDatabaseRepository());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Car car = new Car(i % 3 == 0 ? "Toyota" : "Ford", "C" + i, 2020, 4, "Petrol");
+            service.addVehicle(car);
+            if (i % 3 == 0) expected.add(car.getId());
+        }
+        Collections.sort(expected);
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 12; page++) {
+            for (Vehicle v : service.getVehiclePage("toy", null, page, 9, null).getItems()) paged.add(v.getId());
+        }
+        assertEquals(expected, paged);
+    }
+}
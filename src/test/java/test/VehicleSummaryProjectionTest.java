@@ -0,0 +1,114 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.ColumnarVehicleRepository;
+import data.MappedVehicleRepository;
+import data.VehicleDaoJdbc;
+import data.VehicleDatabaseRepository;
+import data.VehiclePage;
+import data.VehicleQuery;
+import data.VehicleRepository;
+import data.VehicleRepositoryJpa;
+import data.VehicleSummary;
+import models.Bike;
+import models.Car;
+import models.Motorcycle;
+import models.Truck;
+import models.Vehicle;
+import services.VehicleService;
+
+public class VehicleSummaryProjectionTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final List<Vehicle> FLEET = Arrays.asList(
+            new Car("a1", "Toyota", "Corolla", 2019, 4, "Hybrid"),
+            new Bike("b1", "Trek", "FX3", 2021, false, "Hybrid"),
+            new Truck("c1", "Volvo", "FH16", 2018, 25000, true),
+            new Motorcycle("d1", "Toyota", "Moto", 2022, 998, "Sport"));
+
+    // every store must answer with the same rows findVehicles would, minus the type-specific fields
+    private static void assertMatchesFindVehicles(VehicleRepository repo) throws Exception {
+        repo.addVehicles(FLEET);
+        for (VehicleQuery query : Arrays.asList(VehicleQuery.of(null, null), VehicleQuery.of("toy", null),
+                VehicleQuery.of(null, "truck"), VehicleQuery.of(null, null).afterId("a1").limit(2))) {
+            List<String> expected = new ArrayList<>();
+            for (Vehicle v : repo.findVehicles(query)) expected.add(VehicleSummary.of(v).toString());
+            List<String> actual = new ArrayList<>();
+            for (VehicleSummary s : repo.findVehicleSummaries(query)) actual.add(s.toString());
+            if (!query.isPaged()) {
+                Collections.sort(expected);
+                Collections.sort(actual);
+            }
+            assertEquals(expected, actual);
+        }
+        assertTrue(repo.findVehicleSummaries(VehicleQuery.of(null, "plane")).isEmpty());
+    }
+
+    @Test
+    public void inMemoryStoreMapsItsVehicles() throws Exception {
+        assertMatchesFindVehicles(new VehicleDatabaseRepository());
+    }
+
+    @Test
+    public void columnarStoreReadsTheSummaryColumns() throws Exception {
+        assertMatchesFindVehicles(new ColumnarVehicleRepository());
+    }
+
+    @Test
+    public void mappedStoreDecodesTheSummaryFields() throws Exception {
+        try (MappedVehicleRepository repo = new MappedVehicleRepository(tmp.getRoot().toPath())) {
+            repo.init();
+            assertMatchesFindVehicles(repo);
+        }
+    }
+
+    @Test
+    public void jdbcSelectsTheSummaryColumns() throws Exception {
+        VehicleDaoJdbc dao = new VehicleDaoJdbc("jdbc:h2:mem:summaryjdbc;DB_CLOSE_DELAY=-1", "sa", "");
+        dao.init();
+        List<String> seeded = new ArrayList<>();
+        for (Vehicle v : dao.getAllVehicles()) seeded.add(v.getId());
+        dao.removeVehiclesByIds(seeded);
+        assertMatchesFindVehicles(dao);
+    }
+
+    @Test
+    public void jpaSelectsAConstructorExpression() throws Exception {
+        VehicleRepositoryJpa repo = new VehicleRepositoryJpa("jdbc:h2:mem:summaryjpa;DB_CLOSE_DELAY=-1", "sa", "",
+                Collections.singletonMap("hibernate.show_sql", "false"));
+        try {
+            repo.init();
+            List<String> seeded = new ArrayList<>();
+            for (Vehicle v : repo.getAllVehicles()) seeded.add(v.getId());
+            repo.removeVehiclesByIds(seeded);
+            assertMatchesFindVehicles(repo);
+        } finally {
+            repo.close();
+        }
+    }
+
+    @Test
+    public void summaryPagesWalkLikeVehiclePages() throws Exception {
+        VehicleService service = new VehicleService(new VehicleDatabaseRepository());
+        for (int i = 0; i < 25; i++) service.addVehicle(new Car("Brand" + i, "M" + i, 2020, 4, "Petrol"));
+        VehiclePage<VehicleSummary> first = service.getVehicleSummaryPage(null, "car", 0, 10, null);
+        assertEquals(10, first.getItems().size());
+        assertEquals("Car", first.getItems().get(0).getType());
+        VehiclePage<Vehicle> full = service.getVehiclePage(null, "car", 0, 10, null);
+        assertEquals(full.getNextCursor(), first.getNextCursor());
+        VehiclePage<VehicleSummary> last = service.getVehicleSummaryPage(null, "car", 2, 10, null);
+        assertEquals(5, last.getItems().size());
+        assertFalse(last.isHasMore());
+    }
+}
@@ -0,0 +1,48 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import concurrency.VirtualThreads;
+
+public class VirtualThreadsTest {
+
+    private static boolean java21() {
+        String spec = System.getProperty("java.specification.version");
+        return !spec.startsWith("1.") && Integer.parseInt(spec) >= 21;
+    }
+
+    @Test
+    public void availabilityFollowsTheRuntime() {
+        assertEquals(java21(), VirtualThreads.isAvailable());
+    }
+
+    @Test
+    public void executorRunsTasksOnNamedVirtualThreadsOrRefuses() throws Exception {
+        if (!VirtualThreads.isAvailable()) {
+            try {
+                VirtualThreads.newExecutor("test-vt-");
+                fail("expected UnsupportedOperationException");
+            } catch (UnsupportedOperationException expected) {
+                assertTrue(expected.getMessage().contains("Java 21"));
+            }
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newExecutor("test-vt-");
+        try {
+            Future<String> name = executor.submit(() -> {
+                Thread t = Thread.currentThread();
+                assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(t));
+                return t.getName();
+            });
+            assertTrue(name.get(10, TimeUnit.SECONDS).startsWith("test-vt-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -3,7 +3,16 @@ package tools;
 /**
  * Helper to run Flyway migrations programmatically when Flyway is available.
  * Uses reflection so compilation does not require Flyway on the classpath.
+ *
+ * Both database backends (VehicleRepositoryJpa and VehicleDaoJdbc) run it on init,
+ * so they share one schema. A vehicles table left by the old JDBC-only schema is
+ * converted on the way (see LegacyJdbcSchema); a database that has tables but no
+ * Flyway history is baselined at version 0, so V1 onwards still run on it.
  */
+import java.sql.DriverManager;
+
+import javax.sql.DataSource;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,12 +20,32 @@ public class DbMigrations {
     private static final Logger LOGGER = LoggerFactory.getLogger(DbMigrations.class);
 
     public static void migrate(String url, String user, String pass) {
+        LegacyJdbcSchema.Connections connections = user == null
+                ? () -> DriverManager.getConnection(url)
+                : () -> DriverManager.getConnection(url, user, pass);
+        migrate(connections, configure -> configure.getClass().getMethod("dataSource", String.class, String.class, String.class)
+                .invoke(configure, url, user, pass));
+    }
+
+    /**
+     * Migrate the database behind dataSource, e.g. a pool
+     */
+    public static void migrate(DataSource dataSource) {
+        migrate(dataSource::getConnection, configure -> configure.getClass().getMethod("dataSource", DataSource.class)
+                .invoke(configure, dataSource));
+    }
+
+    @FunctionalInterface
+    private interface Target {
+        Object apply(Object configure) throws Exception;
+    }
+
+    private static void migrate(LegacyJdbcSchema.Connections connections, Target target) {
         try {
-            // Use reflection to call Flyway.configure().dataSource(...).locations(...).load().migrate();
+            // Use reflection to call Flyway.configure().dataSource(...).locations(...).baselineOnMigrate(...).load().migrate();
             Class<?> flywayClass = Class.forName("org.flywaydb.core.Flyway");
             Object configure = flywayClass.getMethod("configure").invoke(null);
-            Object withDataSource = configure.getClass().getMethod("dataSource", String.class, String.class, String.class)
-                    .invoke(configure, url, user, pass);
+            Object withDataSource = target.apply(configure);
             Object withLocations = null;
             try {
                 // Flyway 6+ uses varargs String... for locations (which at runtime is String[])
@@ -27,8 +56,13 @@ public class DbMigrations {
                 withLocations = withDataSource.getClass().getMethod("locations", String.class)
                         .invoke(withDataSource, "classpath:db/migration");
             }
-            Object flyway = withLocations.getClass().getMethod("load").invoke(withLocations);
+            // the renamed legacy table (or any other) makes the schema non-empty; start below V1
+            Object withBaseline = withLocations.getClass().getMethod("baselineOnMigrate", boolean.class).invoke(withLocations, true);
+            withBaseline = withBaseline.getClass().getMethod("baselineVersion", String.class).invoke(withBaseline, "0");
+            LegacyJdbcSchema.set(connections);
+            Object flyway = withBaseline.getClass().getMethod("load").invoke(withBaseline);
             flyway.getClass().getMethod("migrate").invoke(flyway);
+            LegacyJdbcSchema.copy(connections);
         } catch (ClassNotFoundException cnf) {
             LOGGER.info("Flyway not available on classpath; skipping migrations");
         } catch (Throwable e) {
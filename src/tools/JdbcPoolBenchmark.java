@@ -0,0 +1,77 @@
+package tools;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import data.JdbcPool;
+import data.VehicleDaoJdbc;
+import models.Car;
+import models.Vehicle;
+
+/**
+ * Compares VehicleDaoJdbc on per-call DriverManager connections with the pooled DAO.
+ * Each run inserts and then reads back the same number of vehicles from several threads
+ * against a file-based H2 database, and prints throughput (plus pool metrics when pooled).
+ *
+ * Usage: JdbcPoolBenchmark [operations] [threads] [dbPath]
+ */
+public class JdbcPoolBenchmark {
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String path = args.length > 2 ? args[2] : "./target/jdbc-bench";
+
+        // warm up both paths once so JIT and H2 file creation are not measured
+        run(new VehicleDaoJdbc(fresh(path + "-warm-direct"), "sa", ""), 2_000, threads);
+        try (VehicleDaoJdbc warm = VehicleDaoJdbc.pooled(fresh(path + "-warm-pooled"), "sa", "", settings(threads))) {
+            run(warm, 2_000, threads);
+        }
+
+        double direct = run(new VehicleDaoJdbc(fresh(path + "-direct"), "sa", ""), operations, threads);
+        System.out.printf("DriverManager per call: %,.0f ops/s%n", direct);
+
+        try (VehicleDaoJdbc pooled = VehicleDaoJdbc.pooled(fresh(path + "-pooled"), "sa", "", settings(threads))) {
+            double rate = run(pooled, operations, threads);
+            System.out.printf("Pooled (%d connections): %,.0f ops/s (%.1fx)%n", threads, rate, rate / direct);
+            System.out.println("Pool: " + pooled.getPoolStats());
+        }
+    }
+
+    // start every run from an empty database file
+    private static String fresh(String path) throws Exception {
+        Files.deleteIfExists(Paths.get(path + ".mv.db"));
+        return "jdbc:h2:" + path;
+    }
+
+    private static JdbcPool.Settings settings(int threads) {
+        return new JdbcPool.Settings().maximumPoolSize(threads).minimumIdle(threads);
+    }
+
+    // returns operations per second: each operation is one insert followed by one lookup
+    private static double run(VehicleDaoJdbc dao, int operations, int threads) throws Exception {
+        dao.init();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int perThread = operations / threads;
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Vehicle v = new Car("Bench", "Model", 2020, 4, "Petrol");
+                    dao.addVehicle(v);
+                    dao.getVehicleById(v.getId());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        return perThread * threads / (elapsed / 1_000_000_000.0);
+    }
+}
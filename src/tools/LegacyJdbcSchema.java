@@ -0,0 +1,91 @@
+package tools;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Moves a vehicles table created by the old VehicleDaoJdbc schema (columns type, doors,
+ * fuel, sidecar, category, payload, trailer, cc; type holding "Car", "Bike"...) onto the
+ * Flyway schema. DbMigrations calls set() before migrating, which renames the old table
+ * out of the way and drops its indexes so V1/V2 create the real ones, and copy() after,
+ * which moves the rows over and drops the old table.
+ *
+ * Both steps are safe to repeat: copy() skips ids already present, and an interrupted
+ * conversion is finished on the next start.
+ */
+final class LegacyJdbcSchema {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LegacyJdbcSchema.class);
+
+    static final String LEGACY_TABLE = "vehicles_jdbc_legacy";
+    private static final String[] LEGACY_INDEXES = {"idx_vehicles_brand", "idx_vehicles_type", "idx_vehicles_year"};
+    private static final String KNOWN_TYPES = "('CAR', 'DRIVABLECAR', 'BIKE', 'TRUCK', 'MOTORCYCLE')";
+
+    @FunctionalInterface
+    interface Connections {
+        Connection open() throws SQLException;
+    }
+
+    private LegacyJdbcSchema() {}
+
+    /**
+     * If vehicles still has the old layout, rename it to LEGACY_TABLE and drop its
+     * indexes (their names are the ones V2 creates); returns whether it did
+     */
+    static boolean set(Connections connections) throws SQLException {
+        try (Connection c = connections.open(); Statement s = c.createStatement()) {
+            if (!selects(s, "SELECT type, doors, cc FROM vehicles WHERE 1 = 0")) return false;
+            for (String index : LEGACY_INDEXES) s.execute("DROP INDEX IF EXISTS " + index);
+            s.execute("ALTER TABLE vehicles RENAME TO " + LEGACY_TABLE);
+            LOGGER.info("Found a vehicles table in the old JDBC layout; moving it to the Flyway schema");
+            return true;
+        }
+    }
+
+    /**
+     * Copy the rows of LEGACY_TABLE into the migrated vehicles table, then drop it. A row
+     * whose type is not a known vehicle type (the old DAO could not read those either)
+     * is left behind, and so is the table, for a look by hand.
+     */
+    static void copy(Connections connections) throws SQLException {
+        try (Connection c = connections.open(); Statement s = c.createStatement()) {
+            if (!selects(s, "SELECT id FROM " + LEGACY_TABLE + " WHERE 1 = 0")) return;
+            // DrivableCar rows were written with the car columns filled in; they come back as cars
+            int copied = s.executeUpdate("INSERT INTO vehicles(id, vehicle_type, brand, model, manufacture_year, "
+                    + "num_doors, fuel_type, has_sidecar, bike_type, payload_capacity_kg, has_trailer, engine_cc, category) "
+                    + "SELECT l.id, CASE WHEN UPPER(l.type) = 'DRIVABLECAR' THEN 'CAR' ELSE UPPER(l.type) END, "
+                    + "l.brand, l.model, l.manufacture_year, l.doors, l.fuel, l.sidecar, "
+                    + "CASE WHEN UPPER(l.type) = 'BIKE' THEN l.category END, l.payload, l.trailer, l.cc, "
+                    + "CASE WHEN UPPER(l.type) = 'MOTORCYCLE' THEN l.category END "
+                    + "FROM " + LEGACY_TABLE + " l "
+                    + "WHERE UPPER(l.type) IN " + KNOWN_TYPES
+                    + " AND NOT EXISTS (SELECT 1 FROM vehicles v WHERE v.id = l.id)");
+            long unknown;
+            try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM " + LEGACY_TABLE
+                    + " WHERE type IS NULL OR UPPER(type) NOT IN " + KNOWN_TYPES)) {
+                rs.next();
+                unknown = rs.getLong(1);
+            }
+            if (unknown == 0) {
+                s.execute("DROP TABLE " + LEGACY_TABLE);
+                LOGGER.info("Copied {} vehicles from the old JDBC layout", copied);
+            } else {
+                LOGGER.warn("Copied {} vehicles from the old JDBC layout; {} rows of unknown type remain in {}",
+                        copied, unknown, LEGACY_TABLE);
+            }
+        }
+    }
+
+    // Whether sql runs, i.e. the table and columns it names exist
+    private static boolean selects(Statement s, String sql) {
+        try (ResultSet ignored = s.executeQuery(sql)) {
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package tools;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import concurrency.VirtualThreads;
+import data.VehicleRepository;
+import main.SpringBootApp;
+import models.Car;
+import models.Vehicle;
+
+/**
+ * Compares the REST API on Tomcat's platform-thread pool with server.virtual-threads=true.
+ * For each model the Spring server is started in-process on a random port and
+ * GET /api/vehicles/{id} is driven from a fixed number of concurrent keep-alive
+ * connections, each sending its next request as soon as the previous answer arrives.
+ * After a warm-up it prints throughput and p50/p99/max latency.
+ *
+ * The server uses the in-memory store with the read cache off, and every repository call
+ * first sleeps storeLatencyMs to stand in for a database round trip - the blocking that
+ * caps the platform model at server.tomcat.threads.max requests in flight. Use 0 to
+ * measure the bare in-memory store. The virtual-thread run needs a Java 21 runtime and
+ * is skipped on older JVMs.
+ *
+ * Usage: RestLoadTest [connections] [seconds] [storeLatencyMs]
+ */
+public class RestLoadTest {
+    private static final int FLEET = 10_000;
+    // latency histogram: 10 microsecond buckets up to 10 seconds, slower requests share the last
+    private static final long BUCKET_NANOS = 10_000;
+    private static final int BUCKETS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int latencyMs = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int warmup = Math.max(1, Math.min(5, seconds / 4));
+
+        System.out.printf("%,d connections, %ds measured after %ds warm-up, %d ms store latency%n",
+                connections, seconds, warmup, latencyMs);
+        run("platform", false, connections, warmup, seconds, latencyMs);
+        if (VirtualThreads.isAvailable()) {
+            run("virtual", true, connections, warmup, seconds, latencyMs);
+        } else {
+            System.out.println("virtual: skipped, needs a Java 21 runtime (running " + System.getProperty("java.version") + ")");
+        }
+    }
+
+    private static void run(String name, boolean virtual, int connections, int warmup, int seconds, int latencyMs) throws Exception {
+        // command-line arguments, so they win over application.properties
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(SpringBootApp.class)
+                .initializers(c -> c.getBeanFactory().addBeanPostProcessor(slowStore(latencyMs)))
+                .run("--server.port=0",
+                        "--server.virtual-threads=" + virtual,
+                        "--vehicles.store=memory",
+                        "--vehicles.cache.size=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + name,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        ExecutorService clientThreads = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Vehicle> fleet = new ArrayList<>(FLEET);
+            for (int i = 0; i < FLEET; i++) fleet.add(new Car("v" + i, "Brand" + i % 20, "Model", 2000 + i % 25, 4, "Petrol"));
+            ctx.getBean(VehicleRepository.class).addVehicles(fleet);
+
+            String base = "http://localhost:" + ctx.getEnvironment().getProperty("local.server.port") + "/api/vehicles/v";
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(clientThreads)
+                    .build();
+            drive(client, base, connections, warmup);
+            Result r = drive(client, base, connections, seconds);
+            String model = virtual ? "virtual threads"
+                    : ctx.getEnvironment().getProperty("server.tomcat.threads.max", "200") + " Tomcat threads";
+            System.out.printf("%s (%s): %,.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %,d requests, %,d errors%n",
+                    name, model, r.throughput(), r.percentileMillis(50), r.percentileMillis(99), r.maxNanos / 1e6,
+                    r.count(), r.errors.get());
+        } finally {
+            clientThreads.shutdownNow();
+            ctx.close();
+        }
+    }
+
+    // closed loop: every connection keeps exactly one request outstanding until the deadline
+    private static Result drive(HttpClient client, String base, int connections, int seconds) throws InterruptedException {
+        Result result = new Result();
+        CountDownLatch done = new CountDownLatch(connections);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        result.startNanos = System.nanoTime();
+        for (int i = 0; i < connections; i++) next(client, base, deadline, result, done);
+        done.await();
+        result.endNanos = System.nanoTime();
+        return result;
+    }
+
+    private static void next(HttpClient client, String base, long deadline, Result result, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + ThreadLocalRandom.current().nextInt(FLEET)))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            result.record(System.nanoTime() - start, error == null && response.statusCode() == 200);
+            next(client, base, deadline, result, done);
+        });
+    }
+
+    // wraps the store so every call pays a fixed, thread-blocking delay
+    private static BeanPostProcessor slowStore(int latencyMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (latencyMs <= 0 || !(bean instanceof VehicleRepository)) return bean;
+                return Proxy.newProxyInstance(VehicleRepository.class.getClassLoader(), new Class<?>[]{VehicleRepository.class},
+                        (proxy, method, args) -> {
+                            if (method.getDeclaringClass() != Object.class) Thread.sleep(latencyMs);
+                            try {
+                                return method.invoke(bean, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        };
+    }
+
+    private static final class Result {
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        final AtomicLong errors = new AtomicLong();
+        volatile long maxNanos;
+        long startNanos;
+        long endNanos;
+
+        void record(long nanos, boolean ok) {
+            if (!ok) errors.incrementAndGet();
+            histogram.incrementAndGet((int) Math.min(BUCKETS - 1, nanos / BUCKET_NANOS));
+            if (nanos > maxNanos) {
+                synchronized (this) {
+                    if (nanos > maxNanos) maxNanos = nanos;
+                }
+            }
+        }
+
+        long count() {
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) n += histogram.get(i);
+            return n;
+        }
+
+        double throughput() {
+            return count() / ((endNanos - startNanos) / 1e9);
+        }
+
+        // upper bound of the bucket holding the given percentile
+        double percentileMillis(double percentile) {
+            long rank = (long) Math.ceil(count() * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank && seen > 0) return (i + 1) * BUCKET_NANOS / 1e6;
+            }
+            return 0;
+        }
+    }
+}
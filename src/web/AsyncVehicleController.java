@@ -0,0 +1,130 @@
+package web;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import models.Vehicle;
+import services.AsyncVehicleService;
+
+/**
+ * Non-blocking counterparts of the main SpringVehicleController endpoints. Each handler
+ * hands the call to AsyncVehicleService and returns its CompletableFuture, so the
+ * servlet thread goes back to Tomcat while the repository works and the response is
+ * written when the future completes. When the service's queue is full the answer is
+ * 503 with Retry-After instead of another waiting request.
+ */
+@RestController
+@RequestMapping("/api/async/vehicles")
+public class AsyncVehicleController {
+
+    private final AsyncVehicleService service;
+
+    public AsyncVehicleController(AsyncVehicleService service) {
+        this.service = service;
+    }
+
+    /**
+     * Same parameters and responses as GET /api/vehicles, including view=summary
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<Object>> listAll(@RequestParam(value = "brand", required = false) String brand,
+                                                             @RequestParam(value = "type", required = false) String type,
+                                                             @RequestParam(value = "page", required = false) Integer page,
+                                                             @RequestParam(value = "limit", required = false) Integer limit,
+                                                             @RequestParam(value = "after", required = false) String after,
+                                                             @RequestParam(value = "view", defaultValue = "full") String view) {
+        boolean summary = view.equalsIgnoreCase("summary");
+        if (!summary && !view.equalsIgnoreCase("full")) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        if (page != null || limit != null || after != null) {
+            int size = SpringVehicleController.pageSize(limit);
+            int pageNo;
+            try {
+                pageNo = SpringVehicleController.pageNumber(page, size);
+            } catch (IllegalArgumentException bad) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", bad.getMessage())));
+            }
+            return summary ? respond(service.getVehicleSummaryPage(brand, type, pageNo, size, after), ResponseEntity::ok)
+                    : respond(service.getVehiclePage(brand, type, pageNo, size, after), ResponseEntity::ok);
+        }
+        if (summary) {
+            return respond(service.filterVehicleSummaries(brand, type), ResponseEntity::ok);
+        }
+        if ((brand != null && !brand.isEmpty()) || (type != null && !type.isEmpty())) {
+            return respond(service.filterVehicles(brand, type), ResponseEntity::ok);
+        }
+        return respond(service.getAllVehicles(), ResponseEntity::ok);
+    }
+
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Object>> getById(@PathVariable("id") String id) {
+        return respond(service.getVehicleById(id), v -> v == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(v));
+    }
+
+    @GetMapping("/stats")
+    public CompletableFuture<ResponseEntity<Object>> statistics() {
+        return respond(service.getFleetStatistics(), ResponseEntity::ok);
+    }
+
+    @GetMapping("/stats/summary")
+    public CompletableFuture<ResponseEntity<Object>> summary() {
+        return respond(service.getFleetSummary(), ResponseEntity::ok);
+    }
+
+    /**
+     * Worker, queue and rejection counters of the async executor; answered directly
+     */
+    @GetMapping("/executor/stats")
+    public AsyncVehicleService.Stats executorStats() {
+        return service.getStats();
+    }
+
+    @PostMapping(path = "/add", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<Object>> addVehicle(@RequestBody Map<String, Object> body) {
+        Vehicle v;
+        try {
+            v = SpringVehicleController.buildVehicle(body, null);
+        } catch (IllegalArgumentException bad) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", bad.getMessage())));
+        }
+        return respond(service.addVehicle(v), ignored -> ResponseEntity
+                .created(java.net.URI.create("/api/vehicles/" + v.getId())).body(Map.of("id", v.getId())));
+    }
+
+    @DeleteMapping(path = "/{id}")
+    public CompletableFuture<ResponseEntity<Object>> deleteVehicleById(@PathVariable("id") String id) {
+        return respond(service.removeVehicleById(id), ok -> ok ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build());
+    }
+
+    private static <T> CompletableFuture<ResponseEntity<Object>> respond(CompletableFuture<T> call,
+                                                                         Function<? super T, ResponseEntity<Object>> ok) {
+        return call.handle((value, error) -> error == null ? ok.apply(value) : failure(error));
+    }
+
+    private static ResponseEntity<Object> failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Too many pending requests"));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", String.valueOf(cause.getMessage())));
+    }
+}
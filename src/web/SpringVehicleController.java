@@ -1,8 +1,16 @@
 package web;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,12 +22,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import data.EntityCacheStats;
+import data.FleetStatistics;
+import data.FleetSummary;
 import models.Bike;
 import models.Car;
 import models.Motorcycle;
 import models.Truck;
 import models.Vehicle;
+import services.VehicleCache;
 import services.VehicleService;
 
 @RestController
@@ -27,20 +40,149 @@ import services.VehicleService;
 public class SpringVehicleController {
 
     private final VehicleService service;
+    private final ObjectMapper mapper;
 
-    public SpringVehicleController(VehicleService service) {
+    public SpringVehicleController(VehicleService service, ObjectMapper mapper) {
         this.service = service;
+        this.mapper = mapper;
+    }
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Page size for the limit parameter, clamped to 1..MAX_PAGE_SIZE
+     */
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
 
+    /**
+     * Page number for the page parameter. Throws IllegalArgumentException (answered with
+     * 400) when it is negative or its offset, plus the look-ahead row, overflows an int.
+     */
+    static int pageNumber(Integer page, int size) {
+        if (page == null) return 0;
+        if (page < 0) throw new IllegalArgumentException("page must be >= 0");
+        if ((long) page * size + size + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("page " + page + " is out of range for limit " + size);
+        }
+        return page;
+    }
+
+    /**
+     * Lists vehicles. Without paging parameters the full (optionally filtered) list is
+     * returned as before; with page, limit or after the response is a VehiclePage of
+     * at most limit vehicles ordered by id, whose nextCursor feeds the next "after".
+     * limit is clamped to 1..MAX_PAGE_SIZE; a page that is negative or too far out to
+     * address is answered with 400. view=summary returns VehicleSummary rows (id, type,
+     * brand, model, year) instead of full vehicles, read from the store without the
+     * type-specific columns.
+     */
     @GetMapping
-    public List<Vehicle> listAll(@RequestParam(value = "brand", required = false) String brand,
-                                 @RequestParam(value = "type", required = false) String type) throws Exception {
+    public Object listAll(@RequestParam(value = "brand", required = false) String brand,
+                          @RequestParam(value = "type", required = false) String type,
+                          @RequestParam(value = "page", required = false) Integer page,
+                          @RequestParam(value = "limit", required = false) Integer limit,
+                          @RequestParam(value = "after", required = false) String after,
+                          @RequestParam(value = "view", defaultValue = "full") String view) throws Exception {
+        boolean summary = view.equalsIgnoreCase("summary");
+        if (!summary && !view.equalsIgnoreCase("full")) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (page != null || limit != null || after != null) {
+            int size = pageSize(limit);
+            int pageNo;
+            try {
+                pageNo = pageNumber(page, size);
+            } catch (IllegalArgumentException bad) {
+                return ResponseEntity.badRequest().body(Map.of("error", bad.getMessage()));
+            }
+            return summary ? service.getVehicleSummaryPage(brand, type, pageNo, size, after)
+                    : service.getVehiclePage(brand, type, pageNo, size, after);
+        }
+        if (summary) {
+            return service.filterVehicleSummaries(brand, type);
+        }
         if ((brand != null && !brand.isEmpty()) || (type != null && !type.isEmpty())) {
             return service.filterVehicles(brand, type);
         }
         return service.getAllVehicles();
     }
 
+    /**
+     * Streams the (optionally filtered) fleet as it comes off the repository instead of
+     * building a list first: a JSON array by default, or one vehicle per line with
+     * format=ndjson. Each vehicle is serialized and released before the next is read.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "brand", required = false) String brand,
+                                                        @RequestParam(value = "type", required = false) String type,
+                                                        @RequestParam(value = "format", defaultValue = "json") String format) {
+        boolean ndjson = format.equalsIgnoreCase("ndjson");
+        if (!ndjson && !format.equalsIgnoreCase("json")) {
+            return ResponseEntity.badRequest().build();
+        }
+        // runtime-typed writer so subclass fields are included; no flush per vehicle
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (ndjson) gen.setRootValueSeparator(null);
+                else gen.writeStartArray();
+                service.streamVehicles(brand, type, v -> {
+                    try {
+                        writer.writeValue(gen, v);
+                        if (ndjson) gen.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) gen.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        };
+        MediaType contentType = ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+
+    /**
+     * Fleet analytics computed by the store (GROUP BY in SQL, index sizes in memory)
+     */
+    @GetMapping("/stats")
+    public FleetStatistics statistics() throws Exception {
+        return service.getFleetStatistics();
+    }
+
+    /**
+     * Cheap-to-poll fleet aggregates (count, average/top speed, counts by type and brand)
+     */
+    @GetMapping("/stats/summary")
+    public FleetSummary summary() throws Exception {
+        return service.getFleetSummary();
+    }
+
+    /**
+     * Counters of the service's read-through cache, for sizing vehicles.cache.size
+     */
+    @GetMapping("/cache/stats")
+    public VehicleCache.Stats cacheStats() {
+        return service.getCacheStats();
+    }
+
+    /**
+     * Counters of the JPA second-level and query caches behind the service cache
+     */
+    @GetMapping("/cache/entity-stats")
+    public EntityCacheStats entityCacheStats() {
+        return service.getEntityCacheStats();
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Vehicle> getById(@PathVariable("id") String id) throws Exception {
         Vehicle v = service.getVehicleById(id);
@@ -51,34 +193,11 @@ public class SpringVehicleController {
     @PostMapping(path = "/add", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Object> addVehicle(@RequestBody Map<String, Object> body) {
         try {
-            String type = (String) body.getOrDefault("type", "");
-            if (type == null || type.trim().isEmpty()) return ResponseEntity.badRequest().body(Map.of("error", "Missing field: type"));
-            String brand = (String) body.get("brand");
-            String model = (String) body.get("model");
-            Integer year = (body.get("year") instanceof Number) ? ((Number) body.get("year")).intValue() : null;
-            if (brand == null || brand.trim().isEmpty()) return ResponseEntity.badRequest().body(Map.of("error", "Missing field: brand"));
-            if (model == null || model.trim().isEmpty()) return ResponseEntity.badRequest().body(Map.of("error", "Missing field: model"));
-            if (year == null || year < 1886) return ResponseEntity.badRequest().body(Map.of("error", "Invalid or missing manufacture year"));
-
-            Vehicle v = null;
-            if (type.equalsIgnoreCase("car")) {
-                Integer doors = (body.get("doors") instanceof Number) ? ((Number) body.get("doors")).intValue() : 4;
-                String fuel = (String) body.getOrDefault("fuel", "Petrol");
-                v = new Car(brand, model, year, doors, fuel);
-            } else if (type.equalsIgnoreCase("bike")) {
-                Boolean sidecar = (body.get("sidecar") instanceof Boolean) ? (Boolean) body.get("sidecar") : false;
-                String btype = (String) body.getOrDefault("bikeType", "Street");
-                v = new Bike(brand, model, year, sidecar, btype);
-            } else if (type.equalsIgnoreCase("truck")) {
-                Double payload = (body.get("payload") instanceof Number) ? ((Number) body.get("payload")).doubleValue() : 0.0;
-                Boolean trailer = (body.get("trailer") instanceof Boolean) ? (Boolean) body.get("trailer") : false;
-                v = new Truck(brand, model, year, payload, trailer);
-            } else if (type.equalsIgnoreCase("motorcycle")) {
-                Integer cc = (body.get("cc") instanceof Number) ? ((Number) body.get("cc")).intValue() : 0;
-                String mcat = (String) body.getOrDefault("category", "Sports");
-                v = new Motorcycle(brand, model, year, cc, mcat);
-            } else {
-                return ResponseEntity.badRequest().body(Map.of("error", "Unknown vehicle type: " + type));
+            Vehicle v;
+            try {
+                v = buildVehicle(body, null);
+            } catch (IllegalArgumentException bad) {
+                return ResponseEntity.badRequest().body(Map.of("error", bad.getMessage()));
             }
             service.addVehicle(v);
             // return 201 Created with Location header
@@ -88,6 +207,89 @@ public class SpringVehicleController {
         }
     }
 
+    /**
+     * Bulk mutations in one request: {"add": [vehicle...], "update": [vehicle with id...], "delete": [id...]}.
+     * Each group is applied with a single batched repository call; the response reports the counts.
+     */
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> bulk(@RequestBody Map<String, Object> body) {
+        try {
+            List<Vehicle> toAdd = new ArrayList<>();
+            List<Vehicle> toUpdate = new ArrayList<>();
+            List<String> toDelete = new ArrayList<>();
+            try {
+                for (Object o : listField(body, "add")) toAdd.add(buildVehicle(asMap(o), null));
+                for (Object o : listField(body, "update")) {
+                    Map<String, Object> m = asMap(o);
+                    Object id = m.get("id");
+                    if (!(id instanceof String) || ((String) id).isEmpty()) throw new IllegalArgumentException("Missing field: id");
+                    toUpdate.add(buildVehicle(m, (String) id));
+                }
+                for (Object o : listField(body, "delete")) {
+                    if (!(o instanceof String)) throw new IllegalArgumentException("delete expects a list of ids");
+                    toDelete.add((String) o);
+                }
+            } catch (IllegalArgumentException bad) {
+                return ResponseEntity.badRequest().body(Map.of("error", bad.getMessage()));
+            }
+            if (!toAdd.isEmpty()) service.addVehicles(toAdd);
+            int updated = toUpdate.isEmpty() ? 0 : service.updateVehicles(toUpdate);
+            int deleted = toDelete.isEmpty() ? 0 : service.removeVehiclesByIds(toDelete);
+            List<String> addedIds = new ArrayList<>();
+            for (Vehicle v : toAdd) addedIds.add(v.getId());
+            return ResponseEntity.ok(Map.of("added", addedIds, "updated", updated, "deleted", deleted));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    private static List<?> listField(Map<String, Object> body, String field) {
+        Object o = body.get(field);
+        if (o == null) return List.of();
+        if (!(o instanceof List)) throw new IllegalArgumentException(field + " must be a list");
+        return (List<?>) o;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object o) {
+        if (!(o instanceof Map)) throw new IllegalArgumentException("Expected a vehicle object");
+        return (Map<String, Object>) o;
+    }
+
+    /**
+     * Build a vehicle from a request body; id null generates a new one.
+     * Throws IllegalArgumentException describing the first invalid field.
+     */
+    static Vehicle buildVehicle(Map<String, Object> body, String id) {
+        String type = (String) body.getOrDefault("type", "");
+        if (type == null || type.trim().isEmpty()) throw new IllegalArgumentException("Missing field: type");
+        String brand = (String) body.get("brand");
+        String model = (String) body.get("model");
+        Integer year = (body.get("year") instanceof Number) ? ((Number) body.get("year")).intValue() : null;
+        if (brand == null || brand.trim().isEmpty()) throw new IllegalArgumentException("Missing field: brand");
+        if (model == null || model.trim().isEmpty()) throw new IllegalArgumentException("Missing field: model");
+        if (year == null || year < 1886) throw new IllegalArgumentException("Invalid or missing manufacture year");
+
+        if (type.equalsIgnoreCase("car")) {
+            Integer doors = (body.get("doors") instanceof Number) ? ((Number) body.get("doors")).intValue() : 4;
+            String fuel = (String) body.getOrDefault("fuel", "Petrol");
+            return id == null ? new Car(brand, model, year, doors, fuel) : new Car(id, brand, model, year, doors, fuel);
+        } else if (type.equalsIgnoreCase("bike")) {
+            Boolean sidecar = (body.get("sidecar") instanceof Boolean) ? (Boolean) body.get("sidecar") : false;
+            String btype = (String) body.getOrDefault("bikeType", "Street");
+            return id == null ? new Bike(brand, model, year, sidecar, btype) : new Bike(id, brand, model, year, sidecar, btype);
+        } else if (type.equalsIgnoreCase("truck")) {
+            Double payload = (body.get("payload") instanceof Number) ? ((Number) body.get("payload")).doubleValue() : 0.0;
+            Boolean trailer = (body.get("trailer") instanceof Boolean) ? (Boolean) body.get("trailer") : false;
+            return id == null ? new Truck(brand, model, year, payload, trailer) : new Truck(id, brand, model, year, payload, trailer);
+        } else if (type.equalsIgnoreCase("motorcycle")) {
+            Integer cc = (body.get("cc") instanceof Number) ? ((Number) body.get("cc")).intValue() : 0;
+            String mcat = (String) body.getOrDefault("category", "Sports");
+            return id == null ? new Motorcycle(brand, model, year, cc, mcat) : new Motorcycle(id, brand, model, year, cc, mcat);
+        }
+        throw new IllegalArgumentException("Unknown vehicle type: " + type);
+    }
+
     @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Object> updateVehicle(@PathVariable("id") String id, @RequestBody Map<String, Object> body) {
         try {
@@ -97,24 +299,39 @@ public class SpringVehicleController {
             String brand = (String) body.get("brand");
             String model = (String) body.get("model");
             Integer year = (body.get("year") instanceof Number) ? ((Number) body.get("year")).intValue() : null;
-            if (brand != null) {
-                // use reflection or setters if available
-                java.lang.reflect.Method m = existing.getClass().getMethod("setBrand", String.class);
-                m.invoke(existing, brand);
-            }
-            if (model != null) {
-                try { java.lang.reflect.Method m2 = existing.getClass().getMethod("setModel", String.class); m2.invoke(existing, model); } catch (NoSuchMethodException nms) {}
-            }
-            if (year != null && year >= 1886) {
-                try { java.lang.reflect.Method m3 = existing.getClass().getMethod("setManufactureYear", int.class); m3.invoke(existing, year); } catch (NoSuchMethodException nms) {}
-            }
-            service.updateVehicle(existing);
+            if (year != null && year < 1886) year = null;
+            // the fetched vehicle may be the cached instance other readers get, so it is
+            // never changed; the update is a new vehicle with the same id
+            service.updateVehicle(withFields(existing, brand, model, year));
             return ResponseEntity.ok(Map.of("result","updated"));
         } catch (Exception ex) {
             return ResponseEntity.status(500).body(Map.of("error", ex.getMessage()));
         }
     }
 
+    /**
+     * Copy of v with brand, model and year replaced where not null
+     */
+    static Vehicle withFields(Vehicle v, String brand, String model, Integer year) {
+        String b = brand != null ? brand : v.getBrand();
+        String m = model != null ? model : v.getModel();
+        int y = year != null ? year : v.getYear();
+        if (v instanceof Car) {
+            Car c = (Car) v;
+            return new Car(v.getId(), b, m, y, c.getNumDoors(), c.getFuelType());
+        } else if (v instanceof Bike) {
+            Bike bike = (Bike) v;
+            return new Bike(v.getId(), b, m, y, bike.hasSidecar(), bike.getType());
+        } else if (v instanceof Truck) {
+            Truck t = (Truck) v;
+            return new Truck(v.getId(), b, m, y, t.getPayloadCapacityKg(), t.hasTrailer());
+        } else if (v instanceof Motorcycle) {
+            Motorcycle moto = (Motorcycle) v;
+            return new Motorcycle(v.getId(), b, m, y, moto.getEngineCc(), moto.getCategory());
+        }
+        throw new IllegalArgumentException("Unsupported vehicle type: " + v.getClass().getName());
+    }
+
     @DeleteMapping(path = "/{id}")
     public ResponseEntity<Object> deleteVehicleById(@PathVariable("id") String id) {
         try {
@@ -134,4 +351,24 @@ public class SpringVehicleController {
             return ResponseEntity.status(500).body(ex.getMessage());
         }
     }
+
+    @PostMapping(path = "/saveSnapshot")
+    public ResponseEntity<String> saveSnapshot() {
+        try {
+            service.saveToSnapshot("vehicles.snap");
+            return ResponseEntity.ok("saved");
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(ex.getMessage());
+        }
+    }
+
+    @PostMapping(path = "/loadSnapshot")
+    public ResponseEntity<String> loadSnapshot() {
+        try {
+            service.loadFromSnapshot("vehicles.snap");
+            return ResponseEntity.ok("loaded");
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(ex.getMessage());
+        }
+    }
 }
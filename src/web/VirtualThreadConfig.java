@@ -0,0 +1,60 @@
+package web;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import concurrency.VirtualThreads;
+
+/**
+ * server.virtual-threads=true runs every Tomcat request - and so the VehicleService and
+ * repository calls it makes - on its own virtual thread instead of a thread from the
+ * fixed server.tomcat.threads.max pool. A request blocked on JDBC, JPA or file I/O then
+ * parks cheaply, so concurrency is bounded by connections (server.tomcat.max-connections)
+ * and, for database stores, by the connection pool rather than by the thread count.
+ *
+ * Needs a Java 21 runtime; the build itself stays on Java 11. Startup fails if the
+ * property is set on an older JVM, rather than quietly serving on platform threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public VirtualThreadExecutorCustomizer virtualThreadExecutorCustomizer() {
+        if (!VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("server.virtual-threads=true needs a Java 21 runtime (running "
+                    + System.getProperty("java.version") + ")");
+        }
+        return new VirtualThreadExecutorCustomizer(VirtualThreads.newExecutor("http-vt-"));
+    }
+
+    /**
+     * Hands Tomcat a thread-per-request executor; Tomcat does not shut down executors
+     * it did not create, so this bean does once the server has stopped
+     */
+    public static class VirtualThreadExecutorCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+        private final ExecutorService executor;
+
+        VirtualThreadExecutorCustomizer(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executor);
+        }
+
+        @Override
+        public void destroy() throws InterruptedException {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -1,9 +1,10 @@
 async function loadVehicles(filter, typeFilter) {
+  // the table shows summary columns only, so ask for just those
   let url = '/api/vehicles';
-  const params = [];
+  const params = ['view=summary'];
   if (filter) params.push('brand=' + encodeURIComponent(filter));
   if (typeFilter) params.push('type=' + encodeURIComponent(typeFilter));
-  if (params.length) url += '?' + params.join('&');
+  url += '?' + params.join('&');
   const res = await fetch(url);
   const list = await res.json();
   const tbody = document.querySelector('#vehicleTable tbody');
@@ -16,7 +17,6 @@ async function loadVehicles(filter, typeFilter) {
       <td>${v.brand}</td>
       <td>${v.model}</td>
       <td>${v.year}</td>
-      <td>${(v.details) ? v.details : ''}</td>
       <td>
         <button data-id="${v.id}" class="edit">Edit</button>
         <button data-id="${v.id}" class="delete">Delete</button>